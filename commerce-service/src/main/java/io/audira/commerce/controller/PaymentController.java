@@ -6,6 +6,7 @@ import io.audira.commerce.service.PaymentService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -24,6 +25,11 @@ public class PaymentController {
         return ResponseEntity.ok(paymentService.createPayment(orderId, userId, amount, paymentMethod));
     }
 
+    @GetMapping("/revenue")
+    public ResponseEntity<BigDecimal> getCompletedRevenue() {
+        return ResponseEntity.ok(paymentService.getCompletedRevenue());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Payment> getPaymentById(@PathVariable Long id) {
         return ResponseEntity.ok(paymentService.getPaymentById(id));
@@ -3,7 +3,9 @@ package io.audira.commerce.repository;
 import io.audira.commerce.model.Payment;
 import io.audira.commerce.model.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,4 +16,7 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByOrderId(Long orderId);
     List<Payment> findByUserIdAndStatus(Long userId, PaymentStatus status);
     List<Payment> findByStatus(PaymentStatus status);
+
+    @Query("SELECT COALESCE(SUM(p.amount), 0) FROM Payment p WHERE p.status = :status")
+    BigDecimal sumAmountByStatus(PaymentStatus status);
 }
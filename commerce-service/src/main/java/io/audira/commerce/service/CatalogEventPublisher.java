@@ -0,0 +1,49 @@
+package io.audira.commerce.service;
+
+import io.audira.commerce.model.ItemType;
+import io.audira.commerce.model.OrderItem;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends purchases of songs and albums to the trending engine of music-catalog-service.
+ * <p>
+ * Like {@link GlobalMetricsPublisher}, events go through {@link InternalEventPublisher} and
+ * are dropped if they cannot be delivered.
+ */
+@Component
+public class CatalogEventPublisher {
+
+    private final InternalEventPublisher publisher;
+    private final String eventsUrl;
+
+    CatalogEventPublisher(InternalEventPublisher publisher,
+                          @Value("${services.catalog-url:http://music-catalog-service}") String catalogUrl) {
+        this.publisher = publisher;
+        this.eventsUrl = catalogUrl + "/api/discovery/trending/events";
+    }
+
+    public void publishPurchasesAfterCommit(List<OrderItem> items) {
+        List<Map<String, Object>> events = items.stream()
+                .filter(item -> item.getItemType() == ItemType.SONG || item.getItemType() == ItemType.ALBUM)
+                .map(CatalogEventPublisher::toEvent)
+                .toList();
+        if (events.isEmpty()) {
+            return;
+        }
+        publisher.postAfterCommit(events.size() + " purchase events", eventsUrl, events);
+    }
+
+    private static Map<String, Object> toEvent(OrderItem item) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("type", "PURCHASE");
+        event.put("entityType", item.getItemType().name());
+        event.put("entityId", item.getItemId());
+        event.put("count", Math.max(item.getQuantity(), 1));
+        return event;
+    }
+}
@@ -0,0 +1,40 @@
+package io.audira.commerce.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Sends payment events to the global metrics of community-service.
+ * <p>
+ * Events go through {@link InternalEventPublisher}, so payments never wait on
+ * community-service. Events that cannot be delivered are dropped; the nightly
+ * reconciliation in community-service corrects the resulting drift.
+ */
+@Component
+public class GlobalMetricsPublisher {
+
+    public enum Event {
+        PAYMENT_COMPLETED,
+        PAYMENT_REFUNDED
+    }
+
+    private final InternalEventPublisher publisher;
+    private final String eventsUrl;
+
+    GlobalMetricsPublisher(InternalEventPublisher publisher,
+                           @Value("${services.community-url:http://community-service}") String communityUrl) {
+        this.publisher = publisher;
+        this.eventsUrl = communityUrl + "/api/metrics/global/events";
+    }
+
+    public void publishAfterCommit(Event event, BigDecimal amount) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("type", event.name());
+        body.put("amount", amount);
+        publisher.postAfterCommit("global metrics event " + event, eventsUrl, body);
+    }
+}
@@ -0,0 +1,89 @@
+package io.audira.commerce.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts events to the internal endpoints of other services with the shared internal token.
+ * <p>
+ * Events are queued once the current transaction commits and sent in order from a single
+ * background thread, so payments never wait on the receiving service. An event that cannot
+ * be queued or delivered is logged and dropped.
+ */
+@Component
+@Slf4j
+class InternalEventPublisher {
+
+    private final RestTemplate restTemplate;
+    private final String internalApiToken;
+    private final ThreadPoolExecutor executor;
+
+    InternalEventPublisher(RestTemplate restTemplate,
+                           @Value("${internal.api-token:}") String internalApiToken) {
+        this.restTemplate = restTemplate;
+        this.internalApiToken = internalApiToken;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(10_000),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "internal-event-publisher");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Posts {@code body} to {@code url} after commit, or right away outside a transaction;
+     * {@code description} names the event in the log when it is dropped.
+     */
+    void postAfterCommit(String description, String url, Object body) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(description, url, body);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(description, url, body);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void enqueue(String description, String url, Object body) {
+        try {
+            executor.execute(() -> send(description, url, body));
+        } catch (RejectedExecutionException ex) {
+            log.warn("Internal event queue full, dropping {}", description);
+        }
+    }
+
+    private void send(String description, String url, Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        if (!internalApiToken.isEmpty()) {
+            headers.set("X-Internal-Token", internalApiToken);
+        }
+        try {
+            restTemplate.postForLocation(url, new HttpEntity<>(body, headers));
+        } catch (RestClientException ex) {
+            log.warn("Could not publish {}: {}", description, ex.getMessage());
+        }
+    }
+}
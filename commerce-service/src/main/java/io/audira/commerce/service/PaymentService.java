@@ -3,6 +3,7 @@ package io.audira.commerce.service;
 import io.audira.commerce.model.Payment;
 import io.audira.commerce.model.PaymentMethod;
 import io.audira.commerce.model.PaymentStatus;
+import io.audira.commerce.repository.OrderItemRepository;
 import io.audira.commerce.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,6 +19,9 @@ import java.util.UUID;
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
+    private final GlobalMetricsPublisher globalMetricsPublisher;
+    private final OrderItemRepository orderItemRepository;
+    private final CatalogEventPublisher catalogEventPublisher;
 
     @Transactional
     public Payment createPayment(Long orderId, Long userId, Double amount, PaymentMethod paymentMethod) {
@@ -87,6 +91,8 @@ public class PaymentService {
 
         payment.setStatus(PaymentStatus.COMPLETED);
         payment.setPaymentGatewayResponse("Payment completed successfully");
+        globalMetricsPublisher.publishAfterCommit(GlobalMetricsPublisher.Event.PAYMENT_COMPLETED, payment.getAmount());
+        catalogEventPublisher.publishPurchasesAfterCommit(orderItemRepository.findByOrderId(payment.getOrderId()));
         log.info("Payment {} completed successfully", paymentId);
 
         return paymentRepository.save(payment);
@@ -126,6 +132,7 @@ public class PaymentService {
             payment.setStatus(PaymentStatus.REFUNDED);
             payment.setRefundTransactionId(refundTransactionId);
             payment.setPaymentGatewayResponse("Payment refunded successfully");
+            globalMetricsPublisher.publishAfterCommit(GlobalMetricsPublisher.Event.PAYMENT_REFUNDED, payment.getAmount());
             log.info("Payment {} refunded successfully with refund transaction ID {}", paymentId, refundTransactionId);
         } catch (Exception e) {
             log.error("Error refunding payment {}: {}", paymentId, e.getMessage());
@@ -158,6 +165,10 @@ public class PaymentService {
         return payments.get(payments.size() - 1);
     }
 
+    public BigDecimal getCompletedRevenue() {
+        return paymentRepository.sumAmountByStatus(PaymentStatus.COMPLETED);
+    }
+
     public List<Payment> getPaymentsByStatus(PaymentStatus status) {
         return paymentRepository.findByStatus(status);
     }
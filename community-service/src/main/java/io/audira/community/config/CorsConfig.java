@@ -29,7 +29,7 @@ public class CorsConfig {
         configuration.setAllowCredentials(true);
 
         // Headers expuestos
-        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type"));
+        configuration.setExposedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Next-Cursor"));
 
         // Tiempo de cache para pre-flight requests
         configuration.setMaxAge(3600L);
@@ -0,0 +1,46 @@
+package io.audira.community.config;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Copies follow relations from the former {@code user_followers} / {@code user_following}
+ * element collections into the {@code user_follows} edge table. Runs only while the edge
+ * table is still empty, so it is a no-op once the data has been moved.
+ */
+@Component
+@RequiredArgsConstructor
+public class FollowGraphMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(FollowGraphMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Boolean legacy = jdbcTemplate.queryForObject(
+                "SELECT to_regclass('user_following') IS NOT NULL AND to_regclass('user_followers') IS NOT NULL",
+                Boolean.class);
+        if (!Boolean.TRUE.equals(legacy)
+                || Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "SELECT EXISTS (SELECT 1 FROM user_follows)", Boolean.class))) {
+            return;
+        }
+
+        int copied = jdbcTemplate.update(
+                "INSERT INTO user_follows (follower_id, followed_id, created_at) "
+                        + "SELECT follower_id, followed_id, NOW() FROM ("
+                        + "SELECT user_id AS follower_id, following_id AS followed_id FROM user_following "
+                        + "UNION SELECT follower_id, user_id FROM user_followers) edges "
+                        + "WHERE follower_id <> followed_id "
+                        + "ON CONFLICT (follower_id, followed_id) DO NOTHING");
+        if (copied > 0) {
+            logger.info("Migrated {} follow relations into user_follows", copied);
+        }
+    }
+}
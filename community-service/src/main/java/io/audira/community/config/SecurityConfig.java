@@ -1,11 +1,13 @@
 package io.audira.community.config;
 
 import io.audira.community.security.CustomUserDetailsService;
+import io.audira.community.security.InternalTokenFilter;
 import io.audira.community.security.JwtAuthenticationEntryPoint;
 import io.audira.community.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
@@ -30,6 +32,7 @@ public class SecurityConfig {
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final CorsConfigurationSource corsConfigurationSource;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final InternalTokenFilter internalTokenFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -41,6 +44,9 @@ public class SecurityConfig {
                         .authenticationEntryPoint(jwtAuthenticationEntryPoint)
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // Only other services, authenticated by InternalTokenFilter
+                        .requestMatchers(HttpMethod.POST, "/api/metrics/global/events").hasRole(InternalTokenFilter.ROLE)
+                        .requestMatchers(HttpMethod.POST, "/api/files/release").hasRole(InternalTokenFilter.ROLE)
                         .requestMatchers(
                                 "/api/auth/**",
                                 "/api/users",
@@ -57,7 +63,8 @@ public class SecurityConfig {
                         .anyRequest().authenticated()
                 )
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(internalTokenFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
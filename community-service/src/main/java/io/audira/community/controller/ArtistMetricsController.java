@@ -1,11 +1,19 @@
 package io.audira.community.controller;
 
+import io.audira.community.dto.ListenerEstimateDTO;
+import io.audira.community.dto.MetricsBucketDTO;
+import io.audira.community.model.BucketGranularity;
 import io.audira.community.model.ArtistMetrics;
 import io.audira.community.service.MetricsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/metrics/artists")
 @RequiredArgsConstructor
@@ -19,13 +27,37 @@ public class ArtistMetricsController {
     }
 
     @PostMapping("/{artistId}/plays")
-    public ResponseEntity<ArtistMetrics> incrementPlays(@PathVariable Long artistId) {
+    public ResponseEntity<ArtistMetrics> incrementPlays(
+            @PathVariable Long artistId,
+            @RequestParam(required = false) Long userId) {
+        if (userId != null) {
+            metricsService.recordArtistListener(artistId, userId);
+        }
         return ResponseEntity.ok(metricsService.incrementArtistPlays(artistId));
     }
 
+    @GetMapping("/{artistId}/listeners")
+    public ResponseEntity<ListenerEstimateDTO> getListeners(
+            @PathVariable Long artistId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(metricsService.getArtistListeners(artistId, from, to));
+    }
+
+    @GetMapping("/{artistId}/timeseries")
+    public ResponseEntity<List<MetricsBucketDTO>> getTimeSeries(
+            @PathVariable Long artistId,
+            @RequestParam(defaultValue = "DAY") BucketGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(metricsService.getArtistTimeSeries(artistId, granularity, from, to));
+    }
+
     @PostMapping("/{artistId}/listeners")
-    public ResponseEntity<ArtistMetrics> incrementListeners(@PathVariable Long artistId) {
-        return ResponseEntity.ok(metricsService.incrementArtistListeners(artistId));
+    public ResponseEntity<ArtistMetrics> recordListener(
+            @PathVariable Long artistId,
+            @RequestParam Long userId) {
+        return ResponseEntity.ok(metricsService.recordArtistListener(artistId, userId));
     }
 
     @PostMapping("/{artistId}/followers/increment")
@@ -1,89 +1,93 @@
 package io.audira.community.controller;
 
+import io.audira.community.service.FileStorageService;
+import io.audira.community.service.FileStreamingService;
+import io.audira.community.service.ImageVariantService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 
 @RestController
 @RequestMapping("/api/files")
 @RequiredArgsConstructor
 public class FileServeController {
 
-    @Value("${file.upload-dir:uploads}")
-    private String uploadDir;
+    private static final String IMMUTABLE_CACHE_CONTROL = "public, max-age=31536000, immutable";
+    private static final String VARIANT_CACHE_CONTROL = "public, max-age=86400";
+
+    private final FileStorageService fileStorageService;
+    private final FileStreamingService fileStreamingService;
+    private final ImageVariantService imageVariantService;
 
     @GetMapping("/{subDirectory}/{fileName:.+}")
-    public ResponseEntity<Resource> serveFile(
+    public void serveFile(
             @PathVariable String subDirectory,
             @PathVariable String fileName,
-            @RequestHeader(value = "Range", required = false) String range) {
+            @RequestParam(value = "w", required = false) Integer width,
+            @RequestParam(value = "h", required = false) Integer height,
+            @RequestParam(value = "q", required = false) Float quality,
+            @RequestParam(value = "fmt", required = false) String format,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
 
         try {
-            Path fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
-            Path filePath = fileStorageLocation.resolve(subDirectory).resolve(fileName).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+            Path filePath = fileStorageService.resolve(subDirectory, fileName);
 
-            if (resource.exists() && resource.isReadable()) {
-                String contentType = determineContentType(fileName);
-                long fileLength = Files.size(filePath);
+            if (filePath == null || !Files.isRegularFile(filePath) || !Files.isReadable(filePath)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
 
-                // Si es un archivo de audio y se solicita un rango, manejar range request
-                if (range != null && isAudioFile(fileName)) {
-                    return handleRangeRequest(resource, filePath, range, contentType, fileLength);
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + fileName + "\"");
+            String contentType = determineContentType(fileName);
+            boolean immutable = FileStorageService.BLOB_DIRECTORY.equals(subDirectory);
+
+            // Variante redimensionada bajo demanda (?w=&h=&q=&fmt=), solo para imágenes
+            if ((width != null || height != null || quality != null || format != null)
+                    && contentType.startsWith("image/")) {
+                ImageVariantService.Variant variant = imageVariantService.getVariant(filePath,
+                        subDirectory + "/" + fileName, width, height, quality, format);
+                String etag = "\"" + variant.key() + "\"";
+                String cacheControl = immutable ? IMMUTABLE_CACHE_CONTROL : VARIANT_CACHE_CONTROL;
+                if (variant.content() != null) {
+                    fileStreamingService.send(variant.content(), variant.contentType(), etag, cacheControl,
+                            request, response);
+                } else {
+                    fileStreamingService.stream(variant.file(), variant.contentType(), etag, cacheControl,
+                            request, response);
                 }
+                return;
+            }
 
-                // Respuesta normal para archivos sin rango o imágenes
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                        .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(fileLength))
-                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                        .body(resource);
-            } else {
-                return ResponseEntity.notFound().build();
+            // Los blobs direccionados por contenido nunca cambian: se pueden cachear para siempre
+            if (immutable) {
+                int dot = fileName.indexOf('.');
+                String etag = "\"" + (dot > 0 ? fileName.substring(0, dot) : fileName) + "\"";
+                fileStreamingService.stream(filePath, contentType, etag, IMMUTABLE_CACHE_CONTROL,
+                        request, response);
+                return;
             }
-        } catch (Exception e) {
-            System.err.println("Error serving file: " + e.getMessage());
-            return ResponseEntity.internalServerError().build();
-        }
-    }
 
-    private ResponseEntity<Resource> handleRangeRequest(Resource resource, Path filePath,
-                                                         String range, String contentType,
-                                                         long fileLength) throws IOException {
-        // Parse range header (formato: "bytes=start-end")
-        String[] ranges = range.replace("bytes=", "").split("-");
-        long rangeStart = Long.parseLong(ranges[0]);
-        long rangeEnd = ranges.length > 1 && !ranges[1].isEmpty()
-            ? Long.parseLong(ranges[1])
-            : fileLength - 1;
-
-        if (rangeStart > rangeEnd || rangeEnd >= fileLength) {
-            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
-                    .header(HttpHeaders.CONTENT_RANGE, "bytes */" + fileLength)
-                    .build();
+            // Solo se envían los bytes pedidos (Range), con validación por ETag/Last-Modified
+            fileStreamingService.stream(filePath, contentType, request, response);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+        } catch (ImageVariantService.RenderBusyException e) {
+            // Todas las ranuras de redimensionado ocupadas: el cliente reintenta en un momento
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (IOException e) {
+            System.err.println("Error serving file: " + e.getMessage());
+            if (!response.isCommitted()) {
+                response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
         }
-
-        long contentLength = rangeEnd - rangeStart + 1;
-
-        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                .contentType(MediaType.parseMediaType(contentType))
-                .header(HttpHeaders.CONTENT_RANGE, "bytes " + rangeStart + "-" + rangeEnd + "/" + fileLength)
-                .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(contentLength))
-                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
-                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
     }
 
     private String determineContentType(String fileName) {
@@ -120,15 +124,4 @@ public class FileServeController {
                 return "application/octet-stream";
         }
     }
-
-    private boolean isAudioFile(String fileName) {
-        String fileExtension = fileName.substring(fileName.lastIndexOf('.') + 1).toLowerCase();
-        return fileExtension.equals("mp3") ||
-               fileExtension.equals("wav") ||
-               fileExtension.equals("flac") ||
-               fileExtension.equals("ogg") ||
-               fileExtension.equals("aac") ||
-               fileExtension.equals("midi") ||
-               fileExtension.equals("mid");
-    }
 }
@@ -3,6 +3,7 @@ package io.audira.community.controller;
 import io.audira.community.dto.UserDTO;
 import io.audira.community.service.FileStorageService;
 import io.audira.community.service.ImageCompressionService;
+import io.audira.community.service.ImageDerivativeService;
 import io.audira.community.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,6 +13,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,6 +25,7 @@ public class FileUploadController {
     private final FileStorageService fileStorageService;
     private final UserService userService;
     private final ImageCompressionService imageCompressionService;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Value("${file.base-url:http://localhost:9001}")
     private String baseUrl;
@@ -54,15 +58,19 @@ public class FileUploadController {
             // Guardar el archivo
             String filePath = fileStorageService.storeFile(file, "profile-images");
             String fileUrl = buildFileUrl(filePath);
+            Map<String, String> derivatives = enqueueDerivatives(filePath, ImageDerivativeService.Kind.AVATAR);
 
             // Actualizar el usuario con la nueva URL
+            String previousUrl = userService.getUserById(userId).getProfileImageUrl();
             Map<String, Object> updates = new HashMap<>();
             updates.put("profileImageUrl", fileUrl);
             UserDTO updatedUser = userService.updateProfile(userId, updates);
+            releaseReplacedFile(previousUrl);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Imagen de perfil actualizada exitosamente");
             response.put("fileUrl", fileUrl);
+            response.put("derivatives", derivatives);
             response.put("user", updatedUser);
 
             return ResponseEntity.ok(response);
@@ -97,15 +105,19 @@ public class FileUploadController {
             // Guardar el archivo
             String filePath = fileStorageService.storeFile(file, "banner-images");
             String fileUrl = buildFileUrl(filePath);
+            Map<String, String> derivatives = enqueueDerivatives(filePath, ImageDerivativeService.Kind.BANNER);
 
             // Actualizar el usuario con la nueva URL
+            String previousUrl = userService.getUserById(userId).getBannerImageUrl();
             Map<String, Object> updates = new HashMap<>();
             updates.put("bannerImageUrl", fileUrl);
             UserDTO updatedUser = userService.updateProfile(userId, updates);
+            releaseReplacedFile(previousUrl);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Imagen de banner actualizada exitosamente");
             response.put("fileUrl", fileUrl);
+            response.put("derivatives", derivatives);
             response.put("user", updatedUser);
 
             return ResponseEntity.ok(response);
@@ -187,11 +199,13 @@ public class FileUploadController {
             // Guardar el archivo
             String filePath = fileStorageService.storeFile(file, "cover-images");
             String fileUrl = buildFileUrl(filePath);
+            Map<String, String> derivatives = enqueueDerivatives(filePath, ImageDerivativeService.Kind.COVER);
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Imagen de portada subida exitosamente");
             response.put("fileUrl", fileUrl);
             response.put("filePath", filePath);
+            response.put("derivatives", derivatives);
 
             if (productId != null) {
                 response.put("productId", productId);
@@ -279,13 +293,15 @@ public class FileUploadController {
             // Comprimir y redimensionar
             InputStream optimizedImage = imageCompressionService.compressAndResize(file, maxWidth, maxHeight, quality);
 
-            // Crear un MultipartFile temporal con la imagen optimizada
             byte[] imageBytes = optimizedImage.readAllBytes();
 
             // Guardar la imagen optimizada
-            // Nota: Para esto necesitaríamos crear un MultipartFile wrapper, por ahora retornamos la imagen
+            String filePath = fileStorageService.storeFile(imageBytes, file.getOriginalFilename(), subDirectory);
+
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Imagen optimizada exitosamente");
+            response.put("fileUrl", buildFileUrl(filePath));
+            response.put("filePath", filePath);
             response.put("originalSize", file.getSize());
             response.put("optimizedSize", imageBytes.length);
             response.put("compressionRatio", String.format("%.2f%%", (1 - (double)imageBytes.length / file.getSize()) * 100));
@@ -299,6 +315,21 @@ public class FileUploadController {
         }
     }
 
+    // Solo para otros servicios: catálogo avisa de portadas y audios que dejaron de usarse
+    @PostMapping("/release")
+    public ResponseEntity<Void> releaseFiles(@RequestBody List<String> fileUrls) {
+        fileUrls.forEach(this::releaseReplacedFile);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Las miniaturas se generan en segundo plano; sus URLs responden en cuanto están listas
+    private Map<String, String> enqueueDerivatives(String filePath, ImageDerivativeService.Kind kind) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        imageDerivativeService.enqueue(filePath, kind)
+                .forEach((variant, derivativePath) -> urls.put(variant, buildFileUrl(derivativePath)));
+        return urls;
+    }
+
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> error = new HashMap<>();
         error.put("error", message);
@@ -308,4 +339,17 @@ public class FileUploadController {
     private String buildFileUrl(String filePath) {
         return baseUrl + "/api/files/" + filePath;
     }
+
+    // Libera la referencia al blob reemplazado; se borra del disco cuando nadie más lo usa
+    private void releaseReplacedFile(String previousUrl) {
+        String prefix = baseUrl + "/api/files/" + FileStorageService.BLOB_DIRECTORY + "/";
+        if (previousUrl == null || !previousUrl.startsWith(prefix)) {
+            return;
+        }
+        try {
+            fileStorageService.deleteFile(previousUrl.substring((baseUrl + "/api/files/").length()));
+        } catch (RuntimeException e) {
+            System.err.println("Error releasing replaced file: " + e.getMessage());
+        }
+    }
 }
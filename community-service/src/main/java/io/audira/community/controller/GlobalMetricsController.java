@@ -1,7 +1,10 @@
 package io.audira.community.controller;
 
+import io.audira.community.dto.GlobalMetricsEventRequest;
+import io.audira.community.dto.GlobalMetricsReconciliationDTO;
 import io.audira.community.model.GlobalMetrics;
 import io.audira.community.service.MetricsService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,8 +21,21 @@ public class GlobalMetricsController {
         return ResponseEntity.ok(metricsService.getGlobalMetrics());
     }
 
-    @PutMapping
-    public ResponseEntity<GlobalMetrics> updateGlobalMetrics(@RequestBody GlobalMetrics metrics) {
-        return ResponseEntity.ok(metricsService.updateGlobalMetrics(metrics));
+    // Llamado por otros servicios con X-Internal-Token (ver SecurityConfig), no con el JWT de un usuario
+    @PostMapping("/events")
+    public ResponseEntity<Void> recordEvent(@Valid @RequestBody GlobalMetricsEventRequest event) {
+        metricsService.recordGlobalEvent(event.getType(), event.getAmount());
+        return ResponseEntity.accepted().build();
+    }
+
+    @GetMapping("/reconciliation")
+    public ResponseEntity<GlobalMetricsReconciliationDTO> getLastReconciliation() {
+        GlobalMetricsReconciliationDTO report = metricsService.getLastGlobalReconciliation();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/reconciliation")
+    public ResponseEntity<GlobalMetricsReconciliationDTO> reconcile() {
+        return ResponseEntity.ok(metricsService.reconcileGlobalMetrics());
     }
 }
@@ -1,11 +1,19 @@
 package io.audira.community.controller;
 
+import io.audira.community.dto.ListenerEstimateDTO;
+import io.audira.community.dto.MetricsBucketDTO;
+import io.audira.community.model.BucketGranularity;
 import io.audira.community.model.SongMetrics;
 import io.audira.community.service.MetricsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/metrics/songs")
 @RequiredArgsConstructor
@@ -19,13 +27,37 @@ public class SongMetricsController {
     }
 
     @PostMapping("/{songId}/plays")
-    public ResponseEntity<SongMetrics> incrementPlays(@PathVariable Long songId) {
+    public ResponseEntity<SongMetrics> incrementPlays(
+            @PathVariable Long songId,
+            @RequestParam(required = false) Long userId) {
+        if (userId != null) {
+            metricsService.recordSongListener(songId, userId);
+        }
         return ResponseEntity.ok(metricsService.incrementSongPlays(songId));
     }
 
+    @GetMapping("/{songId}/listeners")
+    public ResponseEntity<ListenerEstimateDTO> getListeners(
+            @PathVariable Long songId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(metricsService.getSongListeners(songId, from, to));
+    }
+
+    @GetMapping("/{songId}/timeseries")
+    public ResponseEntity<List<MetricsBucketDTO>> getTimeSeries(
+            @PathVariable Long songId,
+            @RequestParam(defaultValue = "DAY") BucketGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(metricsService.getSongTimeSeries(songId, granularity, from, to));
+    }
+
     @PostMapping("/{songId}/listeners")
-    public ResponseEntity<SongMetrics> incrementListeners(@PathVariable Long songId) {
-        return ResponseEntity.ok(metricsService.incrementUniqueListeners(songId));
+    public ResponseEntity<SongMetrics> recordListener(
+            @PathVariable Long songId,
+            @RequestParam Long userId) {
+        return ResponseEntity.ok(metricsService.recordSongListener(songId, userId));
     }
 
     @PostMapping("/{songId}/likes")
@@ -3,6 +3,7 @@ package io.audira.community.controller;
 import io.audira.community.dto.ChangePasswordRequest;
 import io.audira.community.dto.UpdateProfileRequest;
 import io.audira.community.dto.UserDTO;
+import io.audira.community.dto.UserPageDTO;
 import io.audira.community.security.UserPrincipal;
 import io.audira.community.service.UserService;
 import jakarta.validation.Valid;
@@ -18,6 +19,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserController {
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final UserService userService;
 
     // Endpoint: GET /api/users/profile (probado en el script)
@@ -51,25 +54,32 @@ public class UserController {
         return ResponseEntity.ok(users);
     }
 
-    // Endpoint: GET /api/users/{userId}/followers
+    // Endpoint: GET /api/users/{userId}/followers?cursor=&size=
+    // The cursor for the next page is returned in the X-Next-Cursor header
     @GetMapping("/{userId}/followers")
-    public ResponseEntity<List<UserDTO>> getUserFollowers(@PathVariable("userId") Long userId) {
-        List<UserDTO> followers = userService.getFollowers(userId);
-        return ResponseEntity.ok(followers);
+    public ResponseEntity<List<UserDTO>> getUserFollowers(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return toPageResponse(userService.getFollowers(userId, cursor, size));
     }
 
-    // Endpoint: GET /api/users/{userId}/following
+    // Endpoint: GET /api/users/{userId}/following?cursor=&size=
     @GetMapping("/{userId}/following")
-    public ResponseEntity<List<UserDTO>> getUserFollowing(@PathVariable("userId") Long userId) {
-        List<UserDTO> following = userService.getFollowing(userId);
-        return ResponseEntity.ok(following);
+    public ResponseEntity<List<UserDTO>> getUserFollowing(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return toPageResponse(userService.getFollowing(userId, cursor, size));
     }
 
-    // Endpoint: GET /api/users/{userId}/following/artists
+    // Endpoint: GET /api/users/{userId}/following/artists?cursor=&size=
     @GetMapping("/{userId}/following/artists")
-    public ResponseEntity<List<UserDTO>> getFollowedArtists(@PathVariable("userId") Long userId) {
-        List<UserDTO> followedArtists = userService.getFollowedArtists(userId);
-        return ResponseEntity.ok(followedArtists);
+    public ResponseEntity<List<UserDTO>> getFollowedArtists(
+            @PathVariable("userId") Long userId,
+            @RequestParam(value = "cursor", required = false) Long cursor,
+            @RequestParam(value = "size", defaultValue = "50") int size) {
+        return toPageResponse(userService.getFollowedArtists(userId, cursor, size));
     }
 
     // Endpoint: POST /api/users/{userId}/follow/{targetUserId}
@@ -106,4 +116,12 @@ public class UserController {
             );
         }
     }
-}
\ No newline at end of file
+
+    private static ResponseEntity<List<UserDTO>> toPageResponse(UserPageDTO page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor().toString());
+        }
+        return response.body(page.getUsers());
+    }
+}
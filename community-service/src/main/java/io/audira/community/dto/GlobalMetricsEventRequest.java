@@ -0,0 +1,18 @@
+package io.audira.community.dto;
+
+import io.audira.community.model.GlobalMetricsEventType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlobalMetricsEventRequest {
+    @NotNull
+    private GlobalMetricsEventType type;
+    private Double amount; // Only for payment events
+}
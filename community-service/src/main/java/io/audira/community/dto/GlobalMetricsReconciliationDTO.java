@@ -0,0 +1,19 @@
+package io.audira.community.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GlobalMetricsReconciliationDTO {
+    private LocalDateTime reconciledAt;
+    private Map<String, Double> drift; // recomputed value minus incrementally maintained value
+    private List<String> unavailableSources; // totals that could not be recomputed and were left untouched
+}
@@ -0,0 +1,23 @@
+package io.audira.community.dto;
+
+import io.audira.community.model.EntityType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ListenerEstimateDTO {
+    private EntityType entityType;
+    private Long entityId;
+    private LocalDate from; // null for the lifetime estimate
+    private LocalDate to;
+    private Long estimate;
+    private Double relativeStandardError;
+    private Long lowerBound; // ~95% confidence interval (2 standard errors)
+    private Long upperBound;
+}
@@ -0,0 +1,22 @@
+package io.audira.community.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricsBucketDTO {
+    private LocalDateTime bucketStart;
+    private Long plays;
+    private Long likes;
+    private Long shares;
+    private Long downloads;
+    private Long followers;
+    private Long sales;
+    private Double revenue;
+}
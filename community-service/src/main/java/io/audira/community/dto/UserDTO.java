@@ -16,6 +16,8 @@ public class UserDTO {
     private Long id;
     private String email;
     private String username;
+    // Stage name, only set for artists
+    private String artistName;
     private String firstName;
     private String lastName;
     private String bio;
@@ -26,7 +28,9 @@ public class UserDTO {
     private UserRole role;
     private Boolean isActive;
     private Boolean isVerified;
-    private Set<Long> followerIds;
+    private Long followerCount;
+    private Long followingCount;
+    // Only filled in on single-profile responses, list entries carry the counts alone
     private Set<Long> followingIds;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,17 @@
+package io.audira.community.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+
+/**
+ * One keyset page of users; {@code nextCursor} is {@code null} on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserPageDTO {
+    private List<UserDTO> users;
+    private Long nextCursor;
+}
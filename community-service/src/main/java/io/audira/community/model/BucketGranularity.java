@@ -0,0 +1,7 @@
+package io.audira.community.model;
+
+public enum BucketGranularity {
+    HOUR,
+    DAY,
+    MONTH
+}
@@ -0,0 +1,35 @@
+package io.audira.community.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Index entry of a content-addressed blob: one row per distinct upload content,
+ * counting how many stored files point at it.
+ */
+@Entity
+@Table(name = "file_blobs")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileBlob {
+
+    // Hex SHA-256 of the content
+    @Id
+    @Column(length = 64)
+    private String digest;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Long refCount;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
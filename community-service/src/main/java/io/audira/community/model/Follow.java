@@ -0,0 +1,44 @@
+package io.audira.community.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Edge of the follow graph: {@code followerId} follows {@code followedId}.
+ * The id doubles as the keyset cursor for paginated follower and following lists.
+ */
+@Entity
+@Table(name = "user_follows", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"follower_id", "followed_id"})
+}, indexes = {
+        @Index(name = "idx_user_follows_followed", columnList = "followed_id, id"),
+        @Index(name = "idx_user_follows_follower", columnList = "follower_id, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Follow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "follower_id", nullable = false)
+    private Long followerId;
+
+    @Column(name = "followed_id", nullable = false)
+    private Long followedId;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        this.createdAt = LocalDateTime.now();
+    }
+}
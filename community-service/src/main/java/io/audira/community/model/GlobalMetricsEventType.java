@@ -0,0 +1,13 @@
+package io.audira.community.model;
+
+public enum GlobalMetricsEventType {
+    USER_REGISTERED,
+    ARTIST_REGISTERED,
+    SONG_CREATED,
+    SONG_DELETED,
+    ALBUM_CREATED,
+    ALBUM_DELETED,
+    PLAY,
+    PAYMENT_COMPLETED,
+    PAYMENT_REFUNDED
+}
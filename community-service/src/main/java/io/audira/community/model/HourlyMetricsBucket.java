@@ -0,0 +1,16 @@
+package io.audira.community.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "metrics_hourly", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"entity_type", "entity_id", "bucket_start"})
+})
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class HourlyMetricsBucket extends MetricsBucket {
+}
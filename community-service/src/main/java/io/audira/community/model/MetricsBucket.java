@@ -0,0 +1,51 @@
+package io.audira.community.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.time.LocalDateTime;
+
+/**
+ * Pre-aggregated activity of a song or artist during one time bucket.
+ * Values are net changes within the bucket (e.g. followers gained minus lost).
+ */
+@MappedSuperclass
+@Data
+@NoArgsConstructor
+public abstract class MetricsBucket {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false)
+    private EntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long plays;
+
+    @Column(nullable = false)
+    private Long likes;
+
+    @Column(nullable = false)
+    private Long shares;
+
+    @Column(nullable = false)
+    private Long downloads;
+
+    @Column(nullable = false)
+    private Long followers;
+
+    @Column(nullable = false)
+    private Long sales;
+
+    @Column(nullable = false)
+    private Double revenue;
+}
@@ -1,5 +1,6 @@
 package io.audira.community.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -37,6 +38,10 @@ public class SongMetrics {
     @Column(nullable = false)
     private Long totalDownloads;
 
+    @JsonIgnore
+    @Column(columnDefinition = "bytea")
+    private byte[] listenerSketch; // HyperLogLog of distinct listener ids
+
     @Column(nullable = false)
     private LocalDateTime lastUpdated;
 
@@ -7,8 +7,6 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 import java.time.LocalDateTime;
-import java.util.HashSet;
-import java.util.Set;
 
 @Entity
 @Table(name = "users")
@@ -62,16 +60,6 @@ public abstract class User {
     @Column(nullable = false)
     private Boolean isVerified;
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_followers", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "follower_id")
-    private Set<Long> followerIds = new HashSet<>();
-
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "user_following", joinColumns = @JoinColumn(name = "user_id"))
-    @Column(name = "following_id")
-    private Set<Long> followingIds = new HashSet<>();
-
     @Column(nullable = false)
     private LocalDateTime createdAt;
 
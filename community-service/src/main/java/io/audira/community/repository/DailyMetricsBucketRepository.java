@@ -0,0 +1,8 @@
+package io.audira.community.repository;
+
+import io.audira.community.model.DailyMetricsBucket;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DailyMetricsBucketRepository extends MetricsBucketRepository<DailyMetricsBucket> {
+}
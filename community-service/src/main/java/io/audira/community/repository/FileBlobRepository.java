@@ -0,0 +1,50 @@
+package io.audira.community.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Reference counts of content-addressed blobs. Both operations lock the blob row, so callers
+ * that touch the blob file inside the same transaction never race with each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class FileBlobRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds one reference, creating the index entry on first use.
+     *
+     * @return the reference count after the increment
+     */
+    public long acquire(String digest, long size) {
+        return jdbcTemplate.queryForObject(
+                "INSERT INTO file_blobs (digest, size, ref_count, created_at) VALUES (?, ?, 1, NOW()) "
+                        + "ON CONFLICT (digest) DO UPDATE SET ref_count = file_blobs.ref_count + 1 "
+                        + "RETURNING ref_count",
+                Long.class, digest, size);
+    }
+
+    /**
+     * Drops one reference and removes the index entry once none are left.
+     *
+     * @return the remaining reference count, or {@code -1} if the blob is not indexed
+     */
+    public long release(String digest) {
+        List<Long> remaining = jdbcTemplate.queryForList(
+                "UPDATE file_blobs SET ref_count = ref_count - 1 WHERE digest = ? RETURNING ref_count",
+                Long.class, digest);
+        if (remaining.isEmpty()) {
+            return -1;
+        }
+        if (remaining.get(0) <= 0) {
+            jdbcTemplate.update("DELETE FROM file_blobs WHERE digest = ?", digest);
+            return 0;
+        }
+        return remaining.get(0);
+    }
+}
@@ -0,0 +1,58 @@
+package io.audira.community.repository;
+
+import io.audira.community.model.Follow;
+import io.audira.community.model.UserRole;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+
+    boolean existsByFollowerIdAndFollowedId(Long followerId, Long followedId);
+
+    // Idempotent: a concurrent follow of the same pair is a no-op instead of a unique-key error
+    @Modifying
+    @Query(value = "INSERT INTO user_follows (follower_id, followed_id, created_at) "
+            + "VALUES (:followerId, :followedId, now()) ON CONFLICT (follower_id, followed_id) DO NOTHING",
+            nativeQuery = true)
+    int insertEdgeIfAbsent(@Param("followerId") Long followerId, @Param("followedId") Long followedId);
+
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.followerId = :followerId AND f.followedId = :followedId")
+    int deleteEdge(@Param("followerId") Long followerId, @Param("followedId") Long followedId);
+
+    // Both directions, for account deletion
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.followerId = :userId OR f.followedId = :userId")
+    int deleteAllByUserId(@Param("userId") Long userId);
+
+    long countByFollowedId(Long followedId);
+
+    long countByFollowerId(Long followerId);
+
+    @Query("SELECT f.followedId FROM Follow f WHERE f.followerId = :followerId")
+    List<Long> findFollowedIds(@Param("followerId") Long followerId);
+
+    // Keyset pages, newest edge first: pass the id of the last edge seen as the cursor
+    List<Follow> findByFollowedIdAndIdLessThanOrderByIdDesc(Long followedId, Long cursor, Pageable pageable);
+
+    List<Follow> findByFollowerIdAndIdLessThanOrderByIdDesc(Long followerId, Long cursor, Pageable pageable);
+
+    @Query("SELECT f FROM Follow f, User u WHERE u.id = f.followedId AND f.followerId = :followerId "
+            + "AND u.role = :role AND f.id < :cursor ORDER BY f.id DESC")
+    List<Follow> findFollowedByRolePage(@Param("followerId") Long followerId, @Param("role") UserRole role,
+                                        @Param("cursor") Long cursor, Pageable pageable);
+
+    // Rows of [userId, count] for the given users
+    @Query("SELECT f.followedId, COUNT(f) FROM Follow f WHERE f.followedId IN :userIds GROUP BY f.followedId")
+    List<Object[]> countFollowersByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT f.followerId, COUNT(f) FROM Follow f WHERE f.followerId IN :userIds GROUP BY f.followerId")
+    List<Object[]> countFollowingByUserIds(@Param("userIds") Collection<Long> userIds);
+}
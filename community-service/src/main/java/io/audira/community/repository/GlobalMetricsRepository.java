@@ -3,7 +3,9 @@ package io.audira.community.repository;
 import io.audira.community.model.GlobalMetrics;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
+import java.util.Optional;
 
 @Repository
 public interface GlobalMetricsRepository extends JpaRepository<GlobalMetrics, Long> {
+    Optional<GlobalMetrics> findFirstByOrderByIdAsc();
 }
@@ -0,0 +1,8 @@
+package io.audira.community.repository;
+
+import io.audira.community.model.HourlyMetricsBucket;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface HourlyMetricsBucketRepository extends MetricsBucketRepository<HourlyMetricsBucket> {
+}
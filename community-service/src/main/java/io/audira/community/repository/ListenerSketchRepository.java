@@ -0,0 +1,17 @@
+package io.audira.community.repository;
+
+import io.audira.community.model.EntityType;
+import io.audira.community.model.ListenerSketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ListenerSketchRepository extends JpaRepository<ListenerSketch, Long> {
+    Optional<ListenerSketch> findByEntityTypeAndEntityIdAndBucketDate(EntityType entityType, Long entityId, LocalDate bucketDate);
+
+    List<ListenerSketch> findByEntityTypeAndEntityIdAndBucketDateBetween(EntityType entityType, Long entityId,
+                                                                         LocalDate from, LocalDate to);
+}
@@ -0,0 +1,14 @@
+package io.audira.community.repository;
+
+import io.audira.community.model.EntityType;
+import io.audira.community.model.MetricsBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@NoRepositoryBean
+public interface MetricsBucketRepository<T extends MetricsBucket> extends JpaRepository<T, Long> {
+    List<T> findByEntityTypeAndEntityIdAndBucketStartBetweenOrderByBucketStart(EntityType entityType, Long entityId,
+                                                                              LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,168 @@
+package io.audira.community.repository;
+
+import io.audira.community.model.EntityType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.BinaryOperator;
+
+/**
+ * Applies aggregated counter deltas with relative {@code SET x = x + ?} upserts,
+ * so concurrent writers never have to read the current row first.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MetricsDeltaRepository {
+
+    public static final List<String> BUCKET_COLUMNS =
+            List.of("plays", "likes", "shares", "downloads", "followers", "sales", "revenue");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param columns counter columns, in the same order as the values of each delta array
+     * @param scales  divisor applied to each value before binding (fixed-point columns)
+     */
+    @Transactional
+    public void applyDeltas(String table, String keyColumn, List<String> columns, long[] scales,
+                            Map<Long, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (").append(keyColumn);
+        columns.forEach(column -> sql.append(", ").append(column));
+        sql.append(", last_updated) VALUES (?");
+        columns.forEach(column -> sql.append(", GREATEST(?, 0)"));
+        sql.append(", NOW()) ON CONFLICT (").append(keyColumn).append(") DO UPDATE SET ");
+        for (String column : columns) {
+            sql.append(column).append(" = GREATEST(").append(table).append('.').append(column)
+                    .append(" + ?, 0), ");
+        }
+        sql.append("last_updated = NOW()");
+
+        // Sorted keys keep row lock order stable across concurrent flushes
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((key, values) -> {
+            Object[] args = new Object[1 + values.length * 2];
+            args[0] = key;
+            for (int i = 0; i < values.length; i++) {
+                Object value = scales[i] == 1 ? (Object) values[i] : (Object) (values[i] / (double) scales[i]);
+                args[1 + i] = value;
+                args[1 + values.length + i] = value;
+            }
+            batch.add(args);
+        });
+
+        jdbcTemplate.batchUpdate(sql.toString(), batch);
+    }
+
+    /**
+     * Applies one set of deltas to a single existing row identified by its primary key.
+     */
+    @Transactional
+    public void applyRowDeltas(String table, Long id, List<String> columns, long[] scales, long[] deltas) {
+        StringBuilder sql = new StringBuilder("UPDATE ").append(table).append(" SET ");
+        List<Object> args = new ArrayList<>(columns.size() + 1);
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(columns.get(i)).append(" = ").append(columns.get(i)).append(" + ?, ");
+            args.add(scales[i] == 1 ? (Object) deltas[i] : (Object) (deltas[i] / (double) scales[i]));
+        }
+        sql.append("last_updated = NOW() WHERE id = ?");
+        args.add(id);
+        jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    /**
+     * Adds deltas to the rollup bucket starting at {@code bucketStart}. Bucket values are net
+     * changes, so unlike the lifetime totals they are not clamped at zero.
+     *
+     * @param bucketColumns rollup column for each value of the delta arrays, {@code null} to skip it
+     */
+    @Transactional
+    public void applyBucketDeltas(String table, EntityType entityType, LocalDateTime bucketStart,
+                                  List<String> bucketColumns, long[] scales, Map<Long, long[]> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table)
+                .append(" (entity_type, entity_id, bucket_start");
+        BUCKET_COLUMNS.forEach(column -> sql.append(", ").append(column));
+        sql.append(") VALUES (?, ?, ?");
+        BUCKET_COLUMNS.forEach(column -> sql.append(", ?"));
+        sql.append(") ON CONFLICT (entity_type, entity_id, bucket_start) DO UPDATE SET ");
+        sql.append(String.join(", ", BUCKET_COLUMNS.stream()
+                .map(column -> column + " = " + table + "." + column + " + EXCLUDED." + column)
+                .toList()));
+
+        Timestamp bucket = Timestamp.valueOf(bucketStart);
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        new TreeMap<>(deltas).forEach((key, values) -> {
+            Object[] args = new Object[3 + BUCKET_COLUMNS.size()];
+            args[0] = entityType.name();
+            args[1] = key;
+            args[2] = bucket;
+            for (int c = 0; c < BUCKET_COLUMNS.size(); c++) {
+                args[3 + c] = "revenue".equals(BUCKET_COLUMNS.get(c)) ? (Object) 0.0 : (Object) 0L;
+            }
+            for (int i = 0; i < values.length; i++) {
+                String column = bucketColumns.get(i);
+                if (column != null) {
+                    args[3 + BUCKET_COLUMNS.indexOf(column)] =
+                            scales[i] == 1 ? (Object) values[i] : (Object) (values[i] / (double) scales[i]);
+                }
+            }
+            batch.add(args);
+        });
+
+        jdbcTemplate.batchUpdate(sql.toString(), batch);
+    }
+
+    /**
+     * Merges serialized listener sketches into the {@code listener_sketch} column of existing rows,
+     * locking them so concurrent flushes cannot overwrite each other's unions.
+     *
+     * @return the sketches stored before the merge; rows whose column was empty are absent
+     */
+    @Transactional
+    public Map<Long, byte[]> mergeSketches(String table, String keyColumn, Map<Long, byte[]> sketches,
+                                           BinaryOperator<byte[]> union) {
+        Map<Long, byte[]> previous = new HashMap<>();
+        if (sketches.isEmpty()) {
+            return previous;
+        }
+
+        TreeMap<Long, byte[]> sorted = new TreeMap<>(sketches);
+        String placeholders = String.join(", ", Collections.nCopies(sorted.size(), "?"));
+        jdbcTemplate.query("SELECT " + keyColumn + ", listener_sketch FROM " + table
+                        + " WHERE " + keyColumn + " IN (" + placeholders + ") ORDER BY " + keyColumn + " FOR UPDATE",
+                rs -> {
+                    byte[] stored = rs.getBytes(2);
+                    if (stored != null) {
+                        previous.put(rs.getLong(1), stored);
+                    }
+                },
+                sorted.keySet().toArray());
+
+        List<Object[]> batch = new ArrayList<>(sorted.size());
+        sorted.forEach((key, sketch) -> {
+            byte[] stored = previous.get(key);
+            batch.add(new Object[]{stored == null ? sketch : union.apply(stored, sketch), key});
+        });
+        jdbcTemplate.batchUpdate("UPDATE " + table + " SET listener_sketch = ?, last_updated = NOW() WHERE "
+                + keyColumn + " = ?", batch);
+        return previous;
+    }
+}
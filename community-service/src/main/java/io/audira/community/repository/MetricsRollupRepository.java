@@ -0,0 +1,49 @@
+package io.audira.community.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.stream.Collectors;
+
+/**
+ * Compacts finer rollup buckets into coarser ones. Coarse buckets are recomputed from
+ * scratch, so compacting the same range twice is harmless.
+ */
+@Repository
+@RequiredArgsConstructor
+public class MetricsRollupRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recomputes the {@code targetTable} buckets covering [from, to) from {@code sourceTable}.
+     *
+     * @param unit a PostgreSQL {@code date_trunc} unit: {@code day} or {@code month}
+     */
+    @Transactional
+    public int compact(String sourceTable, String targetTable, String unit, LocalDateTime from, LocalDateTime to) {
+        String columns = String.join(", ", MetricsDeltaRepository.BUCKET_COLUMNS);
+        String sums = MetricsDeltaRepository.BUCKET_COLUMNS.stream()
+                .map(column -> "SUM(" + column + ")")
+                .collect(Collectors.joining(", "));
+        String updates = MetricsDeltaRepository.BUCKET_COLUMNS.stream()
+                .map(column -> column + " = EXCLUDED." + column)
+                .collect(Collectors.joining(", "));
+
+        String sql = "INSERT INTO " + targetTable + " (entity_type, entity_id, bucket_start, " + columns + ") "
+                + "SELECT entity_type, entity_id, date_trunc('" + unit + "', bucket_start), " + sums
+                + " FROM " + sourceTable + " WHERE bucket_start >= ? AND bucket_start < ?"
+                + " GROUP BY entity_type, entity_id, date_trunc('" + unit + "', bucket_start)"
+                + " ON CONFLICT (entity_type, entity_id, bucket_start) DO UPDATE SET " + updates;
+        return jdbcTemplate.update(sql, Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    @Transactional
+    public int deleteBefore(String table, LocalDateTime cutoff) {
+        return jdbcTemplate.update("DELETE FROM " + table + " WHERE bucket_start < ?", Timestamp.valueOf(cutoff));
+    }
+}
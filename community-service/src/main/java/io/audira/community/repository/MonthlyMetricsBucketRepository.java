@@ -0,0 +1,8 @@
+package io.audira.community.repository;
+
+import io.audira.community.model.MonthlyMetricsBucket;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MonthlyMetricsBucketRepository extends MetricsBucketRepository<MonthlyMetricsBucket> {
+}
@@ -16,4 +16,5 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Boolean existsByUsername(String username);
     List<User> findByRole(UserRole role);
     List<User> findByIsActive(Boolean isActive);
+    long countByRole(UserRole role);
 }
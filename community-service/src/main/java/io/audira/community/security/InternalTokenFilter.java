@@ -0,0 +1,58 @@
+package io.audira.community.security;
+
+import jakarta.annotation.Nonnull;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates calls from other services by the shared {@code X-Internal-Token} header,
+ * granting {@link #ROLE}. Without a configured token no request is ever authenticated this
+ * way, so internal endpoints stay closed.
+ */
+@Component
+public class InternalTokenFilter extends OncePerRequestFilter {
+
+    public static final String ROLE = "INTERNAL";
+    public static final String HEADER = "X-Internal-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(InternalTokenFilter.class);
+
+    private final byte[] token;
+
+    public InternalTokenFilter(@Value("${internal.api-token:}") String token) {
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+        if (token.isEmpty()) {
+            logger.warn("internal.api-token is not set; service-to-service endpoints will reject every call");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @Nonnull HttpServletRequest request,
+            @Nonnull HttpServletResponse response,
+            @Nonnull FilterChain filterChain
+    ) throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        if (token.length > 0 && presented != null
+                && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8))) {
+            SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                    "internal", null, List.of(new SimpleGrantedAuthority("ROLE_" + ROLE))));
+        }
+        filterChain.doFilter(request, response);
+    }
+}
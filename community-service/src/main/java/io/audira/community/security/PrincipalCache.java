@@ -0,0 +1,85 @@
+package io.audira.community.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-evicting cache of authenticated principals keyed by user id, so a request
+ * carrying a valid token can be authenticated without touching the database.
+ * <p>
+ * Entries are invalidated whenever the role, active flag or password of a user changes.
+ * The TTL bounds how long another instance may keep serving a principal that changed there.
+ */
+@Component
+public class PrincipalCache {
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    // Bumped on every invalidation so a load racing with it is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    public PrincipalCache(@Value("${security.principal-cache.ttl-seconds:60}") long ttlSeconds,
+                          @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+        this.ttlNanos = ttlSeconds * 1_000_000_000L;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    public UserDetails get(Long userId, Function<Long, UserDetails> loader) {
+        long now = System.nanoTime();
+        Entry entry = entries.get(userId);
+        if (entry != null && now - entry.loadedAt < ttlNanos) {
+            return entry.principal;
+        }
+
+        long seen = invalidations.get();
+        UserDetails principal = loader.apply(userId);
+        if (invalidations.get() == seen) {
+            if (entries.size() >= maxSize) {
+                evict(now);
+            }
+            entries.put(userId, new Entry(principal, now));
+        }
+        return principal;
+    }
+
+    /**
+     * Drops the cached principal now and again once the surrounding transaction commits,
+     * so a request that reloads it in between cannot keep the old state.
+     */
+    public void invalidate(Long userId) {
+        invalidations.incrementAndGet();
+        entries.remove(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidations.incrementAndGet();
+                    entries.remove(userId);
+                }
+            });
+        }
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(entry -> now - entry.loadedAt >= ttlNanos);
+        // Still full of live entries: drop an arbitrary tenth rather than tracking recency
+        Iterator<Long> keys = entries.keySet().iterator();
+        int excess = entries.size() - maxSize + Math.max(1, maxSize / 10);
+        while (excess-- > 0 && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private record Entry(UserDetails principal, long loadedAt) {
+    }
+}
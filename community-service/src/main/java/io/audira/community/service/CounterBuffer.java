@@ -0,0 +1,126 @@
+package io.audira.community.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free in-memory accumulator of per-entity counter deltas.
+ * <p>
+ * Each entity gets one {@link LongAdder} per field, so concurrent increments on the
+ * same hot entity are striped across cells instead of contending on a single row.
+ * {@link #drain()} atomically moves the accumulated deltas out of the buffer so they
+ * can be written back in one batch.
+ */
+public class CounterBuffer<F extends Enum<F>> {
+
+    private final F[] fields;
+    private final ConcurrentHashMap<Long, Slot> slots = new ConcurrentHashMap<>();
+
+    public CounterBuffer(Class<F> fieldType) {
+        this.fields = fieldType.getEnumConstants();
+    }
+
+    public void add(Long key, F field, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            slot = slots.computeIfAbsent(key, k -> new Slot(fields.length));
+        }
+        slot.adders[field.ordinal()].add(delta);
+        // The slot was evicted while we were writing to it: move whatever is left
+        // into a live slot so the delta is not lost
+        if (slot.retired) {
+            migrate(key, slot);
+        }
+    }
+
+    /**
+     * Returns the deltas not yet drained for the given entity, indexed by field ordinal,
+     * or {@code null} when nothing is pending.
+     */
+    public long[] pending(Long key) {
+        Slot slot = slots.get(key);
+        if (slot == null) {
+            return null;
+        }
+        long[] values = new long[fields.length];
+        boolean any = false;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = slot.adders[i].sum();
+            any |= values[i] != 0;
+        }
+        return any ? values : null;
+    }
+
+    /**
+     * Removes and returns every non-zero delta accumulated since the previous drain.
+     * Entities that saw no activity since then are evicted from the buffer.
+     */
+    public Map<Long, long[]> drain() {
+        Map<Long, long[]> drained = new HashMap<>();
+        for (Map.Entry<Long, Slot> entry : slots.entrySet()) {
+            Long key = entry.getKey();
+            Slot slot = entry.getValue();
+            long[] values = new long[fields.length];
+            boolean any = drainInto(slot, values);
+            if (!any && slots.remove(key, slot)) {
+                slot.retired = true;
+                any = drainInto(slot, values);
+            }
+            if (any) {
+                drained.put(key, values);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Puts previously drained deltas back, e.g. after a failed write-back.
+     */
+    public void restore(Map<Long, long[]> deltas) {
+        deltas.forEach((key, values) -> {
+            for (int i = 0; i < values.length; i++) {
+                add(key, fields[i], values[i]);
+            }
+        });
+    }
+
+    public int size() {
+        return slots.size();
+    }
+
+    private void migrate(Long key, Slot retired) {
+        for (int i = 0; i < fields.length; i++) {
+            long residual = retired.adders[i].sumThenReset();
+            if (residual != 0) {
+                add(key, fields[i], residual);
+            }
+        }
+    }
+
+    private static boolean drainInto(Slot slot, long[] values) {
+        boolean any = false;
+        for (int i = 0; i < values.length; i++) {
+            long value = slot.adders[i].sumThenReset();
+            values[i] += value;
+            any |= value != 0;
+        }
+        return any;
+    }
+
+    private static final class Slot {
+        private final LongAdder[] adders;
+        private volatile boolean retired;
+
+        private Slot(int fieldCount) {
+            this.adders = new LongAdder[fieldCount];
+            for (int i = 0; i < fieldCount; i++) {
+                this.adders[i] = new LongAdder();
+            }
+        }
+    }
+}
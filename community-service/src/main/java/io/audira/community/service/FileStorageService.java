@@ -1,38 +1,85 @@
 package io.audira.community.service;
 
+import io.audira.community.repository.FileBlobRepository;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamSource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Stores uploads either under a fresh UUID name per upload or, in content-addressed mode,
+ * once per distinct content under its SHA-256 digest.
+ * <p>
+ * Content-addressed blobs live in {@code blobs/ab/cd/<digest>} and are served as
+ * {@code blobs/<digest>.<ext>}. A reference-counted index ({@code file_blobs}) counts one
+ * reference per upload, so deleting a file only removes the blob once every upload of that
+ * content has been deleted.
+ */
 @Service
 public class FileStorageService {
 
+    public static final String BLOB_DIRECTORY = "blobs";
+
+    // <digest>[_<variant>][.<ext>]
+    private static final Pattern BLOB_NAME = Pattern.compile("([0-9a-f]{64})(_[a-z0-9]+)?(\\.[a-z0-9]+)?");
+
     private final Path fileStorageLocation;
+    private final Path tempLocation;
+    private final boolean contentAddressed;
+    private final FileBlobRepository fileBlobRepository;
+    private final TransactionTemplate transactionTemplate;
 
-    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir) {
+    public FileStorageService(@Value("${file.upload-dir:uploads}") String uploadDir,
+                              @Value("${file.storage-mode:uuid}") String storageMode,
+                              FileBlobRepository fileBlobRepository,
+                              TransactionTemplate transactionTemplate) {
         this.fileStorageLocation = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.tempLocation = this.fileStorageLocation.resolve(".tmp");
+        this.contentAddressed = "content-addressed".equals(storageMode);
+        this.fileBlobRepository = fileBlobRepository;
+        this.transactionTemplate = transactionTemplate;
         try {
             Files.createDirectories(this.fileStorageLocation);
+            Files.createDirectories(this.tempLocation);
         } catch (Exception ex) {
             throw new RuntimeException("No se pudo crear el directorio de subida de archivos.", ex);
         }
     }
 
     public String storeFile(MultipartFile file, String subDirectory) {
+        return storeFile(file, file.getOriginalFilename(), file.isEmpty(), subDirectory);
+    }
+
+    public String storeFile(byte[] content, String originalFileName, String subDirectory) {
+        return storeFile(new ByteArrayResource(content), originalFileName, content.length == 0, subDirectory);
+    }
+
+    private String storeFile(InputStreamSource file, String originalName, boolean empty, String subDirectory) {
         // Normalizar nombre del archivo
-        String originalFileName = StringUtils.cleanPath(file.getOriginalFilename());
+        String originalFileName = StringUtils.cleanPath(originalName);
 
         try {
             // Verificar que el archivo no esté vacío
-            if (file.isEmpty()) {
+            if (empty) {
                 throw new RuntimeException("El archivo está vacío: " + originalFileName);
             }
 
@@ -41,16 +88,24 @@ public class FileStorageService {
                 throw new RuntimeException("El nombre del archivo contiene una secuencia de ruta inválida: " + originalFileName);
             }
 
-            // Generar un nombre único para el archivo
             String fileExtension = "";
             int dotIndex = originalFileName.lastIndexOf('.');
             if (dotIndex > 0) {
-                fileExtension = originalFileName.substring(dotIndex);
+                fileExtension = originalFileName.substring(dotIndex).toLowerCase();
             }
+
+            if (contentAddressed) {
+                return storeBlob(file, fileExtension);
+            }
+
+            // Generar un nombre único para el archivo
             String fileName = UUID.randomUUID().toString() + fileExtension;
 
             // Crear subdirectorio si es necesario
-            Path targetLocation = this.fileStorageLocation.resolve(subDirectory);
+            Path targetLocation = this.fileStorageLocation.resolve(subDirectory).normalize();
+            if (!targetLocation.startsWith(this.fileStorageLocation)) {
+                throw new RuntimeException("Subdirectorio inválido: " + subDirectory);
+            }
             Files.createDirectories(targetLocation);
 
             // Copiar archivo a la ubicación de destino
@@ -63,15 +118,138 @@ public class FileStorageService {
         }
     }
 
+    /**
+     * Deletes a stored file. Content-addressed files only drop a reference; the blob is
+     * removed together with its last reference.
+     */
     public void deleteFile(String filePath) {
         try {
+            if (filePath.startsWith(BLOB_DIRECTORY + "/")) {
+                String digest = digestOf(filePath.substring(BLOB_DIRECTORY.length() + 1));
+                if (digest == null) {
+                    throw new RuntimeException("Ruta de blob inválida: " + filePath);
+                }
+                transactionTemplate.executeWithoutResult(status -> {
+                    // The row stays locked until commit, so no concurrent upload can reuse the blob meanwhile
+                    if (fileBlobRepository.release(digest) == 0) {
+                        try {
+                            Files.deleteIfExists(blobPath(digest));
+                            deleteDerivatives(blobPath(digest));
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    }
+                });
+                return;
+            }
             Path file = this.fileStorageLocation.resolve(filePath).normalize();
+            if (!file.startsWith(this.fileStorageLocation)) {
+                throw new RuntimeException("Ruta de archivo inválida: " + filePath);
+            }
             Files.deleteIfExists(file);
-        } catch (IOException ex) {
+            deleteDerivatives(file);
+        } catch (IOException | UncheckedIOException ex) {
             throw new RuntimeException("No se pudo eliminar el archivo: " + filePath, ex);
         }
     }
 
+    /**
+     * Resolves a served {@code subDirectory/fileName} to its location on disk.
+     *
+     * @return the path, or {@code null} if it points outside the storage directory
+     */
+    public Path resolve(String subDirectory, String fileName) {
+        if (BLOB_DIRECTORY.equals(subDirectory)) {
+            Matcher blob = BLOB_NAME.matcher(fileName);
+            if (!blob.matches()) {
+                return null;
+            }
+            Path original = blobPath(blob.group(1));
+            // Derivatives sit next to the blob under their full name
+            return blob.group(2) == null ? original : original.resolveSibling(fileName);
+        }
+        Path file = this.fileStorageLocation.resolve(subDirectory).resolve(fileName).normalize();
+        return file.startsWith(this.fileStorageLocation) ? file : null;
+    }
+
+    public Path resolve(String filePath) {
+        int slash = filePath.indexOf('/');
+        return slash > 0 ? resolve(filePath.substring(0, slash), filePath.substring(slash + 1)) : null;
+    }
+
+    /**
+     * Names a derivative of a stored file, e.g. {@code cover-images/x.png} with variant
+     * {@code w300} and extension {@code .jpg} becomes {@code cover-images/x_w300.jpg}.
+     */
+    public static String derivativePath(String filePath, String variant, String extension) {
+        int dot = filePath.lastIndexOf('.');
+        String base = dot > filePath.lastIndexOf('/') ? filePath.substring(0, dot) : filePath;
+        return base + "_" + variant + extension;
+    }
+
+    /**
+     * @return the digest of a {@code <digest>[_<variant>].<ext>} blob name, or {@code null} if it is not one
+     */
+    public static String digestOf(String blobName) {
+        Matcher blob = BLOB_NAME.matcher(blobName);
+        return blob.matches() ? blob.group(1) : null;
+    }
+
+    private String storeBlob(InputStreamSource file, String fileExtension) throws IOException {
+        // Hash while streaming to a temp file so the upload is read only once
+        Path temp = Files.createTempFile(this.tempLocation, "upload-", ".part");
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            try (InputStream in = new DigestInputStream(file.getInputStream(), sha256)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String digest = HexFormat.of().formatHex(sha256.digest());
+            long size = Files.size(temp);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                fileBlobRepository.acquire(digest, size);
+                Path blob = blobPath(digest);
+                try {
+                    if (!Files.exists(blob)) {
+                        Files.createDirectories(blob.getParent());
+                        Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            return BLOB_DIRECTORY + "/" + digest + fileExtension;
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void deleteDerivatives(Path original) throws IOException {
+        String name = original.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        String prefix = (dot > 0 ? name.substring(0, dot) : name) + "_";
+        Path directory = original.getParent();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> derivatives = Files.newDirectoryStream(directory, prefix + "*")) {
+            for (Path derivative : derivatives) {
+                Files.deleteIfExists(derivative);
+            }
+        }
+    }
+
+    private Path blobPath(String digest) {
+        return this.fileStorageLocation.resolve(BLOB_DIRECTORY)
+                .resolve(digest.substring(0, 2))
+                .resolve(digest.substring(2, 4))
+                .resolve(digest);
+    }
+
     public boolean isValidImageFile(MultipartFile file) {
         String contentType = file.getContentType();
         String fileName = file.getOriginalFilename();
@@ -0,0 +1,271 @@
+package io.audira.community.service;
+
+import io.audira.community.dto.GlobalMetricsReconciliationDTO;
+import io.audira.community.model.GlobalMetrics;
+import io.audira.community.model.GlobalMetricsEventType;
+import io.audira.community.model.UserRole;
+import io.audira.community.repository.GlobalMetricsRepository;
+import io.audira.community.repository.MetricsDeltaRepository;
+import io.audira.community.repository.SongMetricsRepository;
+import io.audira.community.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the single {@link GlobalMetrics} row up to date from domain events instead of recounting.
+ * <p>
+ * Totals live in memory and are checkpointed to the database as relative deltas every
+ * {@code metrics.global.checkpoint-interval-ms}. An off-peak reconciliation job recomputes
+ * every total from its owning source, reports the drift and folds it back in.
+ */
+@Service
+@RequiredArgsConstructor
+public class GlobalMetricsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GlobalMetricsService.class);
+
+    private enum GlobalCounter {
+        TOTAL_USERS("total_users", 1),
+        TOTAL_ARTISTS("total_artists", 1),
+        TOTAL_SONGS("total_songs", 1),
+        TOTAL_ALBUMS("total_albums", 1),
+        TOTAL_PLAYS("total_plays", 1),
+        TOTAL_REVENUE("total_revenue", MetricsWriteBehind.REVENUE_SCALE);
+
+        private final String column;
+        private final long scale;
+
+        GlobalCounter(String column, long scale) {
+            this.column = column;
+            this.scale = scale;
+        }
+    }
+
+    private static final GlobalCounter[] COUNTERS = GlobalCounter.values();
+    private static final List<String> COLUMNS = Arrays.stream(COUNTERS).map(c -> c.column).toList();
+    private static final long[] SCALES = Arrays.stream(COUNTERS).mapToLong(c -> c.scale).toArray();
+
+    private final GlobalMetricsRepository globalMetricsRepository;
+    private final MetricsDeltaRepository metricsDeltaRepository;
+    private final UserRepository userRepository;
+    private final SongMetricsRepository songMetricsRepository;
+    private final MetricsWriteBehind metricsWriteBehind;
+    private final PlatformTotalsClient platformTotalsClient;
+
+    private final LongAdder[] totals = newAdders();
+    private final LongAdder[] uncheckpointed = newAdders();
+
+    private volatile Long rowId;
+    private volatile LocalDateTime lastCheckpoint;
+    private volatile GlobalMetricsReconciliationDTO lastReconciliation;
+
+    public GlobalMetrics getGlobalMetrics() {
+        ensureLoaded();
+        return GlobalMetrics.builder()
+                .id(rowId)
+                .totalUsers(totals[GlobalCounter.TOTAL_USERS.ordinal()].sum())
+                .totalArtists(totals[GlobalCounter.TOTAL_ARTISTS.ordinal()].sum())
+                .totalSongs(totals[GlobalCounter.TOTAL_SONGS.ordinal()].sum())
+                .totalAlbums(totals[GlobalCounter.TOTAL_ALBUMS.ordinal()].sum())
+                .totalPlays(totals[GlobalCounter.TOTAL_PLAYS.ordinal()].sum())
+                .totalRevenue(totals[GlobalCounter.TOTAL_REVENUE.ordinal()].sum()
+                        / (double) MetricsWriteBehind.REVENUE_SCALE)
+                .lastUpdated(lastCheckpoint)
+                .build();
+    }
+
+    public GlobalMetricsReconciliationDTO getLastReconciliation() {
+        return lastReconciliation;
+    }
+
+    public void record(GlobalMetricsEventType type, Double amount) {
+        ensureLoaded();
+        switch (type) {
+            case USER_REGISTERED -> add(GlobalCounter.TOTAL_USERS, 1);
+            case ARTIST_REGISTERED -> {
+                add(GlobalCounter.TOTAL_USERS, 1);
+                add(GlobalCounter.TOTAL_ARTISTS, 1);
+            }
+            case SONG_CREATED -> add(GlobalCounter.TOTAL_SONGS, 1);
+            case SONG_DELETED -> add(GlobalCounter.TOTAL_SONGS, -1);
+            case ALBUM_CREATED -> add(GlobalCounter.TOTAL_ALBUMS, 1);
+            case ALBUM_DELETED -> add(GlobalCounter.TOTAL_ALBUMS, -1);
+            case PLAY -> add(GlobalCounter.TOTAL_PLAYS, 1);
+            case PAYMENT_COMPLETED -> add(GlobalCounter.TOTAL_REVENUE, toRevenueUnits(type, amount));
+            case PAYMENT_REFUNDED -> add(GlobalCounter.TOTAL_REVENUE, -toRevenueUnits(type, amount));
+        }
+    }
+
+    /**
+     * Records the event once the surrounding transaction commits, or immediately outside one.
+     */
+    public void recordAfterCommit(GlobalMetricsEventType type, Double amount) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(type, amount);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(type, amount);
+            }
+        });
+    }
+
+    public void recordUserRegistered(UserRole role) {
+        recordAfterCommit(role == UserRole.ARTIST
+                ? GlobalMetricsEventType.ARTIST_REGISTERED
+                : GlobalMetricsEventType.USER_REGISTERED, null);
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.global.checkpoint-interval-ms:30000}")
+    public void scheduledCheckpoint() {
+        if (rowId != null) {
+            checkpoint();
+        }
+    }
+
+    @PreDestroy
+    public void checkpointOnShutdown() {
+        if (rowId != null) {
+            checkpoint();
+        }
+    }
+
+    public synchronized void checkpoint() {
+        ensureLoaded();
+        long[] deltas = new long[COUNTERS.length];
+        boolean any = false;
+        for (int i = 0; i < deltas.length; i++) {
+            deltas[i] = uncheckpointed[i].sumThenReset();
+            any |= deltas[i] != 0;
+        }
+        if (!any) {
+            return;
+        }
+        try {
+            metricsDeltaRepository.applyRowDeltas("global_metrics", rowId, COLUMNS, SCALES, deltas);
+            lastCheckpoint = LocalDateTime.now();
+        } catch (RuntimeException ex) {
+            for (int i = 0; i < deltas.length; i++) {
+                uncheckpointed[i].add(deltas[i]);
+            }
+            logger.error("Failed to checkpoint global metrics", ex);
+        }
+    }
+
+    @Scheduled(cron = "${metrics.global.reconciliation-cron:0 30 4 * * *}")
+    public synchronized GlobalMetricsReconciliationDTO reconcile() {
+        ensureLoaded();
+        // Make the recount sources reflect everything counted so far
+        metricsWriteBehind.flush();
+        checkpoint();
+
+        Map<GlobalCounter, Long> recomputed = new LinkedHashMap<>();
+        List<String> unavailable = new ArrayList<>();
+        recomputed.put(GlobalCounter.TOTAL_USERS, userRepository.count());
+        recomputed.put(GlobalCounter.TOTAL_ARTISTS, userRepository.countByRole(UserRole.ARTIST));
+        recomputed.put(GlobalCounter.TOTAL_PLAYS, songMetricsRepository.sumTotalPlays());
+        putIfAvailable(recomputed, unavailable, GlobalCounter.TOTAL_SONGS, platformTotalsClient.countSongs());
+        putIfAvailable(recomputed, unavailable, GlobalCounter.TOTAL_ALBUMS, platformTotalsClient.countAlbums());
+        Double revenue = platformTotalsClient.completedRevenue();
+        putIfAvailable(recomputed, unavailable, GlobalCounter.TOTAL_REVENUE,
+                revenue == null ? null : Math.round(revenue * MetricsWriteBehind.REVENUE_SCALE));
+
+        Map<String, Double> drift = new LinkedHashMap<>();
+        recomputed.forEach((counter, actual) -> {
+            long delta = actual - totals[counter.ordinal()].sum();
+            drift.put(counter.column, delta / (double) counter.scale);
+            add(counter, delta);
+        });
+        checkpoint();
+
+        GlobalMetricsReconciliationDTO report = GlobalMetricsReconciliationDTO.builder()
+                .reconciledAt(LocalDateTime.now())
+                .drift(drift)
+                .unavailableSources(unavailable)
+                .build();
+        lastReconciliation = report;
+        if (drift.values().stream().anyMatch(value -> value != 0)) {
+            logger.warn("Global metrics drift corrected: {} (unavailable: {})", drift, unavailable);
+        } else {
+            logger.info("Global metrics reconciled without drift (unavailable: {})", unavailable);
+        }
+        return report;
+    }
+
+    private void add(GlobalCounter counter, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        totals[counter.ordinal()].add(delta);
+        uncheckpointed[counter.ordinal()].add(delta);
+    }
+
+    private void ensureLoaded() {
+        if (rowId != null) {
+            return;
+        }
+        synchronized (this) {
+            if (rowId != null) {
+                return;
+            }
+            GlobalMetrics row = globalMetricsRepository.findFirstByOrderByIdAsc()
+                    .orElseGet(() -> globalMetricsRepository.save(GlobalMetrics.builder()
+                            .totalUsers(0L)
+                            .totalArtists(0L)
+                            .totalSongs(0L)
+                            .totalAlbums(0L)
+                            .totalPlays(0L)
+                            .totalRevenue(0.0)
+                            .build()));
+            totals[GlobalCounter.TOTAL_USERS.ordinal()].add(row.getTotalUsers());
+            totals[GlobalCounter.TOTAL_ARTISTS.ordinal()].add(row.getTotalArtists());
+            totals[GlobalCounter.TOTAL_SONGS.ordinal()].add(row.getTotalSongs());
+            totals[GlobalCounter.TOTAL_ALBUMS.ordinal()].add(row.getTotalAlbums());
+            totals[GlobalCounter.TOTAL_PLAYS.ordinal()].add(row.getTotalPlays());
+            totals[GlobalCounter.TOTAL_REVENUE.ordinal()].add(
+                    Math.round(row.getTotalRevenue() * MetricsWriteBehind.REVENUE_SCALE));
+            lastCheckpoint = row.getLastUpdated();
+            rowId = row.getId();
+        }
+    }
+
+    private static void putIfAvailable(Map<GlobalCounter, Long> recomputed, List<String> unavailable,
+                                       GlobalCounter counter, Long value) {
+        if (value == null) {
+            unavailable.add(counter.column);
+        } else {
+            recomputed.put(counter, value);
+        }
+    }
+
+    private static long toRevenueUnits(GlobalMetricsEventType type, Double amount) {
+        if (amount == null) {
+            throw new RuntimeException("Event " + type + " requires an amount");
+        }
+        return Math.round(amount * MetricsWriteBehind.REVENUE_SCALE);
+    }
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[GlobalCounter.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
@@ -6,14 +6,21 @@ import org.springframework.web.multipart.MultipartFile;
 
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.Iterator;
 
 @Service
@@ -53,30 +60,7 @@ public class ImageCompressionService {
             }
         }
 
-        // Para JPEG, usar compresión con calidad
-        if (formatName.equals("jpg") || formatName.equals("jpeg")) {
-            Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
-            if (!writers.hasNext()) {
-                throw new IOException("No hay escritores disponibles para JPEG");
-            }
-
-            ImageWriter writer = writers.next();
-            ImageWriteParam param = writer.getDefaultWriteParam();
-
-            if (param.canWriteCompressed()) {
-                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-                param.setCompressionQuality(quality);
-            }
-
-            try (ImageOutputStream ios = ImageIO.createImageOutputStream(compressed)) {
-                writer.setOutput(ios);
-                writer.write(null, new IIOImage(image, null, null), param);
-                writer.dispose();
-            }
-        } else {
-            // Para PNG y otros formatos, solo escribir sin compresión especial
-            ImageIO.write(image, formatName, compressed);
-        }
+        writeImage(image, formatName, quality, compressed);
 
         return new ByteArrayInputStream(compressed.toByteArray());
     }
@@ -140,6 +124,64 @@ public class ImageCompressionService {
         ByteArrayOutputStream compressed = new ByteArrayOutputStream();
         String formatName = getFormatName(file.getOriginalFilename());
 
+        writeImage(image, formatName, quality, compressed);
+
+        return new ByteArrayInputStream(compressed.toByteArray());
+    }
+
+    /**
+     * Lee una imagen del disco. Si es mucho mayor que el tamaño destino se decodifica
+     * submuestreada, sin cargar nunca la imagen completa en memoria.
+     * @param targetWidth Ancho destino, o 0 para leer a tamaño completo
+     * @param targetHeight Alto destino, o 0 para leer a tamaño completo
+     */
+    public BufferedImage readImage(Path file, int targetWidth, int targetHeight) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IOException("No se pudo leer la imagen");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (targetWidth > 0 && targetHeight > 0) {
+                    // Se conserva al menos el doble del tamaño destino para no perder calidad al escalar
+                    int factor = Math.min(reader.getWidth(0) / (2 * targetWidth),
+                            reader.getHeight(0) / (2 * targetHeight));
+                    if (factor > 1) {
+                        param.setSourceSubsampling(factor, factor, 0, 0);
+                    }
+                }
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Escala una imagen para que quepa en el recuadro indicado, manteniendo la proporción.
+     * Nunca amplía imágenes más pequeñas que el recuadro.
+     */
+    public BufferedImage fit(BufferedImage image, int maxWidth, int maxHeight) {
+        double scale = Math.min(1.0, Math.min(maxWidth / (double) image.getWidth(),
+                maxHeight / (double) image.getHeight()));
+        if (scale >= 1.0) {
+            return image;
+        }
+        return Scalr.resize(image,
+                Scalr.Method.QUALITY,
+                Scalr.Mode.FIT_EXACT,
+                Math.max(1, (int) Math.round(image.getWidth() * scale)),
+                Math.max(1, (int) Math.round(image.getHeight() * scale)),
+                Scalr.OP_ANTIALIAS);
+    }
+
+    /**
+     * Codifica una imagen en el formato indicado; JPEG usa la calidad dada.
+     */
+    public void writeImage(BufferedImage image, String formatName, float quality, OutputStream output) throws IOException {
         if (formatName.equals("jpg") || formatName.equals("jpeg")) {
             Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
             if (!writers.hasNext()) {
@@ -154,16 +196,32 @@ public class ImageCompressionService {
                 param.setCompressionQuality(quality);
             }
 
-            try (ImageOutputStream ios = ImageIO.createImageOutputStream(compressed)) {
+            try (ImageOutputStream ios = ImageIO.createImageOutputStream(output)) {
                 writer.setOutput(ios);
-                writer.write(null, new IIOImage(image, null, null), param);
+                writer.write(null, new IIOImage(withoutAlpha(image), null, null), param);
+            } finally {
                 writer.dispose();
             }
-        } else {
-            ImageIO.write(image, formatName, compressed);
+        } else if (!ImageIO.write(image, formatName, output)) {
+            throw new IOException("No hay escritores disponibles para " + formatName);
         }
+    }
 
-        return new ByteArrayInputStream(compressed.toByteArray());
+    // JPEG no admite transparencia: se aplana sobre fondo blanco
+    private BufferedImage withoutAlpha(BufferedImage image) {
+        if (!image.getColorModel().hasAlpha()) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+            graphics.drawImage(image, 0, 0, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
     }
 
     private String getFormatName(String fileName) {
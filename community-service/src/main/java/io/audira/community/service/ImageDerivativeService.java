@@ -0,0 +1,174 @@
+package io.audira.community.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces a fixed set of resized variants for every uploaded image on a bounded worker pool,
+ * off the request thread.
+ * <p>
+ * Derivatives are written next to the original as {@code <name>_<variant>.<ext>}, so their
+ * paths are known as soon as the job is queued; they resolve once the job has finished.
+ * Queue depth, job latency and outcomes are published as {@code image.derivatives.*} metrics.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final float QUALITY = 0.85f;
+
+    public enum Kind {
+        AVATAR(List.of(new Spec("s256", 256, 256), new Spec("s128", 128, 128), new Spec("s64", 64, 64))),
+        COVER(List.of(new Spec("w1200", 1200, 1200), new Spec("w600", 600, 600), new Spec("w300", 300, 300))),
+        BANNER(List.of(new Spec("w1920", 1920, Integer.MAX_VALUE), new Spec("w1280", 1280, Integer.MAX_VALUE),
+                new Spec("w640", 640, Integer.MAX_VALUE)));
+
+        // Largest first, so each variant is scaled down from the previous one
+        private final List<Spec> specs;
+
+        Kind(List<Spec> specs) {
+            this.specs = specs;
+        }
+    }
+
+    private record Spec(String variant, int maxWidth, int maxHeight) {
+    }
+
+    private final FileStorageService fileStorageService;
+    private final ImageCompressionService imageCompressionService;
+    private final ThreadPoolExecutor executor;
+    private final Timer jobTimer;
+    private final Timer waitTimer;
+    private final Counter succeeded;
+    private final Counter failed;
+    private final Counter rejected;
+
+    public ImageDerivativeService(FileStorageService fileStorageService,
+                                  ImageCompressionService imageCompressionService,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${image.derivatives.workers:2}") int workers,
+                                  @Value("${image.derivatives.queue-capacity:200}") int queueCapacity) {
+        this.fileStorageService = fileStorageService;
+        this.imageCompressionService = imageCompressionService;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivatives-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("image.derivatives.queue.depth", executor, e -> e.getQueue().size())
+                .description("Image derivative jobs waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("image.derivatives.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+        this.jobTimer = Timer.builder("image.derivatives.job")
+                .description("Time to decode an image and write all its derivatives")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("image.derivatives.wait")
+                .description("Time a job spent queued before a worker picked it up")
+                .register(meterRegistry);
+        this.succeeded = Counter.builder("image.derivatives.jobs").tag("outcome", "success").register(meterRegistry);
+        this.failed = Counter.builder("image.derivatives.jobs").tag("outcome", "failure").register(meterRegistry);
+        this.rejected = Counter.builder("image.derivatives.jobs").tag("outcome", "rejected").register(meterRegistry);
+    }
+
+    /**
+     * Queues the derivatives of a stored image and returns their paths right away.
+     *
+     * @return variant name to relative file path, empty if the queue is full
+     */
+    public Map<String, String> enqueue(String filePath, Kind kind) {
+        String extension = filePath.toLowerCase().endsWith(".png") ? ".png" : ".jpg";
+        Map<String, String> derivatives = new LinkedHashMap<>();
+        for (Spec spec : kind.specs) {
+            derivatives.put(spec.variant(), FileStorageService.derivativePath(filePath, spec.variant(), extension));
+        }
+
+        long queuedAt = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                jobTimer.record(() -> generate(filePath, kind, derivatives, extension));
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            logger.warn("Image derivative queue is full, skipping derivatives of {}", filePath);
+            return Map.of();
+        }
+        return derivatives;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void generate(String filePath, Kind kind, Map<String, String> derivatives, String extension) {
+        try {
+            Path original = fileStorageService.resolve(filePath);
+            if (original == null) {
+                throw new IOException("Invalid file path " + filePath);
+            }
+            Spec largest = kind.specs.get(0);
+            BufferedImage image = null;
+            String format = extension.equals(".png") ? "png" : "jpg";
+            for (Spec spec : kind.specs) {
+                Path target = fileStorageService.resolve(derivatives.get(spec.variant()));
+                // Content-addressed originals can be uploaded again: their derivatives already exist
+                if (target == null || Files.exists(target)) {
+                    continue;
+                }
+                if (image == null) {
+                    image = imageCompressionService.readImage(original, Math.min(largest.maxWidth(), 4096),
+                            Math.min(largest.maxHeight(), 4096));
+                }
+                image = imageCompressionService.fit(image, spec.maxWidth(), spec.maxHeight());
+                write(image, format, target);
+            }
+            succeeded.increment();
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            logger.error("Failed to generate derivatives of {}", filePath, ex);
+        }
+    }
+
+    private void write(BufferedImage image, String format, Path target) throws IOException {
+        // Written aside and moved in place, so a derivative URL never serves a partial file
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                imageCompressionService.writeImage(image, format, QUALITY, out);
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
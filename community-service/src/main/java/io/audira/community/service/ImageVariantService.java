@@ -0,0 +1,371 @@
+package io.audira.community.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Resizes stored images on demand and memoizes the results in two LRU tiers: small variants
+ * in a heap cache bounded by bytes, every variant in an on-disk cache bounded by total size.
+ * <p>
+ * Variants are keyed by the original's path, size and modification time plus the requested
+ * box, quality and format, so a replaced original never serves stale variants. Concurrent
+ * requests for the same missing variant share a single resize.
+ * <p>
+ * Requests are public, so the variants they can ask for are bounded: boxes are rounded up to
+ * one of {@link #SIZES} and quality is clamped and rounded to steps of 0.05. At most
+ * {@code image.variants.max-concurrent-renders} resizes run at once; a request that cannot get
+ * a slot within {@code image.variants.render-wait-ms} fails with {@link RenderBusyException}.
+ */
+@Service
+public class ImageVariantService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImageVariantService.class);
+
+    public static final int MAX_DIMENSION = 2048;
+    public static final float DEFAULT_QUALITY = 0.85f;
+    public static final float MIN_QUALITY = 0.5f;
+    public static final float MAX_QUALITY = 0.95f;
+
+    // Box sides a request is rounded up to; the last one is MAX_DIMENSION
+    static final int[] SIZES = {64, 128, 256, 320, 480, 640, 800, 1024, 1280, 1600, MAX_DIMENSION};
+
+    /**
+     * Every render slot stayed taken for the whole wait; the client should retry later.
+     */
+    public static class RenderBusyException extends RuntimeException {
+        public RenderBusyException() {
+            super("Demasiadas imágenes redimensionándose, inténtalo de nuevo");
+        }
+    }
+
+    /**
+     * A resized image, either held in memory or stored in the disk cache.
+     */
+    public record Variant(String key, String contentType, byte[] content, Path file) {
+    }
+
+    private final ImageCompressionService imageCompressionService;
+    private final Path cacheLocation;
+    private final long memoryMaxBytes;
+    private final long memoryMaxEntryBytes;
+    private final long diskMaxBytes;
+    private final Semaphore renders;
+    private final long renderWaitMillis;
+
+    private final ConcurrentHashMap<String, CompletableFuture<Variant>> inFlight = new ConcurrentHashMap<>();
+
+    // Both maps are access-ordered and guarded by their own monitor
+    private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(256, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    public ImageVariantService(ImageCompressionService imageCompressionService,
+                               @Value("${file.upload-dir:uploads}") String uploadDir,
+                               @Value("${image.variants.memory-max-bytes:33554432}") long memoryMaxBytes,
+                               @Value("${image.variants.memory-max-entry-bytes:262144}") long memoryMaxEntryBytes,
+                               @Value("${image.variants.disk-max-bytes:1073741824}") long diskMaxBytes,
+                               @Value("${image.variants.max-concurrent-renders:2}") int maxConcurrentRenders,
+                               @Value("${image.variants.render-wait-ms:250}") long renderWaitMillis) {
+        this.imageCompressionService = imageCompressionService;
+        this.cacheLocation = Paths.get(uploadDir).toAbsolutePath().normalize().resolve(".cache").resolve("variants");
+        this.memoryMaxBytes = memoryMaxBytes;
+        this.memoryMaxEntryBytes = memoryMaxEntryBytes;
+        this.diskMaxBytes = diskMaxBytes;
+        this.renders = new Semaphore(maxConcurrentRenders);
+        this.renderWaitMillis = renderWaitMillis;
+        try {
+            Files.createDirectories(this.cacheLocation);
+            loadDiskIndex();
+        } catch (IOException ex) {
+            throw new RuntimeException("No se pudo crear el directorio de caché de imágenes.", ex);
+        }
+    }
+
+    /**
+     * @param width   maximum width, rounded up to one of {@link #SIZES}, or {@code null} to bound by height only
+     * @param height  maximum height, rounded up to one of {@link #SIZES}, or {@code null} to bound by width only
+     * @param quality JPEG quality between 0.0 and 1.0, clamped to {@link #MIN_QUALITY}..{@link #MAX_QUALITY},
+     *                or {@code null} for the default
+     * @throws RenderBusyException if the variant must be rendered and no render slot frees up in time
+     * @param format  {@code jpg} or {@code png}, or {@code null} to keep PNG as PNG and use JPEG otherwise
+     */
+    public Variant getVariant(Path original, String originalName, Integer width, Integer height,
+                              Float quality, String format) throws IOException {
+        int maxWidth = checkDimension(width, "w");
+        int maxHeight = checkDimension(height, "h");
+        float q = quality != null ? quality : DEFAULT_QUALITY;
+        if (q <= 0.0f || q > 1.0f) {
+            throw new IllegalArgumentException("La calidad debe estar entre 0.0 y 1.0");
+        }
+        // Rounded so near-identical qualities share a cache entry
+        q = Math.round(Math.max(MIN_QUALITY, Math.min(q, MAX_QUALITY)) * 20) / 20f;
+        String fmt = normalizeFormat(format, originalName);
+
+        BasicFileAttributes attributes = Files.readAttributes(original, BasicFileAttributes.class);
+        String key = hash(originalName + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis()
+                + "|" + maxWidth + "x" + maxHeight + "|" + q + "|" + fmt);
+        String contentType = fmt.equals("png") ? "image/png" : "image/jpeg";
+
+        Variant cached = lookup(key, contentType, fmt);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<Variant> created = new CompletableFuture<>();
+        CompletableFuture<Variant> running = inFlight.putIfAbsent(key, created);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw ex.getCause() instanceof IOException io ? io : new IOException(ex.getCause());
+            }
+        }
+        try {
+            // Filled by a request that finished between the lookup and taking the slot
+            Variant variant = lookup(key, contentType, fmt);
+            if (variant == null) {
+                variant = renderWithSlot(original, key, contentType, fmt, maxWidth, maxHeight, q);
+            }
+            created.complete(variant);
+            return variant;
+        } catch (IOException | RuntimeException ex) {
+            created.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, created);
+        }
+    }
+
+    private Variant renderWithSlot(Path original, String key, String contentType, String fmt,
+                                   int maxWidth, int maxHeight, float quality) throws IOException {
+        try {
+            if (!renders.tryAcquire(renderWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new RenderBusyException();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new RenderBusyException();
+        }
+        try {
+            return render(original, key, contentType, fmt, maxWidth, maxHeight, quality);
+        } finally {
+            renders.release();
+        }
+    }
+
+    private Variant render(Path original, String key, String contentType, String fmt,
+                           int maxWidth, int maxHeight, float quality) throws IOException {
+        BufferedImage image = imageCompressionService.readImage(original,
+                Math.min(maxWidth, MAX_DIMENSION), Math.min(maxHeight, MAX_DIMENSION));
+        image = imageCompressionService.fit(image, maxWidth, maxHeight);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        imageCompressionService.writeImage(image, fmt, quality, encoded);
+        byte[] content = encoded.toByteArray();
+
+        Path file = diskPath(key, fmt);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = Files.createTempFile(file.getParent(), key, ".part");
+            try {
+                Files.write(temp, content);
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            addToDisk(key, content.length);
+        } catch (IOException ex) {
+            // The disk tier is only a cache: still answer from memory
+            logger.warn("Could not store image variant {} on disk", key, ex);
+        }
+        if (content.length <= memoryMaxEntryBytes) {
+            addToMemory(key, content);
+        }
+        return new Variant(key, contentType, content, null);
+    }
+
+    private Variant lookup(String key, String contentType, String fmt) {
+        synchronized (memory) {
+            byte[] content = memory.get(key);
+            if (content != null) {
+                return new Variant(key, contentType, content, null);
+            }
+        }
+        synchronized (disk) {
+            if (disk.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = diskPath(key, fmt);
+        if (!Files.isRegularFile(file)) {
+            removeFromDisk(key);
+            return null;
+        }
+        try {
+            if (Files.size(file) <= memoryMaxEntryBytes) {
+                // Promote hot small variants to the heap tier
+                byte[] content = Files.readAllBytes(file);
+                addToMemory(key, content);
+                return new Variant(key, contentType, content, null);
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not read cached image variant {}", key, ex);
+            return null;
+        }
+        return new Variant(key, contentType, null, file);
+    }
+
+    private void addToMemory(String key, byte[] content) {
+        synchronized (memory) {
+            byte[] previous = memory.put(key, content);
+            memoryBytes += content.length - (previous != null ? previous.length : 0);
+            Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+            while (memoryBytes > memoryMaxBytes && eldest.hasNext()) {
+                memoryBytes -= eldest.next().getValue().length;
+                eldest.remove();
+            }
+        }
+    }
+
+    private void addToDisk(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (disk) {
+            Long previous = disk.put(key, size);
+            diskBytes += size - (previous != null ? previous : 0);
+            Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+            while (diskBytes > diskMaxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    continue;
+                }
+                diskBytes -= entry.getValue();
+                evicted.add(entry.getKey());
+                eldest.remove();
+            }
+        }
+        evicted.forEach(this::deleteCachedFiles);
+    }
+
+    private void removeFromDisk(String key) {
+        synchronized (disk) {
+            Long size = disk.remove(key);
+            if (size != null) {
+                diskBytes -= size;
+            }
+        }
+    }
+
+    private void deleteCachedFiles(String key) {
+        for (String fmt : List.of("jpg", "png")) {
+            try {
+                Files.deleteIfExists(diskPath(key, fmt));
+            } catch (IOException ex) {
+                logger.warn("Could not evict cached image variant {}", key, ex);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the disk index from the cache directory, least recently modified first.
+     */
+    private void loadDiskIndex() throws IOException {
+        record Cached(String key, long size, FileTime modified) {
+        }
+        List<Cached> files;
+        try (Stream<Path> paths = Files.walk(cacheLocation)) {
+            files = paths.filter(Files::isRegularFile)
+                    .map(path -> {
+                        try {
+                            String name = path.getFileName().toString();
+                            if (name.endsWith(".part")) {
+                                Files.deleteIfExists(path);
+                                return null;
+                            }
+                            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                            return new Cached(name.substring(0, name.lastIndexOf('.')), attributes.size(),
+                                    attributes.lastModifiedTime());
+                        } catch (IOException ex) {
+                            throw new UncheckedIOException(ex);
+                        }
+                    })
+                    .filter(Objects::nonNull)
+                    .sorted(Comparator.comparing(Cached::modified))
+                    .toList();
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        files.forEach(cached -> addToDisk(cached.key(), cached.size()));
+    }
+
+    private Path diskPath(String key, String fmt) {
+        return cacheLocation.resolve(key.substring(0, 2)).resolve(key + "." + fmt);
+    }
+
+    private static int checkDimension(Integer value, String name) {
+        if (value == null) {
+            return Integer.MAX_VALUE;
+        }
+        if (value < 1 || value > MAX_DIMENSION) {
+            throw new IllegalArgumentException("El parámetro " + name + " debe estar entre 1 y " + MAX_DIMENSION);
+        }
+        for (int size : SIZES) {
+            if (size >= value) {
+                return size;
+            }
+        }
+        return MAX_DIMENSION;
+    }
+
+    private static String normalizeFormat(String format, String originalName) {
+        if (format == null) {
+            return originalName.toLowerCase().endsWith(".png") ? "png" : "jpg";
+        }
+        return switch (format.toLowerCase()) {
+            case "jpg", "jpeg" -> "jpg";
+            case "png" -> "png";
+            default -> throw new IllegalArgumentException("Formato no soportado: " + format);
+        };
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 20);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
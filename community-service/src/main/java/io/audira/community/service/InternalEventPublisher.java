@@ -0,0 +1,35 @@
+package io.audira.community.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Posts events to the internal endpoints of other services with the shared internal token.
+ * <p>
+ * Calls are synchronous and failures reach the caller, which decides what to keep for the
+ * next attempt.
+ */
+@Component
+class InternalEventPublisher {
+
+    private final RestTemplate restTemplate;
+    private final String internalApiToken;
+
+    InternalEventPublisher(RestTemplate restTemplate,
+                           @Value("${internal.api-token:}") String internalApiToken) {
+        this.restTemplate = restTemplate;
+        this.internalApiToken = internalApiToken;
+    }
+
+    void post(String url, Object body) throws RestClientException {
+        HttpHeaders headers = new HttpHeaders();
+        if (!internalApiToken.isEmpty()) {
+            headers.set("X-Internal-Token", internalApiToken);
+        }
+        restTemplate.postForLocation(url, new HttpEntity<>(body, headers));
+    }
+}
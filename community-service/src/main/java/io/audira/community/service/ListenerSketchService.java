@@ -0,0 +1,210 @@
+package io.audira.community.service;
+
+import io.audira.community.dto.ListenerEstimateDTO;
+import io.audira.community.model.ArtistMetrics;
+import io.audira.community.model.EntityType;
+import io.audira.community.model.ListenerSketch;
+import io.audira.community.model.SongMetrics;
+import io.audira.community.repository.ArtistMetricsRepository;
+import io.audira.community.repository.ListenerSketchRepository;
+import io.audira.community.repository.SongMetricsRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks distinct listeners per song and artist with {@link HyperLogLog} sketches:
+ * a lifetime sketch stored next to the metrics row and one sketch per day, so any
+ * date range can be answered by merging daily sketches.
+ * <p>
+ * Sketches are updated in memory and merged into the database on the write-behind
+ * interval. Merging is idempotent, so a sketch can be re-sent without over-counting.
+ */
+@Service
+@RequiredArgsConstructor
+public class ListenerSketchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListenerSketchService.class);
+
+    private final ListenerSketchRepository listenerSketchRepository;
+    private final SongMetricsRepository songMetricsRepository;
+    private final ArtistMetricsRepository artistMetricsRepository;
+    private final MetricsWriteBehind metricsWriteBehind;
+
+    private final ConcurrentHashMap<SketchKey, PendingSketch> pending = new ConcurrentHashMap<>();
+
+    public void recordListener(EntityType entityType, Long entityId, Long userId) {
+        offer(new SketchKey(entityType, entityId, null), userId);
+        offer(new SketchKey(entityType, entityId, LocalDate.now()), userId);
+    }
+
+    /**
+     * Estimates distinct listeners over the lifetime of the entity, or over the given
+     * inclusive date range when either bound is present.
+     */
+    public ListenerEstimateDTO estimateListeners(EntityType entityType, Long entityId, LocalDate from, LocalDate to) {
+        HyperLogLog union;
+        if (from == null && to == null) {
+            union = HyperLogLog.fromBytes(findLifetimeSketch(entityType, entityId));
+            mergePending(union, new SketchKey(entityType, entityId, null));
+        } else {
+            to = to != null ? to : LocalDate.now();
+            from = from != null ? from : to;
+            if (from.isAfter(to)) {
+                throw new RuntimeException("The start date must not be after the end date");
+            }
+            union = new HyperLogLog();
+            for (ListenerSketch daily : listenerSketchRepository
+                    .findByEntityTypeAndEntityIdAndBucketDateBetween(entityType, entityId, from, to)) {
+                union.merge(HyperLogLog.fromBytes(daily.getSketch()));
+            }
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                mergePending(union, new SketchKey(entityType, entityId, day));
+            }
+        }
+
+        long estimate = union.estimate();
+        double error = HyperLogLog.relativeStandardError();
+        return ListenerEstimateDTO.builder()
+                .entityType(entityType)
+                .entityId(entityId)
+                .from(from)
+                .to(to)
+                .estimate(estimate)
+                .relativeStandardError(error)
+                .lowerBound(Math.max(0L, Math.round(estimate * (1 - 2 * error))))
+                .upperBound(Math.round(estimate * (1 + 2 * error)))
+                .build();
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.write-behind.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        Map<Long, PendingSketch> songs = new HashMap<>();
+        Map<Long, PendingSketch> artists = new HashMap<>();
+        Map<SketchKey, PendingSketch> daily = new HashMap<>();
+
+        for (Map.Entry<SketchKey, PendingSketch> entry : pending.entrySet()) {
+            SketchKey key = entry.getKey();
+            PendingSketch sketch = entry.getValue();
+            if (sketch.dirty) {
+                sketch.dirty = false;
+                if (key.day() != null) {
+                    daily.put(key, sketch);
+                } else if (key.entityType() == EntityType.SONG) {
+                    songs.put(key.entityId(), sketch);
+                } else {
+                    artists.put(key.entityId(), sketch);
+                }
+            } else if (pending.remove(key, sketch)) {
+                // Fully persisted and idle since the last flush
+                sketch.retired = true;
+                // An offer that changed it before seeing it retired is not re-offered; carry it over
+                if (sketch.dirty) {
+                    PendingSketch live = pending.computeIfAbsent(key, k -> new PendingSketch());
+                    live.sketch.merge(sketch.sketch);
+                    live.dirty = true;
+                }
+            }
+        }
+
+        try {
+            metricsWriteBehind.mergeSongListenerSketches(sketchesOf(songs));
+        } catch (RuntimeException ex) {
+            songs.values().forEach(sketch -> sketch.dirty = true);
+            logger.error("Failed to flush {} song listener sketches", songs.size(), ex);
+        }
+        try {
+            metricsWriteBehind.mergeArtistListenerSketches(sketchesOf(artists));
+        } catch (RuntimeException ex) {
+            artists.values().forEach(sketch -> sketch.dirty = true);
+            logger.error("Failed to flush {} artist listener sketches", artists.size(), ex);
+        }
+        daily.forEach((key, sketch) -> {
+            try {
+                persistDaily(key, sketch.sketch);
+            } catch (RuntimeException ex) {
+                sketch.dirty = true;
+                logger.error("Failed to flush listener sketch {}", key, ex);
+            }
+        });
+    }
+
+    private void offer(SketchKey key, long userId) {
+        for (;;) {
+            PendingSketch sketch = pending.get(key);
+            if (sketch == null) {
+                sketch = pending.computeIfAbsent(key, k -> new PendingSketch());
+            }
+            if (!sketch.sketch.offer(userId)) {
+                return;
+            }
+            sketch.dirty = true;
+            // Evicted concurrently: offer again into the live sketch
+            if (!sketch.retired) {
+                return;
+            }
+        }
+    }
+
+    private void mergePending(HyperLogLog union, SketchKey key) {
+        PendingSketch sketch = pending.get(key);
+        if (sketch != null) {
+            union.merge(sketch.sketch);
+        }
+    }
+
+    private byte[] findLifetimeSketch(EntityType entityType, Long entityId) {
+        if (entityType == EntityType.SONG) {
+            return songMetricsRepository.findBySongId(entityId)
+                    .map(SongMetrics::getListenerSketch)
+                    .orElse(null);
+        }
+        return artistMetricsRepository.findByArtistId(entityId)
+                .map(ArtistMetrics::getListenerSketch)
+                .orElse(null);
+    }
+
+    private void persistDaily(SketchKey key, HyperLogLog sketch) {
+        ListenerSketch stored = listenerSketchRepository
+                .findByEntityTypeAndEntityIdAndBucketDate(key.entityType(), key.entityId(), key.day())
+                .orElseGet(() -> ListenerSketch.builder()
+                        .entityType(key.entityType())
+                        .entityId(key.entityId())
+                        .bucketDate(key.day())
+                        .build());
+        stored.setSketch(HyperLogLog.fromBytes(stored.getSketch()).merge(sketch).toBytes());
+        listenerSketchRepository.save(stored);
+    }
+
+    private static Map<Long, HyperLogLog> sketchesOf(Map<Long, PendingSketch> pendingSketches) {
+        Map<Long, HyperLogLog> sketches = new HashMap<>();
+        pendingSketches.forEach((id, sketch) -> sketches.put(id, sketch.sketch));
+        return sketches;
+    }
+
+    private record SketchKey(EntityType entityType, Long entityId, LocalDate day) {
+    }
+
+    private static final class PendingSketch {
+        private final HyperLogLog sketch = new HyperLogLog();
+        private volatile boolean dirty;
+        private volatile boolean retired;
+    }
+}
@@ -0,0 +1,178 @@
+package io.audira.community.service;
+
+import io.audira.community.dto.MetricsBucketDTO;
+import io.audira.community.model.BucketGranularity;
+import io.audira.community.model.EntityType;
+import io.audira.community.model.MetricsBucket;
+import io.audira.community.repository.DailyMetricsBucketRepository;
+import io.audira.community.repository.HourlyMetricsBucketRepository;
+import io.audira.community.repository.MetricsRollupRepository;
+import io.audira.community.repository.MonthlyMetricsBucketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves per-artist and per-song time series from pre-aggregated buckets.
+ * <p>
+ * Hourly buckets are filled by {@link MetricsWriteBehind} on every flush. A scheduled job
+ * compacts them into daily buckets and daily buckets into monthly ones, then drops
+ * hourly and daily rows past their retention.
+ */
+@Service
+public class MetricsRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRollupService.class);
+
+    public static final int MAX_BUCKETS = 2000;
+
+    private final HourlyMetricsBucketRepository hourlyRepository;
+    private final DailyMetricsBucketRepository dailyRepository;
+    private final MonthlyMetricsBucketRepository monthlyRepository;
+    private final MetricsRollupRepository metricsRollupRepository;
+    private final int hourlyRetentionDays;
+    private final int dailyRetentionDays;
+
+    // Days before this one are already reflected in the daily and monthly buckets
+    private LocalDateTime compactedUntil;
+
+    public MetricsRollupService(HourlyMetricsBucketRepository hourlyRepository,
+                                DailyMetricsBucketRepository dailyRepository,
+                                MonthlyMetricsBucketRepository monthlyRepository,
+                                MetricsRollupRepository metricsRollupRepository,
+                                @Value("${metrics.rollup.hourly-retention-days:7}") int hourlyRetentionDays,
+                                @Value("${metrics.rollup.daily-retention-days:730}") int dailyRetentionDays) {
+        this.hourlyRepository = hourlyRepository;
+        this.dailyRepository = dailyRepository;
+        this.monthlyRepository = monthlyRepository;
+        this.metricsRollupRepository = metricsRollupRepository;
+        // Compaction re-reads the last two days of hourly data and the months they belong to
+        this.hourlyRetentionDays = Math.max(2, hourlyRetentionDays);
+        this.dailyRetentionDays = Math.max(this.hourlyRetentionDays + 62, dailyRetentionDays);
+    }
+
+    public List<MetricsBucketDTO> getTimeSeries(EntityType entityType, Long entityId, BucketGranularity granularity,
+                                                LocalDateTime from, LocalDateTime to) {
+        LocalDateTime end = truncate(to != null ? to : LocalDateTime.now(), granularity);
+        LocalDateTime start = truncate(from != null ? from : defaultStart(end, granularity), granularity);
+        if (start.isAfter(end)) {
+            throw new RuntimeException("The start of the range must not be after its end");
+        }
+        if (bucketsBetween(start, end, granularity) >= MAX_BUCKETS) {
+            throw new RuntimeException("Time range too large: at most " + MAX_BUCKETS + " buckets per request");
+        }
+
+        List<? extends MetricsBucket> rows = switch (granularity) {
+            case HOUR -> hourlyRepository.findByEntityTypeAndEntityIdAndBucketStartBetweenOrderByBucketStart(
+                    entityType, entityId, start, end);
+            case DAY -> dailyRepository.findByEntityTypeAndEntityIdAndBucketStartBetweenOrderByBucketStart(
+                    entityType, entityId, start, end);
+            case MONTH -> monthlyRepository.findByEntityTypeAndEntityIdAndBucketStartBetweenOrderByBucketStart(
+                    entityType, entityId, start, end);
+        };
+        Map<LocalDateTime, MetricsBucket> byStart = new HashMap<>();
+        rows.forEach(row -> byStart.put(row.getBucketStart(), row));
+
+        // Empty buckets are filled with zeros so clients get a continuous series
+        List<MetricsBucketDTO> series = new ArrayList<>();
+        for (LocalDateTime bucket = start; !bucket.isAfter(end); bucket = next(bucket, granularity)) {
+            series.add(mapToDTO(bucket, byStart.get(bucket)));
+        }
+        return series;
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.rollup.compaction-interval-ms:300000}")
+    public synchronized void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        LocalDateTime hourlyCutoff = today.minusDays(hourlyRetentionDays).atStartOfDay();
+
+        LocalDateTime dailyFrom = compactedUntil != null ? compactedUntil : hourlyCutoff;
+        LocalDateTime dailyTo = today.plusDays(1).atStartOfDay();
+        LocalDateTime monthlyFrom = dailyFrom.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        LocalDateTime monthlyTo = today.withDayOfMonth(1).plusMonths(1).atStartOfDay();
+
+        try {
+            int days = metricsRollupRepository.compact("metrics_hourly", "metrics_daily", "day", dailyFrom, dailyTo);
+            int months = metricsRollupRepository.compact("metrics_daily", "metrics_monthly", "month",
+                    monthlyFrom, monthlyTo);
+            // Keep recomputing the previous day for an hour after midnight to pick up late flushes
+            compactedUntil = now.minusHours(1).toLocalDate().atStartOfDay();
+
+            int hourlyDropped = metricsRollupRepository.deleteBefore("metrics_hourly", hourlyCutoff);
+            int dailyDropped = metricsRollupRepository.deleteBefore("metrics_daily",
+                    today.minusDays(dailyRetentionDays).withDayOfMonth(1).atStartOfDay());
+            logger.debug("Compacted {} daily and {} monthly buckets, dropped {} hourly and {} daily buckets",
+                    days, months, hourlyDropped, dailyDropped);
+        } catch (RuntimeException ex) {
+            logger.error("Metrics rollup compaction failed", ex);
+        }
+    }
+
+    private static LocalDateTime defaultStart(LocalDateTime end, BucketGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> end.minusHours(47);
+            case DAY -> end.minusDays(89);
+            case MONTH -> end.minusMonths(11);
+        };
+    }
+
+    private static LocalDateTime truncate(LocalDateTime time, BucketGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> time.truncatedTo(ChronoUnit.HOURS);
+            case DAY -> time.truncatedTo(ChronoUnit.DAYS);
+            case MONTH -> time.toLocalDate().withDayOfMonth(1).atStartOfDay();
+        };
+    }
+
+    private static LocalDateTime next(LocalDateTime bucket, BucketGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> bucket.plusHours(1);
+            case DAY -> bucket.plusDays(1);
+            case MONTH -> bucket.plusMonths(1);
+        };
+    }
+
+    private static long bucketsBetween(LocalDateTime start, LocalDateTime end, BucketGranularity granularity) {
+        return switch (granularity) {
+            case HOUR -> ChronoUnit.HOURS.between(start, end);
+            case DAY -> ChronoUnit.DAYS.between(start, end);
+            case MONTH -> ChronoUnit.MONTHS.between(start, end);
+        };
+    }
+
+    private static MetricsBucketDTO mapToDTO(LocalDateTime bucketStart, MetricsBucket bucket) {
+        if (bucket == null) {
+            return MetricsBucketDTO.builder()
+                    .bucketStart(bucketStart)
+                    .plays(0L)
+                    .likes(0L)
+                    .shares(0L)
+                    .downloads(0L)
+                    .followers(0L)
+                    .sales(0L)
+                    .revenue(0.0)
+                    .build();
+        }
+        return MetricsBucketDTO.builder()
+                .bucketStart(bucketStart)
+                .plays(bucket.getPlays())
+                .likes(bucket.getLikes())
+                .shares(bucket.getShares())
+                .downloads(bucket.getDownloads())
+                .followers(bucket.getFollowers())
+                .sales(bucket.getSales())
+                .revenue(bucket.getRevenue())
+                .build();
+    }
+}
@@ -1,10 +1,19 @@
 package io.audira.community.service;
 
+import io.audira.community.dto.GlobalMetricsReconciliationDTO;
+import io.audira.community.dto.ListenerEstimateDTO;
+import io.audira.community.dto.MetricsBucketDTO;
 import io.audira.community.model.*;
 import io.audira.community.repository.*;
+import io.audira.community.service.MetricsWriteBehind.ArtistCounter;
+import io.audira.community.service.MetricsWriteBehind.SongCounter;
+import io.audira.community.service.MetricsWriteBehind.UserCounter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -13,65 +22,56 @@ public class MetricsService {
     private final UserMetricsRepository userMetricsRepository;
     private final ArtistMetricsRepository artistMetricsRepository;
     private final SongMetricsRepository songMetricsRepository;
-    private final GlobalMetricsRepository globalMetricsRepository;
+    private final MetricsWriteBehind metricsWriteBehind;
+    private final ListenerSketchService listenerSketchService;
+    private final MetricsRollupService metricsRollupService;
+    private final GlobalMetricsService globalMetricsService;
+    private final TrendingEventPublisher trendingEventPublisher;
 
     // User Metrics
     public UserMetrics getUserMetrics(Long userId) {
-        return userMetricsRepository.findByUserId(userId)
+        UserMetrics stored = userMetricsRepository.findByUserId(userId)
                 .orElseGet(() -> createDefaultUserMetrics(userId));
+        return withPending(stored, metricsWriteBehind.pendingUser(userId));
     }
 
-    @Transactional
     public UserMetrics incrementUserPlays(Long userId) {
-        UserMetrics metrics = getUserMetrics(userId);
-        metrics.setTotalPlays(metrics.getTotalPlays() + 1);
-        return userMetricsRepository.save(metrics);
+        metricsWriteBehind.add(userId, UserCounter.TOTAL_PLAYS, 1);
+        return getUserMetrics(userId);
     }
 
-    @Transactional
     public UserMetrics addListeningTime(Long userId, Long seconds) {
-        UserMetrics metrics = getUserMetrics(userId);
-        metrics.setTotalListeningTime(metrics.getTotalListeningTime() + seconds);
-        return userMetricsRepository.save(metrics);
+        metricsWriteBehind.add(userId, UserCounter.TOTAL_LISTENING_TIME, seconds);
+        return getUserMetrics(userId);
     }
 
-    @Transactional
     public UserMetrics incrementFollowers(Long userId) {
-        UserMetrics metrics = getUserMetrics(userId);
-        metrics.setTotalFollowers(metrics.getTotalFollowers() + 1);
-        return userMetricsRepository.save(metrics);
+        metricsWriteBehind.add(userId, UserCounter.TOTAL_FOLLOWERS, 1);
+        return getUserMetrics(userId);
     }
 
-    @Transactional
     public UserMetrics decrementFollowers(Long userId) {
-        UserMetrics metrics = getUserMetrics(userId);
-        if (metrics.getTotalFollowers() > 0) {
-            metrics.setTotalFollowers(metrics.getTotalFollowers() - 1);
+        if (getUserMetrics(userId).getTotalFollowers() > 0) {
+            metricsWriteBehind.add(userId, UserCounter.TOTAL_FOLLOWERS, -1);
         }
-        return userMetricsRepository.save(metrics);
+        return getUserMetrics(userId);
     }
 
-    @Transactional
     public UserMetrics incrementFollowing(Long userId) {
-        UserMetrics metrics = getUserMetrics(userId);
-        metrics.setTotalFollowing(metrics.getTotalFollowing() + 1);
-        return userMetricsRepository.save(metrics);
+        metricsWriteBehind.add(userId, UserCounter.TOTAL_FOLLOWING, 1);
+        return getUserMetrics(userId);
     }
 
-    @Transactional
     public UserMetrics decrementFollowing(Long userId) {
-        UserMetrics metrics = getUserMetrics(userId);
-        if (metrics.getTotalFollowing() > 0) {
-            metrics.setTotalFollowing(metrics.getTotalFollowing() - 1);
+        if (getUserMetrics(userId).getTotalFollowing() > 0) {
+            metricsWriteBehind.add(userId, UserCounter.TOTAL_FOLLOWING, -1);
         }
-        return userMetricsRepository.save(metrics);
+        return getUserMetrics(userId);
     }
 
-    @Transactional
     public UserMetrics incrementPurchases(Long userId) {
-        UserMetrics metrics = getUserMetrics(userId);
-        metrics.setTotalPurchases(metrics.getTotalPurchases() + 1);
-        return userMetricsRepository.save(metrics);
+        metricsWriteBehind.add(userId, UserCounter.TOTAL_PURCHASES, 1);
+        return getUserMetrics(userId);
     }
 
     private UserMetrics createDefaultUserMetrics(Long userId) {
@@ -85,48 +85,66 @@ public class MetricsService {
                 .build();
     }
 
+    // Detached copy so the merged values are never flushed back by dirty checking
+    private UserMetrics withPending(UserMetrics stored, long[] pending) {
+        if (pending == null) {
+            return stored;
+        }
+        return UserMetrics.builder()
+                .id(stored.getId())
+                .userId(stored.getUserId())
+                .totalPlays(plus(stored.getTotalPlays(), pending[UserCounter.TOTAL_PLAYS.ordinal()]))
+                .totalListeningTime(plus(stored.getTotalListeningTime(), pending[UserCounter.TOTAL_LISTENING_TIME.ordinal()]))
+                .totalFollowers(plus(stored.getTotalFollowers(), pending[UserCounter.TOTAL_FOLLOWERS.ordinal()]))
+                .totalFollowing(plus(stored.getTotalFollowing(), pending[UserCounter.TOTAL_FOLLOWING.ordinal()]))
+                .totalPurchases(plus(stored.getTotalPurchases(), pending[UserCounter.TOTAL_PURCHASES.ordinal()]))
+                .lastUpdated(stored.getLastUpdated())
+                .build();
+    }
+
     // Artist Metrics
     public ArtistMetrics getArtistMetrics(Long artistId) {
-        return artistMetricsRepository.findByArtistId(artistId)
+        ArtistMetrics stored = artistMetricsRepository.findByArtistId(artistId)
                 .orElseGet(() -> createDefaultArtistMetrics(artistId));
+        return withPending(stored, metricsWriteBehind.pendingArtist(artistId));
     }
 
-    @Transactional
     public ArtistMetrics incrementArtistPlays(Long artistId) {
-        ArtistMetrics metrics = getArtistMetrics(artistId);
-        metrics.setTotalPlays(metrics.getTotalPlays() + 1);
-        return artistMetricsRepository.save(metrics);
+        metricsWriteBehind.add(artistId, ArtistCounter.TOTAL_PLAYS, 1);
+        return getArtistMetrics(artistId);
+    }
+
+    public ArtistMetrics recordArtistListener(Long artistId, Long userId) {
+        listenerSketchService.recordListener(EntityType.ARTIST, artistId, userId);
+        return getArtistMetrics(artistId);
     }
 
-    @Transactional
-    public ArtistMetrics incrementArtistListeners(Long artistId) {
-        ArtistMetrics metrics = getArtistMetrics(artistId);
-        metrics.setTotalListeners(metrics.getTotalListeners() + 1);
-        return artistMetricsRepository.save(metrics);
+    public ListenerEstimateDTO getArtistListeners(Long artistId, LocalDate from, LocalDate to) {
+        return listenerSketchService.estimateListeners(EntityType.ARTIST, artistId, from, to);
+    }
+
+    public List<MetricsBucketDTO> getArtistTimeSeries(Long artistId, BucketGranularity granularity,
+                                                      LocalDateTime from, LocalDateTime to) {
+        return metricsRollupService.getTimeSeries(EntityType.ARTIST, artistId, granularity, from, to);
     }
 
-    @Transactional
     public ArtistMetrics incrementArtistFollowers(Long artistId) {
-        ArtistMetrics metrics = getArtistMetrics(artistId);
-        metrics.setTotalFollowers(metrics.getTotalFollowers() + 1);
-        return artistMetricsRepository.save(metrics);
+        metricsWriteBehind.add(artistId, ArtistCounter.TOTAL_FOLLOWERS, 1);
+        return getArtistMetrics(artistId);
     }
 
-    @Transactional
     public ArtistMetrics decrementArtistFollowers(Long artistId) {
-        ArtistMetrics metrics = getArtistMetrics(artistId);
-        if (metrics.getTotalFollowers() > 0) {
-            metrics.setTotalFollowers(metrics.getTotalFollowers() - 1);
+        if (getArtistMetrics(artistId).getTotalFollowers() > 0) {
+            metricsWriteBehind.add(artistId, ArtistCounter.TOTAL_FOLLOWERS, -1);
         }
-        return artistMetricsRepository.save(metrics);
+        return getArtistMetrics(artistId);
     }
 
-    @Transactional
     public ArtistMetrics addArtistSale(Long artistId, Double amount) {
-        ArtistMetrics metrics = getArtistMetrics(artistId);
-        metrics.setTotalSales(metrics.getTotalSales() + 1);
-        metrics.setTotalRevenue(metrics.getTotalRevenue() + amount);
-        return artistMetricsRepository.save(metrics);
+        metricsWriteBehind.add(artistId, ArtistCounter.TOTAL_SALES, 1);
+        metricsWriteBehind.add(artistId, ArtistCounter.TOTAL_REVENUE,
+                Math.round(amount * MetricsWriteBehind.REVENUE_SCALE));
+        return getArtistMetrics(artistId);
     }
 
     private ArtistMetrics createDefaultArtistMetrics(Long artistId) {
@@ -140,54 +158,74 @@ public class MetricsService {
                 .build();
     }
 
+    private ArtistMetrics withPending(ArtistMetrics stored, long[] pending) {
+        if (pending == null) {
+            return stored;
+        }
+        double pendingRevenue = pending[ArtistCounter.TOTAL_REVENUE.ordinal()]
+                / (double) MetricsWriteBehind.REVENUE_SCALE;
+        return ArtistMetrics.builder()
+                .id(stored.getId())
+                .artistId(stored.getArtistId())
+                .totalPlays(plus(stored.getTotalPlays(), pending[ArtistCounter.TOTAL_PLAYS.ordinal()]))
+                .totalListeners(plus(stored.getTotalListeners(), pending[ArtistCounter.TOTAL_LISTENERS.ordinal()]))
+                .totalFollowers(plus(stored.getTotalFollowers(), pending[ArtistCounter.TOTAL_FOLLOWERS.ordinal()]))
+                .totalSales(plus(stored.getTotalSales(), pending[ArtistCounter.TOTAL_SALES.ordinal()]))
+                .totalRevenue(stored.getTotalRevenue() + pendingRevenue)
+                .listenerSketch(stored.getListenerSketch())
+                .lastUpdated(stored.getLastUpdated())
+                .build();
+    }
+
     // Song Metrics
     public SongMetrics getSongMetrics(Long songId) {
-        return songMetricsRepository.findBySongId(songId)
+        SongMetrics stored = songMetricsRepository.findBySongId(songId)
                 .orElseGet(() -> createDefaultSongMetrics(songId));
+        return withPending(stored, metricsWriteBehind.pendingSong(songId));
     }
 
-    @Transactional
     public SongMetrics incrementSongPlays(Long songId) {
-        SongMetrics metrics = getSongMetrics(songId);
-        metrics.setTotalPlays(metrics.getTotalPlays() + 1);
-        return songMetricsRepository.save(metrics);
+        metricsWriteBehind.add(songId, SongCounter.TOTAL_PLAYS, 1);
+        globalMetricsService.record(GlobalMetricsEventType.PLAY, null);
+        trendingEventPublisher.recordPlay(songId);
+        return getSongMetrics(songId);
+    }
+
+    public SongMetrics recordSongListener(Long songId, Long userId) {
+        listenerSketchService.recordListener(EntityType.SONG, songId, userId);
+        return getSongMetrics(songId);
     }
 
-    @Transactional
-    public SongMetrics incrementUniqueListeners(Long songId) {
-        SongMetrics metrics = getSongMetrics(songId);
-        metrics.setUniqueListeners(metrics.getUniqueListeners() + 1);
-        return songMetricsRepository.save(metrics);
+    public ListenerEstimateDTO getSongListeners(Long songId, LocalDate from, LocalDate to) {
+        return listenerSketchService.estimateListeners(EntityType.SONG, songId, from, to);
+    }
+
+    public List<MetricsBucketDTO> getSongTimeSeries(Long songId, BucketGranularity granularity,
+                                                    LocalDateTime from, LocalDateTime to) {
+        return metricsRollupService.getTimeSeries(EntityType.SONG, songId, granularity, from, to);
     }
 
-    @Transactional
     public SongMetrics incrementLikes(Long songId) {
-        SongMetrics metrics = getSongMetrics(songId);
-        metrics.setTotalLikes(metrics.getTotalLikes() + 1);
-        return songMetricsRepository.save(metrics);
+        metricsWriteBehind.add(songId, SongCounter.TOTAL_LIKES, 1);
+        trendingEventPublisher.recordLike(songId);
+        return getSongMetrics(songId);
     }
 
-    @Transactional
     public SongMetrics decrementLikes(Long songId) {
-        SongMetrics metrics = getSongMetrics(songId);
-        if (metrics.getTotalLikes() > 0) {
-            metrics.setTotalLikes(metrics.getTotalLikes() - 1);
+        if (getSongMetrics(songId).getTotalLikes() > 0) {
+            metricsWriteBehind.add(songId, SongCounter.TOTAL_LIKES, -1);
         }
-        return songMetricsRepository.save(metrics);
+        return getSongMetrics(songId);
     }
 
-    @Transactional
     public SongMetrics incrementShares(Long songId) {
-        SongMetrics metrics = getSongMetrics(songId);
-        metrics.setTotalShares(metrics.getTotalShares() + 1);
-        return songMetricsRepository.save(metrics);
+        metricsWriteBehind.add(songId, SongCounter.TOTAL_SHARES, 1);
+        return getSongMetrics(songId);
     }
 
-    @Transactional
     public SongMetrics incrementDownloads(Long songId) {
-        SongMetrics metrics = getSongMetrics(songId);
-        metrics.setTotalDownloads(metrics.getTotalDownloads() + 1);
-        return songMetricsRepository.save(metrics);
+        metricsWriteBehind.add(songId, SongCounter.TOTAL_DOWNLOADS, 1);
+        return getSongMetrics(songId);
     }
 
     private SongMetrics createDefaultSongMetrics(Long songId) {
@@ -201,33 +239,41 @@ public class MetricsService {
                 .build();
     }
 
+    private SongMetrics withPending(SongMetrics stored, long[] pending) {
+        if (pending == null) {
+            return stored;
+        }
+        return SongMetrics.builder()
+                .id(stored.getId())
+                .songId(stored.getSongId())
+                .totalPlays(plus(stored.getTotalPlays(), pending[SongCounter.TOTAL_PLAYS.ordinal()]))
+                .uniqueListeners(plus(stored.getUniqueListeners(), pending[SongCounter.UNIQUE_LISTENERS.ordinal()]))
+                .totalLikes(plus(stored.getTotalLikes(), pending[SongCounter.TOTAL_LIKES.ordinal()]))
+                .totalShares(plus(stored.getTotalShares(), pending[SongCounter.TOTAL_SHARES.ordinal()]))
+                .totalDownloads(plus(stored.getTotalDownloads(), pending[SongCounter.TOTAL_DOWNLOADS.ordinal()]))
+                .listenerSketch(stored.getListenerSketch())
+                .lastUpdated(stored.getLastUpdated())
+                .build();
+    }
+
+    private static long plus(Long stored, long pending) {
+        return Math.max(0L, stored + pending);
+    }
+
     // Global Metrics
     public GlobalMetrics getGlobalMetrics() {
-        return globalMetricsRepository.findAll().stream()
-                .findFirst()
-                .orElseGet(this::createDefaultGlobalMetrics);
-    }
-
-    @Transactional
-    public GlobalMetrics updateGlobalMetrics(GlobalMetrics metrics) {
-        GlobalMetrics existing = getGlobalMetrics();
-        existing.setTotalUsers(metrics.getTotalUsers());
-        existing.setTotalArtists(metrics.getTotalArtists());
-        existing.setTotalSongs(metrics.getTotalSongs());
-        existing.setTotalAlbums(metrics.getTotalAlbums());
-        existing.setTotalPlays(metrics.getTotalPlays());
-        existing.setTotalRevenue(metrics.getTotalRevenue());
-        return globalMetricsRepository.save(existing);
-    }
-
-    private GlobalMetrics createDefaultGlobalMetrics() {
-        return globalMetricsRepository.save(GlobalMetrics.builder()
-                .totalUsers(0L)
-                .totalArtists(0L)
-                .totalSongs(0L)
-                .totalAlbums(0L)
-                .totalPlays(0L)
-                .totalRevenue(0.0)
-                .build());
+        return globalMetricsService.getGlobalMetrics();
+    }
+
+    public void recordGlobalEvent(GlobalMetricsEventType type, Double amount) {
+        globalMetricsService.record(type, amount);
+    }
+
+    public GlobalMetricsReconciliationDTO getLastGlobalReconciliation() {
+        return globalMetricsService.getLastReconciliation();
+    }
+
+    public GlobalMetricsReconciliationDTO reconcileGlobalMetrics() {
+        return globalMetricsService.reconcile();
     }
 }
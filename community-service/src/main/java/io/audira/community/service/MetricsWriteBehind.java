@@ -0,0 +1,221 @@
+package io.audira.community.service;
+
+import io.audira.community.model.EntityType;
+import io.audira.community.repository.MetricsDeltaRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Write-behind layer for user, artist and song counters.
+ * <p>
+ * Increments are absorbed by in-memory {@link CounterBuffer}s and flushed as batched
+ * relative updates every {@code metrics.write-behind.flush-interval-ms}, plus a final
+ * flush on shutdown. Artist and song deltas are also added to the hourly rollup buckets.
+ */
+@Component
+@RequiredArgsConstructor
+public class MetricsWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsWriteBehind.class);
+
+    public static final long REVENUE_SCALE = 10_000L;
+
+    public enum UserCounter {
+        TOTAL_PLAYS("total_plays"),
+        TOTAL_LISTENING_TIME("total_listening_time"),
+        TOTAL_FOLLOWERS("total_followers"),
+        TOTAL_FOLLOWING("total_following"),
+        TOTAL_PURCHASES("total_purchases");
+
+        private final String column;
+
+        UserCounter(String column) {
+            this.column = column;
+        }
+    }
+
+    // Listener deltas come from sketch estimates and are not additive per bucket,
+    // so they have no bucket column
+    public enum ArtistCounter {
+        TOTAL_PLAYS("total_plays", "plays", 1),
+        TOTAL_LISTENERS("total_listeners", null, 1),
+        TOTAL_FOLLOWERS("total_followers", "followers", 1),
+        TOTAL_SALES("total_sales", "sales", 1),
+        TOTAL_REVENUE("total_revenue", "revenue", REVENUE_SCALE);
+
+        private final String column;
+        private final String bucketColumn;
+        private final long scale;
+
+        ArtistCounter(String column, String bucketColumn, long scale) {
+            this.column = column;
+            this.bucketColumn = bucketColumn;
+            this.scale = scale;
+        }
+    }
+
+    public enum SongCounter {
+        TOTAL_PLAYS("total_plays", "plays"),
+        UNIQUE_LISTENERS("unique_listeners", null),
+        TOTAL_LIKES("total_likes", "likes"),
+        TOTAL_SHARES("total_shares", "shares"),
+        TOTAL_DOWNLOADS("total_downloads", "downloads");
+
+        private final String column;
+        private final String bucketColumn;
+
+        SongCounter(String column, String bucketColumn) {
+            this.column = column;
+            this.bucketColumn = bucketColumn;
+        }
+    }
+
+    private static final List<String> USER_COLUMNS =
+            Arrays.stream(UserCounter.values()).map(c -> c.column).toList();
+    private static final List<String> ARTIST_COLUMNS =
+            Arrays.stream(ArtistCounter.values()).map(c -> c.column).toList();
+    private static final List<String> SONG_COLUMNS =
+            Arrays.stream(SongCounter.values()).map(c -> c.column).toList();
+
+    private static final List<String> ARTIST_BUCKET_COLUMNS =
+            Arrays.stream(ArtistCounter.values()).map(c -> c.bucketColumn).toList();
+    private static final List<String> SONG_BUCKET_COLUMNS =
+            Arrays.stream(SongCounter.values()).map(c -> c.bucketColumn).toList();
+
+    private static final long[] USER_SCALES = unitScales(UserCounter.values().length);
+    private static final long[] ARTIST_SCALES =
+            Arrays.stream(ArtistCounter.values()).mapToLong(c -> c.scale).toArray();
+    private static final long[] SONG_SCALES = unitScales(SongCounter.values().length);
+
+    private final MetricsDeltaRepository metricsDeltaRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final CounterBuffer<UserCounter> userCounters = new CounterBuffer<>(UserCounter.class);
+    private final CounterBuffer<ArtistCounter> artistCounters = new CounterBuffer<>(ArtistCounter.class);
+    private final CounterBuffer<SongCounter> songCounters = new CounterBuffer<>(SongCounter.class);
+
+    public void add(Long userId, UserCounter counter, long delta) {
+        userCounters.add(userId, counter, delta);
+    }
+
+    public void add(Long artistId, ArtistCounter counter, long delta) {
+        artistCounters.add(artistId, counter, delta);
+    }
+
+    public void add(Long songId, SongCounter counter, long delta) {
+        songCounters.add(songId, counter, delta);
+    }
+
+    public long[] pendingUser(Long userId) {
+        return userCounters.pending(userId);
+    }
+
+    public long[] pendingArtist(Long artistId) {
+        return artistCounters.pending(artistId);
+    }
+
+    public long[] pendingSong(Long songId) {
+        return songCounters.pending(songId);
+    }
+
+    public void mergeSongListenerSketches(Map<Long, HyperLogLog> sketches) {
+        mergeListenerSketches("song_metrics", "song_id", SONG_COLUMNS, SONG_SCALES,
+                songCounters, SongCounter.UNIQUE_LISTENERS, sketches);
+    }
+
+    public void mergeArtistListenerSketches(Map<Long, HyperLogLog> sketches) {
+        mergeListenerSketches("artist_metrics", "artist_id", ARTIST_COLUMNS, ARTIST_SCALES,
+                artistCounters, ArtistCounter.TOTAL_LISTENERS, sketches);
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.write-behind.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        // Deltas are attributed to the hour in which they are flushed
+        LocalDateTime hour = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS);
+        flush("user_metrics", "user_id", USER_COLUMNS, USER_SCALES, userCounters, null, null, hour);
+        flush("artist_metrics", "artist_id", ARTIST_COLUMNS, ARTIST_SCALES, artistCounters,
+                EntityType.ARTIST, ARTIST_BUCKET_COLUMNS, hour);
+        flush("song_metrics", "song_id", SONG_COLUMNS, SONG_SCALES, songCounters,
+                EntityType.SONG, SONG_BUCKET_COLUMNS, hour);
+    }
+
+    private <F extends Enum<F>> void flush(String table, String keyColumn, List<String> columns,
+                                           long[] scales, CounterBuffer<F> buffer, EntityType entityType,
+                                           List<String> bucketColumns, LocalDateTime hour) {
+        Map<Long, long[]> deltas = buffer.drain();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            // Totals and the hourly rollup commit together so a retry never double counts either
+            transactionTemplate.executeWithoutResult(status -> {
+                metricsDeltaRepository.applyDeltas(table, keyColumn, columns, scales, deltas);
+                if (entityType != null) {
+                    metricsDeltaRepository.applyBucketDeltas("metrics_hourly", entityType, hour,
+                            bucketColumns, scales, deltas);
+                }
+            });
+        } catch (RuntimeException ex) {
+            // The batch was rolled back: keep the deltas for the next attempt
+            buffer.restore(deltas);
+            logger.error("Failed to flush {} pending deltas to {}", deltas.size(), table, ex);
+        }
+    }
+
+    /**
+     * Folds the sketches into the lifetime sketch of each row and turns the resulting change
+     * of the estimate into a regular counter delta for the listeners column.
+     */
+    private <F extends Enum<F>> void mergeListenerSketches(String table, String keyColumn, List<String> columns,
+                                                           long[] scales, CounterBuffer<F> buffer, F listeners,
+                                                           Map<Long, HyperLogLog> sketches) {
+        if (sketches.isEmpty()) {
+            return;
+        }
+        Map<Long, long[]> noDeltas = new HashMap<>();
+        Map<Long, byte[]> serialized = new HashMap<>();
+        sketches.forEach((key, sketch) -> {
+            noDeltas.put(key, new long[columns.size()]);
+            serialized.put(key, sketch.toBytes());
+        });
+
+        // Zero deltas create the rows that do not exist yet
+        metricsDeltaRepository.applyDeltas(table, keyColumn, columns, scales, noDeltas);
+        Map<Long, byte[]> previous = metricsDeltaRepository.mergeSketches(table, keyColumn, serialized,
+                (stored, sketch) -> HyperLogLog.fromBytes(stored).merge(HyperLogLog.fromBytes(sketch)).toBytes());
+
+        serialized.forEach((key, sketch) -> {
+            HyperLogLog before = HyperLogLog.fromBytes(previous.get(key));
+            long estimateBefore = before.estimate();
+            long estimateAfter = before.merge(HyperLogLog.fromBytes(sketch)).estimate();
+            buffer.add(key, listeners, estimateAfter - estimateBefore);
+        });
+    }
+
+    private static long[] unitScales(int length) {
+        long[] scales = new long[length];
+        Arrays.fill(scales, 1);
+        return scales;
+    }
+}
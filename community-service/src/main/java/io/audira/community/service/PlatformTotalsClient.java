@@ -0,0 +1,49 @@
+package io.audira.community.service;
+
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Reads authoritative totals owned by other services, for reconciliation.
+ * Every method returns {@code null} when the owning service cannot be reached.
+ */
+@Component
+@RequiredArgsConstructor
+public class PlatformTotalsClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlatformTotalsClient.class);
+
+    private final RestTemplate restTemplate;
+
+    @Value("${services.catalog-url:http://music-catalog-service}")
+    private String catalogUrl;
+
+    @Value("${services.commerce-url:http://commerce-service}")
+    private String commerceUrl;
+
+    public Long countSongs() {
+        return get(catalogUrl + "/api/songs/count", Long.class);
+    }
+
+    public Long countAlbums() {
+        return get(catalogUrl + "/api/albums/count", Long.class);
+    }
+
+    public Double completedRevenue() {
+        return get(commerceUrl + "/api/payments/revenue", Double.class);
+    }
+
+    private <T> T get(String url, Class<T> type) {
+        try {
+            return restTemplate.getForObject(url, type);
+        } catch (RestClientException ex) {
+            logger.warn("Could not read {}: {}", url, ex.getMessage());
+            return null;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import java.util.Optional;
 public class RatingService {
 
     private final RatingRepository ratingRepository;
+    private final TrendingEventPublisher trendingEventPublisher;
 
     @Transactional
     public Rating createOrUpdateRating(Long userId, EntityType entityType, Long entityId, Integer ratingValue) {
@@ -22,6 +23,7 @@ public class RatingService {
         }
 
         Optional<Rating> existingRating = ratingRepository.findByUserIdAndEntityTypeAndEntityId(userId, entityType, entityId);
+        trendingEventPublisher.recordRating(entityType, entityId, ratingValue);
 
         if (existingRating.isPresent()) {
             Rating rating = existingRating.get();
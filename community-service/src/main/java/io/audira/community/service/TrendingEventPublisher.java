@@ -0,0 +1,136 @@
+package io.audira.community.service;
+
+import io.audira.community.model.EntityType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.client.RestClientException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feeds plays, likes and ratings to the trending engine of music-catalog-service.
+ * <p>
+ * Events are counted in memory and sent in batches every {@code trending.publish-interval-ms},
+ * so a burst of plays on one song becomes a single event. The catalog also keeps its durable
+ * play counts from the PLAY events, so when a batch cannot be delivered its plays are put back
+ * and sent with the next one; likes and ratings are dropped, as trending is approximate and
+ * decays anyway.
+ */
+@Component
+public class TrendingEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingEventPublisher.class);
+
+    private static final int MAX_BATCH = 1000;
+
+    public enum Signal {
+        PLAY,
+        LIKE,
+        RATING
+    }
+
+    private record Key(Signal type, EntityType entityType, Long entityId, Integer rating) {
+    }
+
+    private final InternalEventPublisher publisher;
+    private final String eventsUrl;
+    private final ConcurrentHashMap<Key, Long> pending = new ConcurrentHashMap<>();
+
+    TrendingEventPublisher(InternalEventPublisher publisher,
+                           @Value("${services.catalog-url:http://music-catalog-service}") String catalogUrl) {
+        this.publisher = publisher;
+        this.eventsUrl = catalogUrl + "/api/discovery/trending/events";
+    }
+
+    public void recordPlay(Long songId) {
+        add(new Key(Signal.PLAY, EntityType.SONG, songId, null));
+    }
+
+    public void recordLike(Long songId) {
+        add(new Key(Signal.LIKE, EntityType.SONG, songId, null));
+    }
+
+    /**
+     * Only song and album ratings trend; other entity types are ignored.
+     */
+    public void recordRating(EntityType entityType, Long entityId, int rating) {
+        if (entityType == EntityType.SONG || entityType == EntityType.ALBUM) {
+            add(new Key(Signal.RATING, entityType, entityId, rating));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${trending.publish-interval-ms:5000}")
+    public void flush() {
+        List<Map<String, Object>> batch = new ArrayList<>();
+        List<Key> keys = new ArrayList<>();
+        for (Key key : pending.keySet()) {
+            Long count = pending.remove(key);
+            if (count == null) {
+                continue;
+            }
+            keys.add(key);
+            Map<String, Object> event = new HashMap<>();
+            event.put("type", key.type().name());
+            event.put("entityType", key.entityType().name());
+            event.put("entityId", key.entityId());
+            event.put("count", count);
+            event.put("rating", key.rating());
+            batch.add(event);
+            if (batch.size() == MAX_BATCH) {
+                send(keys, batch);
+                batch = new ArrayList<>();
+                keys = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            send(keys, batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void add(Key key) {
+        if (key.entityId() == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pending.merge(key, 1L, Long::sum);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.merge(key, 1L, Long::sum);
+            }
+        });
+    }
+
+    private void send(List<Key> keys, List<Map<String, Object>> batch) {
+        try {
+            publisher.post(eventsUrl, batch);
+        } catch (RestClientException ex) {
+            int requeued = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                if (keys.get(i).type() == Signal.PLAY) {
+                    pending.merge(keys.get(i), (Long) batch.get(i).get("count"), Long::sum);
+                    requeued++;
+                }
+            }
+            logger.warn("Could not publish {} trending events, keeping {} play counts for the next attempt: {}",
+                    batch.size(), requeued, ex.getMessage());
+        }
+    }
+}
@@ -2,10 +2,14 @@ package io.audira.community.service;
 
 import io.audira.community.dto.*;
 import io.audira.community.model.*;
+import io.audira.community.repository.FollowRepository;
 import io.audira.community.repository.UserRepository;
 import io.audira.community.security.JwtTokenProvider;
+import io.audira.community.security.PrincipalCache;
 import io.audira.community.security.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -13,18 +17,27 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final UserRepository userRepository;
+    private final FollowRepository followRepository;
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final GlobalMetricsService globalMetricsService;
+    private final PrincipalCache principalCache;
 
     @Transactional
     public AuthResponse registerUser(RegisterRequest request) {
@@ -79,6 +92,7 @@ public class UserService {
         }
 
         user = userRepository.save(user);
+        globalMetricsService.recordUserRegistered(user.getRole());
 
         Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
@@ -126,15 +140,11 @@ public class UserService {
     }
 
     public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return mapToDTOs(userRepository.findAll());
     }
 
     public List<UserDTO> getUsersByRole(UserRole role) {
-        return userRepository.findByRole(role).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+        return mapToDTOs(userRepository.findByRole(role));
     }
 
     @Transactional
@@ -203,7 +213,9 @@ public class UserService {
     public void deleteUser(Long userId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
+        followRepository.deleteAllByUserId(userId);
         userRepository.delete(user);
+        principalCache.invalidate(userId);
     }
 
     @Transactional
@@ -230,6 +242,7 @@ public class UserService {
         // Actualizar la contraseña
         user.setPassword(passwordEncoder.encode(request.getNewPassword()));
         userRepository.save(user);
+        principalCache.invalidate(userId);
     }
 
     @Transactional
@@ -240,14 +253,11 @@ public class UserService {
 
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        User targetUser = userRepository.findById(targetUserId)
-                .orElseThrow(() -> new RuntimeException("Target user not found"));
+        if (!userRepository.existsById(targetUserId)) {
+            throw new RuntimeException("Target user not found");
+        }
 
-        user.getFollowingIds().add(targetUserId);
-        targetUser.getFollowerIds().add(userId);
-
-        userRepository.save(user);
-        userRepository.save(targetUser);
+        followRepository.insertEdgeIfAbsent(userId, targetUserId);
 
         return mapToDTO(user);
     }
@@ -256,52 +266,111 @@ public class UserService {
     public UserDTO unfollowUser(Long userId, Long targetUserId) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
-        User targetUser = userRepository.findById(targetUserId)
-                .orElseThrow(() -> new RuntimeException("Target user not found"));
-
-        user.getFollowingIds().remove(targetUserId);
-        targetUser.getFollowerIds().remove(userId);
+        if (!userRepository.existsById(targetUserId)) {
+            throw new RuntimeException("Target user not found");
+        }
 
-        userRepository.save(user);
-        userRepository.save(targetUser);
+        followRepository.deleteEdge(userId, targetUserId);
 
         return mapToDTO(user);
     }
 
-    public List<UserDTO> getFollowers(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public UserPageDTO getFollowers(Long userId, Long cursor, int size) {
+        requireUser(userId);
+        Pageable page = pageOf(size);
+        List<Follow> edges = followRepository.findByFollowedIdAndIdLessThanOrderByIdDesc(
+                userId, cursorOrFirst(cursor), page);
+        return toPage(edges, page, Follow::getFollowerId);
+    }
 
-        return user.getFollowerIds().stream()
-                .map(this::getUserById)
-                .collect(Collectors.toList());
+    public UserPageDTO getFollowing(Long userId, Long cursor, int size) {
+        requireUser(userId);
+        Pageable page = pageOf(size);
+        List<Follow> edges = followRepository.findByFollowerIdAndIdLessThanOrderByIdDesc(
+                userId, cursorOrFirst(cursor), page);
+        return toPage(edges, page, Follow::getFollowedId);
     }
 
-    public List<UserDTO> getFollowing(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    public UserPageDTO getFollowedArtists(Long userId, Long cursor, int size) {
+        requireUser(userId);
+        Pageable page = pageOf(size);
+        List<Follow> edges = followRepository.findFollowedByRolePage(
+                userId, UserRole.ARTIST, cursorOrFirst(cursor), page);
+        return toPage(edges, page, Follow::getFollowedId);
+    }
 
-        return user.getFollowingIds().stream()
-                .map(this::getUserById)
-                .collect(Collectors.toList());
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
     }
 
-    public List<UserDTO> getFollowedArtists(Long userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private static Long cursorOrFirst(Long cursor) {
+        return cursor != null ? cursor : Long.MAX_VALUE;
+    }
 
-        return user.getFollowingIds().stream()
-                .map(followingId -> userRepository.findById(followingId).orElse(null))
-                .filter(followedUser -> followedUser != null && followedUser.getRole() == UserRole.ARTIST)
-                .map(this::mapToDTO)
+    private static Pageable pageOf(int size) {
+        return PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    }
+
+    /**
+     * Hydrates one page of edges with a single IN query, keeping the edge order.
+     */
+    private UserPageDTO toPage(List<Follow> edges, Pageable page, Function<Follow, Long> other) {
+        List<Long> ids = edges.stream().map(other).toList();
+        Map<Long, UserDTO> byId = mapToDTOs(userRepository.findAllById(ids)).stream()
+                .collect(Collectors.toMap(UserDTO::getId, Function.identity()));
+        List<UserDTO> users = ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
+        Long nextCursor = edges.size() == page.getPageSize()
+                ? edges.get(edges.size() - 1).getId()
+                : null;
+        return new UserPageDTO(users, nextCursor);
     }
 
+    /**
+     * Maps a single profile, including the ids the user follows.
+     */
     private UserDTO mapToDTO(User user) {
+        return toDTOBuilder(user)
+                .followerCount(followRepository.countByFollowedId(user.getId()))
+                .followingCount(followRepository.countByFollowerId(user.getId()))
+                .followingIds(new HashSet<>(followRepository.findFollowedIds(user.getId())))
+                .build();
+    }
+
+    /**
+     * Maps a list of users with their follow counts fetched in two grouped queries.
+     */
+    private List<UserDTO> mapToDTOs(List<User> users) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = users.stream().map(User::getId).toList();
+        Map<Long, Long> followers = toCounts(followRepository.countFollowersByUserIds(ids));
+        Map<Long, Long> following = toCounts(followRepository.countFollowingByUserIds(ids));
+        return users.stream()
+                .map(user -> toDTOBuilder(user)
+                        .followerCount(followers.getOrDefault(user.getId(), 0L))
+                        .followingCount(following.getOrDefault(user.getId(), 0L))
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private static Map<Long, Long> toCounts(List<Object[]> rows) {
+        Map<Long, Long> counts = new HashMap<>();
+        rows.forEach(row -> counts.put((Long) row[0], (Long) row[1]));
+        return counts;
+    }
+
+    private static UserDTO.UserDTOBuilder toDTOBuilder(User user) {
         return UserDTO.builder()
                 .id(user.getId())
                 .email(user.getEmail())
                 .username(user.getUsername())
+                .artistName(user instanceof Artist artist ? artist.getArtistName() : null)
                 .firstName(user.getFirstName())
                 .lastName(user.getLastName())
                 .bio(user.getBio())
@@ -312,10 +381,7 @@ public class UserService {
                 .role(user.getRole())
                 .isActive(user.getIsActive())
                 .isVerified(user.getIsVerified())
-                .followerIds(user.getFollowerIds())
-                .followingIds(user.getFollowingIds())
                 .createdAt(user.getCreatedAt())
-                .updatedAt(user.getUpdatedAt())
-                .build();
+                .updatedAt(user.getUpdatedAt());
     }
 }
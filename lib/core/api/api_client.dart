@@ -13,7 +13,16 @@ class ApiResponse<T> {
   final String? error;
   final int? statusCode;
 
-  ApiResponse({required this.success, this.data, this.error, this.statusCode});
+  /// Cursor of the next page of a paged listing (X-Next-Cursor), null on the last page
+  final String? nextCursor;
+
+  ApiResponse({
+    required this.success,
+    this.data,
+    this.error,
+    this.statusCode,
+    this.nextCursor,
+  });
 
   void operator [](String other) {}
 }
@@ -79,6 +88,38 @@ class ApiClient {
     }
   }
 
+  /// Reads a paged listing to the end, one page per request, following X-Next-Cursor.
+  /// Only for lists that must be complete (selection, management); browsing screens
+  /// should load further pages as the user scrolls instead.
+  Future<ApiResponse<List<dynamic>>> getAllPages(
+    String endpoint, {
+    Map<String, String>? queryParameters,
+    bool requiresAuth = true,
+  }) async {
+    final items = <dynamic>[];
+    String? cursor;
+    do {
+      final response = await get(
+        endpoint,
+        queryParameters: {
+          ...?queryParameters,
+          if (cursor != null) 'cursor': cursor,
+        },
+        requiresAuth: requiresAuth,
+      );
+      if (!response.success) {
+        return ApiResponse(
+          success: false,
+          error: response.error,
+          statusCode: response.statusCode,
+        );
+      }
+      items.addAll(response.data as List? ?? const []);
+      cursor = response.nextCursor;
+    } while (cursor != null);
+    return ApiResponse(success: true, data: items, statusCode: 200);
+  }
+
   Future<ApiResponse<T>> post<T>(
     String endpoint, {
     Map<String, dynamic>? body,
@@ -324,6 +365,7 @@ class ApiClient {
           success: true,
           data: data as T?,
           statusCode: statusCode,
+          nextCursor: response.headers['x-next-cursor'],
         );
       } catch (e) {
         return ApiResponse(
@@ -10,13 +10,8 @@ class MusicService {
   final ApiClient _apiClient = ApiClient();
 
   // Songs
-  Future<ApiResponse<List<Song>>> getAllSongs() async {
-    final response = await _apiClient.get(AppConstants.songsUrl, requiresAuth: false);
-    if (response.success && response.data != null) {
-      final songs = (response.data as List).map((json) => Song.fromJson(json)).toList();
-      return ApiResponse(success: true, data: songs);
-    }
-    return ApiResponse(success: false, error: response.error);
+  Future<ApiResponse<List<Song>>> getAllSongs({String? cursor, bool allPages = false}) {
+    return _getList(AppConstants.songsUrl, Song.fromJson, cursor: cursor, allPages: allPages);
   }
 
   Future<ApiResponse<Song>> getSongById(int id) async {
@@ -27,32 +22,17 @@ class MusicService {
     return ApiResponse(success: false, error: response.error);
   }
 
-  Future<ApiResponse<List<Song>>> getSongsByArtist(int artistId) async {
-    final response = await _apiClient.get('${AppConstants.songsUrl}/artist/$artistId', requiresAuth: false);
-    if (response.success && response.data != null) {
-      final songs = (response.data as List).map((json) => Song.fromJson(json)).toList();
-      return ApiResponse(success: true, data: songs);
-    }
-    return ApiResponse(success: false, error: response.error);
+  Future<ApiResponse<List<Song>>> getSongsByArtist(int artistId, {String? cursor, bool allPages = false}) {
+    return _getList('${AppConstants.songsUrl}/artist/$artistId', Song.fromJson, cursor: cursor, allPages: allPages);
   }
 
-  Future<ApiResponse<List<Song>>> getSongsByGenre(int genreId) async {
-    final response = await _apiClient.get('${AppConstants.songsUrl}/genre/$genreId', requiresAuth: false);
-    if (response.success && response.data != null) {
-      final songs = (response.data as List).map((json) => Song.fromJson(json)).toList();
-      return ApiResponse(success: true, data: songs);
-    }
-    return ApiResponse(success: false, error: response.error);
+  Future<ApiResponse<List<Song>>> getSongsByGenre(int genreId, {String? cursor, bool allPages = false}) {
+    return _getList('${AppConstants.songsUrl}/genre/$genreId', Song.fromJson, cursor: cursor, allPages: allPages);
   }
 
   // Albums
-  Future<ApiResponse<List<Album>>> getAllAlbums() async {
-    final response = await _apiClient.get(AppConstants.albumsUrl, requiresAuth: false);
-    if (response.success && response.data != null) {
-      final albums = (response.data as List).map((json) => Album.fromJson(json)).toList();
-      return ApiResponse(success: true, data: albums);
-    }
-    return ApiResponse(success: false, error: response.error);
+  Future<ApiResponse<List<Album>>> getAllAlbums({String? cursor, bool allPages = false}) {
+    return _getList(AppConstants.albumsUrl, Album.fromJson, cursor: cursor, allPages: allPages);
   }
 
   Future<ApiResponse<Album>> getAlbumById(int id) async {
@@ -63,22 +43,12 @@ class MusicService {
     return ApiResponse(success: false, error: response.error);
   }
 
-  Future<ApiResponse<List<Album>>> getAlbumsByArtist(int artistId) async {
-    final response = await _apiClient.get('${AppConstants.albumsUrl}/artist/$artistId', requiresAuth: false);
-    if (response.success && response.data != null) {
-      final albums = (response.data as List).map((json) => Album.fromJson(json)).toList();
-      return ApiResponse(success: true, data: albums);
-    }
-    return ApiResponse(success: false, error: response.error);
+  Future<ApiResponse<List<Album>>> getAlbumsByArtist(int artistId, {String? cursor, bool allPages = false}) {
+    return _getList('${AppConstants.albumsUrl}/artist/$artistId', Album.fromJson, cursor: cursor, allPages: allPages);
   }
 
-  Future<ApiResponse<List<Album>>> getAlbumsByGenre(int genreId) async {
-    final response = await _apiClient.get('${AppConstants.albumsUrl}/genre/$genreId', requiresAuth: false);
-    if (response.success && response.data != null) {
-      final albums = (response.data as List).map((json) => Album.fromJson(json)).toList();
-      return ApiResponse(success: true, data: albums);
-    }
-    return ApiResponse(success: false, error: response.error);
+  Future<ApiResponse<List<Album>>> getAlbumsByGenre(int genreId, {String? cursor, bool allPages = false}) {
+    return _getList('${AppConstants.albumsUrl}/genre/$genreId', Album.fromJson, cursor: cursor, allPages: allPages);
   }
 
   Future<ApiResponse<List<Song>>> getAlbumSongs(int albumId) async {
@@ -95,13 +65,8 @@ class MusicService {
   }
 
   // Genres
-  Future<ApiResponse<List<Genre>>> getAllGenres() async {
-    final response = await _apiClient.get(AppConstants.genresUrl, requiresAuth: false);
-    if (response.success && response.data != null) {
-      final genres = (response.data as List).map((json) => Genre.fromJson(json)).toList();
-      return ApiResponse(success: true, data: genres);
-    }
-    return ApiResponse(success: false, error: response.error);
+  Future<ApiResponse<List<Genre>>> getAllGenres({String? cursor, bool allPages = false}) {
+    return _getList(AppConstants.genresUrl, Genre.fromJson, cursor: cursor, allPages: allPages);
   }
 
   Future<ApiResponse<Genre>> getGenreById(int id) async {
@@ -168,4 +133,28 @@ class MusicService {
     }
     return ApiResponse(success: false, error: response.error);
   }
+
+  // Listados paginados: una página por llamada y nextCursor para pedir la siguiente; allPages
+  // recorre todas las páginas, solo para listas que deben estar completas
+  Future<ApiResponse<List<T>>> _getList<T>(
+    String endpoint,
+    T Function(Map<String, dynamic>) fromJson, {
+    String? cursor,
+    bool allPages = false,
+  }) async {
+    final response = allPages
+        ? await _apiClient.getAllPages(endpoint, requiresAuth: false)
+        : await _apiClient.get(
+            endpoint,
+            queryParameters: cursor != null ? {'cursor': cursor} : null,
+            requiresAuth: false,
+          );
+    if (response.success && response.data != null) {
+      final items = (response.data as List)
+          .map((json) => fromJson(json as Map<String, dynamic>))
+          .toList();
+      return ApiResponse(success: true, data: items, nextCursor: response.nextCursor);
+    }
+    return ApiResponse(success: false, error: response.error);
+  }
 }
@@ -66,10 +66,11 @@ class UserService {
     return ApiResponse(success: false, error: response.error);
   }
 
-  /// Get user's followers
-  Future<ApiResponse<List<User>>> getUserFollowers(int userId) async {
+  /// Get user's followers, one page at a time; pass nextCursor to get the next one
+  Future<ApiResponse<List<User>>> getUserFollowers(int userId, {String? cursor}) async {
     final response = await _apiClient.get(
       '${AppConstants.userByIdUrl}/$userId/followers',
+      queryParameters: cursor != null ? {'cursor': cursor} : null,
       requiresAuth: false,
     );
 
@@ -79,7 +80,7 @@ class UserService {
         final users = usersJson
             .map((json) => User.fromJson(json as Map<String, dynamic>))
             .toList();
-        return ApiResponse(success: true, data: users);
+        return ApiResponse(success: true, data: users, nextCursor: response.nextCursor);
       } catch (e) {
         return ApiResponse(success: false, error: 'Error al parsear seguidores: $e');
       }
@@ -88,9 +89,10 @@ class UserService {
   }
 
   /// Get users that a user is following
-  Future<ApiResponse<List<User>>> getUserFollowing(int userId) async {
+  Future<ApiResponse<List<User>>> getUserFollowing(int userId, {String? cursor}) async {
     final response = await _apiClient.get(
       '${AppConstants.userByIdUrl}/$userId/following',
+      queryParameters: cursor != null ? {'cursor': cursor} : null,
       requiresAuth: false,
     );
 
@@ -100,7 +102,7 @@ class UserService {
         final users = usersJson
             .map((json) => User.fromJson(json as Map<String, dynamic>))
             .toList();
-        return ApiResponse(success: true, data: users);
+        return ApiResponse(success: true, data: users, nextCursor: response.nextCursor);
       } catch (e) {
         return ApiResponse(success: false, error: 'Error al parsear siguiendo: $e');
       }
@@ -109,9 +111,10 @@ class UserService {
   }
 
   /// Get artists that a user is following
-  Future<ApiResponse<List<User>>> getFollowedArtists(int userId) async {
+  Future<ApiResponse<List<User>>> getFollowedArtists(int userId, {String? cursor}) async {
     final response = await _apiClient.get(
       '${AppConstants.userByIdUrl}/$userId/following/artists',
+      queryParameters: cursor != null ? {'cursor': cursor} : null,
       requiresAuth: false,
     );
 
@@ -121,7 +124,7 @@ class UserService {
         final artists = usersJson
             .map((json) => User.fromJson(json as Map<String, dynamic>))
             .toList();
-        return ApiResponse(success: true, data: artists);
+        return ApiResponse(success: true, data: artists, nextCursor: response.nextCursor);
       } catch (e) {
         return ApiResponse(success: false, error: 'Error al parsear artistas: $e');
       }
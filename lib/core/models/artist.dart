@@ -23,6 +23,8 @@ class Artist extends User {
     super.isVerified,
     super.followerIds,
     super.followingIds,
+    super.followerCount,
+    super.followingCount,
     super.createdAt,
     super.updatedAt,
     this.artistName,
@@ -34,6 +36,14 @@ class Artist extends User {
   String get displayName => artistName ?? fullName;
 
   factory Artist.fromJson(Map<String, dynamic> json) {
+    final followerIds = (json['followerIds'] as List<dynamic>?)
+            ?.map((e) => e as int)
+            .toList() ??
+        <int>[];
+    final followingIds = (json['followingIds'] as List<dynamic>?)
+            ?.map((e) => e as int)
+            .toList() ??
+        <int>[];
     return Artist(
       id: json['id'] as int,
       uid: json['uid'] as String?,
@@ -49,14 +59,10 @@ class Artist extends User {
       role: json['role'] as String,
       isActive: json['isActive'] as bool? ?? true,
       isVerified: json['isVerified'] as bool? ?? false,
-      followerIds: (json['followerIds'] as List<dynamic>?)
-              ?.map((e) => e as int)
-              .toList() ??
-          [],
-      followingIds: (json['followingIds'] as List<dynamic>?)
-              ?.map((e) => e as int)
-              .toList() ??
-          [],
+      followerIds: followerIds,
+      followingIds: followingIds,
+      followerCount: json['followerCount'] as int? ?? followerIds.length,
+      followingCount: json['followingCount'] as int? ?? followingIds.length,
       createdAt: json['createdAt'] != null
           ? DateTime.parse(json['createdAt'] as String)
           : null,
@@ -98,6 +104,8 @@ class Artist extends User {
     bool? isVerified,
     List<int>? followerIds,
     List<int>? followingIds,
+    int? followerCount,
+    int? followingCount,
     DateTime? createdAt,
     DateTime? updatedAt,
     String? artistName,
@@ -122,6 +130,8 @@ class Artist extends User {
       isVerified: isVerified ?? this.isVerified,
       followerIds: followerIds ?? this.followerIds,
       followingIds: followingIds ?? this.followingIds,
+      followerCount: followerCount ?? this.followerCount,
+      followingCount: followingCount ?? this.followingCount,
       createdAt: createdAt ?? this.createdAt,
       updatedAt: updatedAt ?? this.updatedAt,
       artistName: artistName ?? this.artistName,
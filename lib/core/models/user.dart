@@ -17,6 +17,8 @@ class User extends Equatable {
   final bool isVerified;
   final List<int> followerIds;
   final List<int> followingIds;
+  final int followerCount;
+  final int followingCount;
   final DateTime? createdAt;
   final DateTime? updatedAt;
 
@@ -37,6 +39,8 @@ class User extends Equatable {
     this.isVerified = false,
     this.followerIds = const [],
     this.followingIds = const [],
+    this.followerCount = 0,
+    this.followingCount = 0,
     this.createdAt,
     this.updatedAt,
   });
@@ -49,6 +53,14 @@ class User extends Equatable {
   }
 
   factory User.fromJson(Map<String, dynamic> json) {
+    final followerIds = (json['followerIds'] as List<dynamic>?)
+            ?.map((e) => e as int)
+            .toList() ??
+        <int>[];
+    final followingIds = (json['followingIds'] as List<dynamic>?)
+            ?.map((e) => e as int)
+            .toList() ??
+        <int>[];
     return User(
       id: json['id'] as int,
       uid: json['uid'] as String?,
@@ -64,14 +76,10 @@ class User extends Equatable {
       role: json['role'] as String,
       isActive: json['isActive'] as bool? ?? true,
       isVerified: json['isVerified'] as bool? ?? false,
-      followerIds: (json['followerIds'] as List<dynamic>?)
-              ?.map((e) => e as int)
-              .toList() ??
-          [],
-      followingIds: (json['followingIds'] as List<dynamic>?)
-              ?.map((e) => e as int)
-              .toList() ??
-          [],
+      followerIds: followerIds,
+      followingIds: followingIds,
+      followerCount: json['followerCount'] as int? ?? followerIds.length,
+      followingCount: json['followingCount'] as int? ?? followingIds.length,
       createdAt: json['createdAt'] != null
           ? DateTime.parse(json['createdAt'] as String)
           : null,
@@ -99,6 +107,8 @@ class User extends Equatable {
       'isVerified': isVerified,
       'followerIds': followerIds,
       'followingIds': followingIds,
+      'followerCount': followerCount,
+      'followingCount': followingCount,
       'createdAt': createdAt?.toIso8601String(),
       'updatedAt': updatedAt?.toIso8601String(),
     };
@@ -121,6 +131,8 @@ class User extends Equatable {
     bool? isVerified,
     List<int>? followerIds,
     List<int>? followingIds,
+    int? followerCount,
+    int? followingCount,
     DateTime? createdAt,
     DateTime? updatedAt,
   }) {
@@ -141,6 +153,8 @@ class User extends Equatable {
       isVerified: isVerified ?? this.isVerified,
       followerIds: followerIds ?? this.followerIds,
       followingIds: followingIds ?? this.followingIds,
+      followerCount: followerCount ?? this.followerCount,
+      followingCount: followingCount ?? this.followingCount,
       createdAt: createdAt ?? this.createdAt,
       updatedAt: updatedAt ?? this.updatedAt,
     );
@@ -164,6 +178,8 @@ class User extends Equatable {
         isVerified,
         followerIds,
         followingIds,
+        followerCount,
+        followingCount,
         createdAt,
         updatedAt,
       ];
@@ -41,7 +41,7 @@ class _AdminAlbumsScreenState extends State<AdminAlbumsScreen> {
     });
 
     try {
-      final response = await _musicService.getAllAlbums();
+      final response = await _musicService.getAllAlbums(allPages: true);
       if (response.success && response.data != null) {
         setState(() {
           _albums = response.data!;
@@ -41,7 +41,7 @@ class _AdminGenresScreenState extends State<AdminGenresScreen> {
     });
 
     try {
-      final response = await _musicService.getAllGenres();
+      final response = await _musicService.getAllGenres(allPages: true);
       if (response.success && response.data != null) {
         setState(() {
           _genres = response.data!;
@@ -41,7 +41,7 @@ class _AdminSongsScreenState extends State<AdminSongsScreen> {
     });
 
     try {
-      final response = await _musicService.getAllSongs();
+      final response = await _musicService.getAllSongs(allPages: true);
       if (response.success && response.data != null) {
         setState(() {
           _songs = response.data!;
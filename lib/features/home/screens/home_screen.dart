@@ -37,7 +37,7 @@ class _HomeScreenState extends State<HomeScreen> {
 
     final songsResponse = await _discoveryService.getTrendingSongs(limit: 10);
     final albumsResponse = await _discoveryService.getLatestReleases(limit: 10);
-    final genresResponse = await _musicService.getAllGenres();
+    final genresResponse = await _musicService.getAllGenres(allPages: true);
 
     if (songsResponse.success && songsResponse.data != null) {
       _featuredSongs = songsResponse.data!;
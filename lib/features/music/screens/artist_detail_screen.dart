@@ -27,6 +27,10 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
   Artist? _artist;
   List<Song> _songs = [];
   List<Album> _albums = [];
+  String? _songsCursor;
+  String? _albumsCursor;
+  bool _loadingMoreSongs = false;
+  bool _loadingMoreAlbums = false;
 
   bool _isLoading = true;
   bool _isFollowing = false;
@@ -62,12 +66,14 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
             await _musicService.getSongsByArtist(widget.artistId);
         if (songsResponse.success && songsResponse.data != null) {
           _songs = songsResponse.data!;
+          _songsCursor = songsResponse.nextCursor;
         }
 
         final albumsResponse =
             await _musicService.getAlbumsByArtist(widget.artistId);
         if (albumsResponse.success && albumsResponse.data != null) {
           _albums = albumsResponse.data!;
+          _albumsCursor = albumsResponse.nextCursor;
         }
 
         final authProvider = context.read<AuthProvider>();
@@ -85,6 +91,39 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
     }
   }
 
+  // Pide la siguiente página al llegar al final de la lista
+  Future<void> _loadMoreSongs() async {
+    if (_songsCursor == null || _loadingMoreSongs) return;
+    _loadingMoreSongs = true;
+    final response = await _musicService.getSongsByArtist(widget.artistId, cursor: _songsCursor);
+    if (!mounted) return;
+    setState(() {
+      _loadingMoreSongs = false;
+      if (response.success && response.data != null) {
+        _songs.addAll(response.data!);
+        _songsCursor = response.nextCursor;
+      } else {
+        _songsCursor = null;
+      }
+    });
+  }
+
+  Future<void> _loadMoreAlbums() async {
+    if (_albumsCursor == null || _loadingMoreAlbums) return;
+    _loadingMoreAlbums = true;
+    final response = await _musicService.getAlbumsByArtist(widget.artistId, cursor: _albumsCursor);
+    if (!mounted) return;
+    setState(() {
+      _loadingMoreAlbums = false;
+      if (response.success && response.data != null) {
+        _albums.addAll(response.data!);
+        _albumsCursor = response.nextCursor;
+      } else {
+        _albumsCursor = null;
+      }
+    });
+  }
+
   Future<void> _toggleFollow() async {
     final authProvider = context.read<AuthProvider>();
     if (!authProvider.isAuthenticated) {
@@ -259,7 +298,7 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
                         Column(
                           children: [
                             Text(
-                              '${_artist!.followerIds.length}',
+                              '${_artist!.followerCount}',
                               style: const TextStyle(
                                 fontSize: 18,
                                 fontWeight: FontWeight.bold,
@@ -275,7 +314,7 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
                         Column(
                           children: [
                             Text(
-                              '${_songs.length}',
+                              '${_songs.length}${_songsCursor != null ? '+' : ''}',
                               style: const TextStyle(
                                 fontSize: 18,
                                 fontWeight: FontWeight.bold,
@@ -291,7 +330,7 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
                         Column(
                           children: [
                             Text(
-                              '${_albums.length}',
+                              '${_albums.length}${_albumsCursor != null ? '+' : ''}',
                               style: const TextStyle(
                                 fontSize: 18,
                                 fontWeight: FontWeight.bold,
@@ -465,6 +504,7 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
       padding: const EdgeInsets.all(16),
       itemCount: _songs.length,
       itemBuilder: (context, index) {
+        if (index == _songs.length - 1) _loadMoreSongs();
         final song = _songs[index];
         return Card(
           child: ListTile(
@@ -506,6 +546,7 @@ class _ArtistDetailScreenState extends State<ArtistDetailScreen>
       padding: const EdgeInsets.all(16),
       itemCount: _albums.length,
       itemBuilder: (context, index) {
+        if (index == _albums.length - 1) _loadMoreAlbums();
         final album = _albums[index];
         return Card(
           child: ListTile(
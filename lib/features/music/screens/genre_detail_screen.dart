@@ -24,6 +24,10 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
   Genre? _genre;
   List<Song> _songs = [];
   List<Album> _albums = [];
+  String? _songsCursor;
+  String? _albumsCursor;
+  bool _loadingMoreSongs = false;
+  bool _loadingMoreAlbums = false;
 
   bool _isLoading = true;
   String? _error;
@@ -60,6 +64,7 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
             await _musicService.getSongsByGenre(widget.genreId);
         if (songsResponse.success && songsResponse.data != null) {
           _songs = songsResponse.data!;
+          _songsCursor = songsResponse.nextCursor;
         }
 
         // Load albums in this genre
@@ -67,6 +72,7 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
             await _musicService.getAlbumsByGenre(widget.genreId);
         if (albumsResponse.success && albumsResponse.data != null) {
           _albums = albumsResponse.data!;
+          _albumsCursor = albumsResponse.nextCursor;
         }
       } else {
         _error = genreResponse.error ?? 'Failed to load genre';
@@ -78,6 +84,39 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
     }
   }
 
+  // Pide la siguiente página al llegar al final de la lista
+  Future<void> _loadMoreSongs() async {
+    if (_songsCursor == null || _loadingMoreSongs) return;
+    _loadingMoreSongs = true;
+    final response = await _musicService.getSongsByGenre(widget.genreId, cursor: _songsCursor);
+    if (!mounted) return;
+    setState(() {
+      _loadingMoreSongs = false;
+      if (response.success && response.data != null) {
+        _songs.addAll(response.data!);
+        _songsCursor = response.nextCursor;
+      } else {
+        _songsCursor = null;
+      }
+    });
+  }
+
+  Future<void> _loadMoreAlbums() async {
+    if (_albumsCursor == null || _loadingMoreAlbums) return;
+    _loadingMoreAlbums = true;
+    final response = await _musicService.getAlbumsByGenre(widget.genreId, cursor: _albumsCursor);
+    if (!mounted) return;
+    setState(() {
+      _loadingMoreAlbums = false;
+      if (response.success && response.data != null) {
+        _albums.addAll(response.data!);
+        _albumsCursor = response.nextCursor;
+      } else {
+        _albumsCursor = null;
+      }
+    });
+  }
+
   @override
   Widget build(BuildContext context) {
     if (_isLoading) {
@@ -171,12 +210,12 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
                 Row(
                   children: [
                     Text(
-                      '${_songs.length} songs',
+                      '${_songs.length}${_songsCursor != null ? '+' : ''} songs',
                       style: TextStyle(color: AppTheme.textSecondary),
                     ),
                     const SizedBox(width: 16),
                     Text(
-                      '${_albums.length} albums',
+                      '${_albums.length}${_albumsCursor != null ? '+' : ''} albums',
                       style: TextStyle(color: AppTheme.textSecondary),
                     ),
                   ],
@@ -199,8 +238,8 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
             unselectedLabelColor: AppTheme.textSecondary,
             indicatorColor: AppTheme.primaryBlue,
             tabs: [
-              Tab(text: 'Songs (${_songs.length})'),
-              Tab(text: 'Albums (${_albums.length})'),
+              Tab(text: 'Songs (${_songs.length}${_songsCursor != null ? '+' : ''})'),
+              Tab(text: 'Albums (${_albums.length}${_albumsCursor != null ? '+' : ''})'),
             ],
           ),
           Expanded(
@@ -226,6 +265,7 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
       padding: const EdgeInsets.all(16),
       itemCount: _songs.length,
       itemBuilder: (context, index) {
+        if (index == _songs.length - 1) _loadMoreSongs();
         final song = _songs[index];
         return SongListItem(
           song: song,
@@ -246,6 +286,7 @@ class _GenreDetailScreenState extends State<GenreDetailScreen>
       padding: const EdgeInsets.all(16),
       itemCount: _albums.length,
       itemBuilder: (context, index) {
+        if (index == _albums.length - 1) _loadMoreAlbums();
         final album = _albums[index];
         return AlbumListItem(
           album: album,
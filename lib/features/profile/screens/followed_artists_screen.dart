@@ -17,6 +17,8 @@ class FollowedArtistsScreen extends StatefulWidget {
 class _FollowedArtistsScreenState extends State<FollowedArtistsScreen> {
   final UserService _userService = UserService();
   List<User> _artists = [];
+  String? _nextCursor;
+  bool _loadingMore = false;
   bool _isLoading = true;
   String? _error;
 
@@ -48,6 +50,7 @@ class _FollowedArtistsScreenState extends State<FollowedArtistsScreen> {
     if (response.success && response.data != null) {
       setState(() {
         _artists = response.data!;
+        _nextCursor = response.nextCursor;
         _isLoading = false;
       });
     } else {
@@ -58,6 +61,26 @@ class _FollowedArtistsScreenState extends State<FollowedArtistsScreen> {
     }
   }
 
+  // Pide la siguiente página al llegar al final de la lista
+  Future<void> _loadMoreArtists() async {
+    final userId =
+        Provider.of<AuthProvider>(context, listen: false).currentUser?.id;
+    if (userId == null || _nextCursor == null || _loadingMore) return;
+    _loadingMore = true;
+    final response =
+        await _userService.getFollowedArtists(userId, cursor: _nextCursor);
+    if (!mounted) return;
+    setState(() {
+      _loadingMore = false;
+      if (response.success && response.data != null) {
+        _artists.addAll(response.data!);
+        _nextCursor = response.nextCursor;
+      } else {
+        _nextCursor = null;
+      }
+    });
+  }
+
   Future<void> _unfollowArtist(User artist) async {
     final authProvider = Provider.of<AuthProvider>(context, listen: false);
     final userId = authProvider.currentUser?.id;
@@ -175,6 +198,7 @@ class _FollowedArtistsScreenState extends State<FollowedArtistsScreen> {
                         padding: const EdgeInsets.all(16),
                         itemCount: _artists.length,
                         itemBuilder: (context, index) {
+                          if (index == _artists.length - 1) _loadMoreArtists();
                           final artist = _artists[index];
                           return _buildArtistCard(artist, index);
                         },
@@ -263,7 +287,7 @@ class _FollowedArtistsScreenState extends State<FollowedArtistsScreen> {
                         ),
                         const SizedBox(width: 4),
                         Text(
-                          '${artist.followerIds.length} seguidores',
+                          '${artist.followerCount} seguidores',
                           style: Theme.of(context).textTheme.bodySmall?.copyWith(
                                 color: AppTheme.textGrey,
                               ),
@@ -123,7 +123,7 @@ class ProfileScreen extends StatelessWidget {
                 _buildStatItem(
                   context,
                   'Seguidores',
-                  '${user.followerIds.length}',
+                  '${user.followerCount}',
                 ),
                 Container(
                   width: 1,
@@ -133,7 +133,7 @@ class ProfileScreen extends StatelessWidget {
                 _buildStatItem(
                   context,
                   'Siguiendo',
-                  '${user.followingIds.length}',
+                  '${user.followingCount}',
                 ),
               ],
             ),
@@ -20,6 +20,10 @@ class _StoreScreenState extends State<StoreScreen>
 
   List<Song> _songs = [];
   List<Album> _albums = [];
+  String? _songsCursor;
+  String? _albumsCursor;
+  bool _loadingMoreSongs = false;
+  bool _loadingMoreAlbums = false;
   bool _isLoading = true;
 
   @override
@@ -43,15 +47,50 @@ class _StoreScreenState extends State<StoreScreen>
 
     if (songsResponse.success && songsResponse.data != null) {
       _songs = songsResponse.data!;
+      _songsCursor = songsResponse.nextCursor;
     }
 
     if (albumsResponse.success && albumsResponse.data != null) {
       _albums = albumsResponse.data!;
+      _albumsCursor = albumsResponse.nextCursor;
     }
 
     setState(() => _isLoading = false);
   }
 
+  // Pide la siguiente página al llegar al final de la lista
+  Future<void> _loadMoreSongs() async {
+    if (_songsCursor == null || _loadingMoreSongs) return;
+    _loadingMoreSongs = true;
+    final response = await _musicService.getAllSongs(cursor: _songsCursor);
+    if (!mounted) return;
+    setState(() {
+      _loadingMoreSongs = false;
+      if (response.success && response.data != null) {
+        _songs.addAll(response.data!);
+        _songsCursor = response.nextCursor;
+      } else {
+        _songsCursor = null;
+      }
+    });
+  }
+
+  Future<void> _loadMoreAlbums() async {
+    if (_albumsCursor == null || _loadingMoreAlbums) return;
+    _loadingMoreAlbums = true;
+    final response = await _musicService.getAllAlbums(cursor: _albumsCursor);
+    if (!mounted) return;
+    setState(() {
+      _loadingMoreAlbums = false;
+      if (response.success && response.data != null) {
+        _albums.addAll(response.data!);
+        _albumsCursor = response.nextCursor;
+      } else {
+        _albumsCursor = null;
+      }
+    });
+  }
+
   @override
   Widget build(BuildContext context) {
     return Column(
@@ -84,6 +123,7 @@ class _StoreScreenState extends State<StoreScreen>
                             padding: const EdgeInsets.all(16),
                             itemCount: _songs.length,
                             itemBuilder: (context, index) {
+                              if (index == _songs.length - 1) _loadMoreSongs();
                               return SongListItem(song: _songs[index]);
                             },
                           ),
@@ -97,6 +137,7 @@ class _StoreScreenState extends State<StoreScreen>
                             padding: const EdgeInsets.all(16),
                             itemCount: _albums.length,
                             itemBuilder: (context, index) {
+                              if (index == _albums.length - 1) _loadMoreAlbums();
                               return AlbumListItem(album: _albums[index]);
                             },
                           ),
@@ -51,12 +51,12 @@ class _StudioCatalogScreenState extends State<StudioCatalogScreen>
     try {
       final artistId = authProvider.currentUser!.id;
 
-      final songsResponse = await _musicService.getSongsByArtist(artistId);
+      final songsResponse = await _musicService.getSongsByArtist(artistId, allPages: true);
       if (songsResponse.success && songsResponse.data != null) {
         _songs = songsResponse.data!;
       }
 
-      final albumsResponse = await _musicService.getAlbumsByArtist(artistId);
+      final albumsResponse = await _musicService.getAlbumsByArtist(artistId, allPages: true);
       if (albumsResponse.success && albumsResponse.data != null) {
         _albums = albumsResponse.data!;
       }
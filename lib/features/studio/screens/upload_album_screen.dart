@@ -71,6 +71,7 @@ class _UploadAlbumScreenState extends State<UploadAlbumScreen> {
       final musicService = MusicService();
       final response = await musicService.getSongsByArtist(
         authProvider.currentUser!.id,
+        allPages: true,
       );
 
       if (!response.success || response.data == null) {
@@ -0,0 +1,32 @@
+package io.audira.catalog.config;
+
+import io.audira.catalog.service.AlbumService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recomputes every stored album price at startup, filling the column for albums created
+ * before prices were materialized and repairing any drift.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "catalog.album-price.recompute-on-startup", havingValue = "true", matchIfMissing = true)
+public class AlbumPriceMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AlbumPriceMigration.class);
+
+    private final AlbumService albumService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int updated = albumService.recomputeAllPrices();
+        if (updated > 0) {
+            logger.info("Recomputed the stored price of {} albums", updated);
+        }
+    }
+}
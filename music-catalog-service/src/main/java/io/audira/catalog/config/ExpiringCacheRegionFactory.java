@@ -0,0 +1,150 @@
+package io.audira.catalog.config;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hibernate second-level cache held in the service heap, with a time-to-live per region.
+ * <p>
+ * A region lives for {@code hibernate.cache.ttl-seconds.<region>} seconds, or
+ * {@code hibernate.cache.ttl-seconds.default}, and holds at most
+ * {@code hibernate.cache.max-entries} entries: when full, expired entries are purged and new
+ * keys are not cached until there is room again. The update timestamps region never expires,
+ * since the query cache relies on it to discard results of tables written since.
+ */
+public class ExpiringCacheRegionFactory extends RegionFactoryTemplate {
+
+    private static final String TTL_PREFIX = "hibernate.cache.ttl-seconds.";
+    private static final String MAX_ENTRIES = "hibernate.cache.max-entries";
+
+    private Map<String, Object> configValues = Map.of();
+    private int maxEntries;
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map<String, Object> configValues) {
+        this.configValues = Map.copyOf(configValues);
+        this.maxEntries = (int) setting(MAX_ENTRIES, 100_000);
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        configValues = Map.of();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return new ExpiringStorage(ttlNanos(regionConfig.getRegionName()), maxEntries);
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return new ExpiringStorage(ttlNanos(regionName), maxEntries);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return new ExpiringStorage(0, Integer.MAX_VALUE);
+    }
+
+    private long ttlNanos(String regionName) {
+        long seconds = setting(TTL_PREFIX + regionName, setting(TTL_PREFIX + "default", 600));
+        return TimeUnit.SECONDS.toNanos(seconds);
+    }
+
+    private long setting(String name, long defaultValue) {
+        Object value = configValues.get(name);
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+
+    private static final class ExpiringStorage implements DomainDataStorageAccess {
+
+        private record Entry(Object value, long expiresAt) {
+        }
+
+        private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+        // 0 keeps entries until they are evicted
+        private final long ttlNanos;
+        private final int maxEntries;
+
+        private ExpiringStorage(long ttlNanos, int maxEntries) {
+            this.ttlNanos = ttlNanos;
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (expired(entry, System.nanoTime())) {
+                entries.remove(key, entry);
+                return null;
+            }
+            return entry.value();
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            if (entries.size() >= maxEntries && !entries.containsKey(key)) {
+                purgeExpired();
+                if (entries.size() >= maxEntries) {
+                    return;
+                }
+            }
+            entries.put(key, new Entry(value, ttlNanos > 0 ? System.nanoTime() + ttlNanos : Long.MAX_VALUE));
+        }
+
+        @Override
+        public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void clearCache(SharedSessionContractImplementor session) {
+            entries.clear();
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return getFromCache(key, null) != null;
+        }
+
+        @Override
+        public void evictData() {
+            entries.clear();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            entries.remove(key);
+        }
+
+        @Override
+        public void release() {
+            entries.clear();
+        }
+
+        private void purgeExpired() {
+            long now = System.nanoTime();
+            entries.values().removeIf(entry -> expired(entry, now));
+        }
+
+        private static boolean expired(Entry entry, long now) {
+            return entry.expiresAt() != Long.MAX_VALUE && now - entry.expiresAt() > 0;
+        }
+    }
+}
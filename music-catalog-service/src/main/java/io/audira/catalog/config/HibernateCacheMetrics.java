@@ -0,0 +1,53 @@
+package io.audira.catalog.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Publishes hits, misses and puts of every second-level cache region as the standard
+ * {@code cache.gets} and {@code cache.puts} meters, tagged with the region name.
+ */
+@Component
+@RequiredArgsConstructor
+public class HibernateCacheMetrics implements MeterBinder {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            // The update timestamps region has no statistics of its own
+            if (statistics.getCacheRegionStatistics(region) == null) {
+                continue;
+            }
+            counter(registry, "cache.gets", region, "hit", statistics,
+                    s -> s.getCacheRegionStatistics(region).getHitCount());
+            counter(registry, "cache.gets", region, "miss", statistics,
+                    s -> s.getCacheRegionStatistics(region).getMissCount());
+            counter(registry, "cache.puts", region, null, statistics,
+                    s -> s.getCacheRegionStatistics(region).getPutCount());
+        }
+    }
+
+    private static void counter(MeterRegistry registry, String name, String region, String result,
+                                Statistics statistics, ToDoubleFunction<Statistics> count) {
+        FunctionCounter.Builder<Statistics> builder = FunctionCounter.builder(name, statistics, count)
+                .tag("cache", region)
+                .tag("cacheManager", "hibernate")
+                .description("Second-level cache " + name.substring("cache.".length()) + " of the region");
+        if (result != null) {
+            builder.tag("result", result);
+        }
+        builder.register(registry);
+    }
+}
@@ -0,0 +1,34 @@
+package io.audira.catalog.config;
+
+import io.audira.catalog.repository.SongPlayCountRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves play counts stored on the song rows by earlier versions into {@code song_play_counts}.
+ * Runs once: the legacy column is dropped afterwards.
+ * <p>
+ * It runs while the context starts, so before the web server takes requests that read the
+ * counts, and after the schema update has created the counter table.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class SongPlayCountMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(SongPlayCountMigration.class);
+
+    private final SongPlayCountRepository songPlayCountRepository;
+
+    @PostConstruct
+    public void migrate() {
+        int moved = songPlayCountRepository.migrateLegacyColumn();
+        if (moved >= 0) {
+            logger.info("Moved the play counts of {} songs to song_play_counts", moved);
+        }
+    }
+}
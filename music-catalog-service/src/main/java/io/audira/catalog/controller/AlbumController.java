@@ -19,30 +19,46 @@ public class AlbumController {
         return ResponseEntity.ok(albumService.createAlbum(album));
     }
 
+    @GetMapping("/count")
+    public ResponseEntity<Long> countAlbums() {
+        return ResponseEntity.ok(albumService.countAlbums());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Album> getAlbumById(@PathVariable Long id) {
         return ResponseEntity.ok(albumService.getAlbumById(id));
     }
 
+    // Listados paginados por cursor, de más reciente a más antiguo: limit se limita a 100 y la
+    // cabecera X-Next-Cursor trae el cursor de la página siguiente (no aparece en la última)
     @GetMapping
-    public ResponseEntity<List<Album>> getAllAlbums() {
-        return ResponseEntity.ok(albumService.getAllAlbums());
+    public ResponseEntity<List<Album>> getAllAlbums(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(albumService.getAllAlbums(cursor, limit));
     }
 
     @GetMapping("/artist/{artistId}")
-    public ResponseEntity<List<Album>> getAlbumsByArtist(@PathVariable Long artistId) {
-        return ResponseEntity.ok(albumService.getAlbumsByArtist(artistId));
+    public ResponseEntity<List<Album>> getAlbumsByArtist(
+            @PathVariable Long artistId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(albumService.getAlbumsByArtist(artistId, cursor, limit));
     }
 
     @GetMapping("/genre/{genreId}")
-    public ResponseEntity<List<Album>> getAlbumsByGenre(@PathVariable Long genreId) {
-        return ResponseEntity.ok(albumService.getAlbumsByGenre(genreId));
+    public ResponseEntity<List<Album>> getAlbumsByGenre(
+            @PathVariable Long genreId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(albumService.getAlbumsByGenre(genreId, cursor, limit));
     }
 
     @GetMapping("/latest-releases")
-    public ResponseEntity<List<Album>> getLatestReleases(@RequestParam(defaultValue = "20") int limit) {
-        List<Album> albums = albumService.getRecentAlbums();
-        return ResponseEntity.ok(albums.stream().limit(limit).toList());
+    public ResponseEntity<List<Album>> getLatestReleases(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return CursorResponses.of(albumService.getAllAlbums(cursor, limit));
     }
 
     @PutMapping("/{id}")
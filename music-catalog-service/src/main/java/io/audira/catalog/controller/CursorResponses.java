@@ -0,0 +1,26 @@
+package io.audira.catalog.controller;
+
+import io.audira.catalog.service.CursorPage;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Keyset pages keep the plain JSON array as body; the token of the next page travels in the
+ * {@value #NEXT_CURSOR_HEADER} header, which is absent on the last page.
+ */
+final class CursorResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private CursorResponses() {
+    }
+
+    static <T> ResponseEntity<List<T>> of(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.items());
+    }
+}
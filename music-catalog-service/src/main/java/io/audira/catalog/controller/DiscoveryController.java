@@ -1,11 +1,19 @@
 package io.audira.catalog.controller;
 
+import io.audira.catalog.dto.SuggestionDTO;
+import io.audira.catalog.dto.TrendingEntryDTO;
+import io.audira.catalog.dto.TrendingEventRequest;
 import io.audira.catalog.model.Album;
 import io.audira.catalog.model.Song;
 import io.audira.catalog.service.DiscoveryService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.List;
 
 @RestController
@@ -15,24 +23,93 @@ public class DiscoveryController {
 
     private final DiscoveryService discoveryService;
 
+    @Value("${internal.api-token:}")
+    private String internalApiToken;
+
+    // Resultados ordenados por relevancia; page empieza en 0 y size se limita a 100.
+    // Con fuzzy=true también se aceptan errores tipográficos en los términos
     @GetMapping("/search/songs")
-    public ResponseEntity<List<Song>> searchSongs(@RequestParam String query) {
-        return ResponseEntity.ok(discoveryService.searchSongs(query));
+    public ResponseEntity<List<Song>> searchSongs(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return ResponseEntity.ok(discoveryService.searchSongs(query, page, size, fuzzy));
     }
 
     @GetMapping("/search/albums")
-    public ResponseEntity<List<Album>> searchAlbums(@RequestParam String query) {
-        return ResponseEntity.ok(discoveryService.searchAlbums(query));
+    public ResponseEntity<List<Album>> searchAlbums(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        return ResponseEntity.ok(discoveryService.searchAlbums(query, page, size, fuzzy));
+    }
+
+    // Sugerencias para la caja de búsqueda: canciones, álbumes, artistas y géneros por prefijo
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SuggestionDTO>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(discoveryService.autocomplete(prefix, limit));
+    }
+
+    // Canciones más reproducidas de siempre, paginadas por cursor como los listados del catálogo
+    @GetMapping("/top/songs")
+    public ResponseEntity<List<Song>> getTopSongs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(discoveryService.getTopSongs(cursor, limit));
     }
 
+    // Rankings con decaimiento temporal, servidos desde memoria
     @GetMapping("/trending/songs")
-    public ResponseEntity<List<Song>> getTrendingSongs() {
-        return ResponseEntity.ok(discoveryService.getTrendingSongs());
+    public ResponseEntity<List<Song>> getTrendingSongs(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(discoveryService.getTrendingSongs(limit));
     }
 
     @GetMapping("/trending/albums")
-    public ResponseEntity<List<Album>> getTrendingAlbums() {
-        return ResponseEntity.ok(discoveryService.getTrendingAlbums());
+    public ResponseEntity<List<Album>> getTrendingAlbums(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(discoveryService.getTrendingAlbums(limit));
+    }
+
+    @GetMapping("/trending/artists")
+    public ResponseEntity<List<TrendingEntryDTO>> getTrendingArtists(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(discoveryService.getTrendingArtists(limit));
+    }
+
+    @GetMapping("/trending/genres")
+    public ResponseEntity<List<TrendingEntryDTO>> getTrendingGenres(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(discoveryService.getTrendingGenres(limit));
+    }
+
+    @GetMapping("/trending/genres/{genreId}/songs")
+    public ResponseEntity<List<Song>> getTrendingSongsInGenre(
+            @PathVariable Long genreId,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(discoveryService.getTrendingSongsInGenre(genreId, limit));
+    }
+
+    // Llamado por community-service y commerce-service con reproducciones, likes, valoraciones y compras
+    @PostMapping("/trending/events")
+    public ResponseEntity<Void> recordTrendingEvents(
+            @RequestHeader(value = "X-Internal-Token", required = false) String token,
+            @RequestBody List<@Valid TrendingEventRequest> events) {
+        // Sin token configurado se rechaza todo: nunca queda abierto por defecto
+        if (internalApiToken.isEmpty() || token == null || !MessageDigest.isEqual(
+                internalApiToken.getBytes(StandardCharsets.UTF_8), token.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        discoveryService.recordTrendingEvents(events);
+        return ResponseEntity.accepted().build();
+    }
+
+    // Canciones parecidas ("más como esta") según géneros, artistas y escuchas compartidas
+    @GetMapping("/similar/{songId}")
+    public ResponseEntity<List<Song>> getSimilarSongs(
+            @PathVariable Long songId,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(discoveryService.getSimilarSongs(songId, limit));
     }
 
     @GetMapping("/recommendations")
@@ -24,9 +24,13 @@ public class GenreController {
         return ResponseEntity.ok(genreService.getGenreById(id));
     }
 
+    // Listados paginados por cursor, de más reciente a más antiguo: limit se limita a 100 y la
+    // cabecera X-Next-Cursor trae el cursor de la página siguiente (no aparece en la última)
     @GetMapping
-    public ResponseEntity<List<Genre>> getAllGenres() {
-        return ResponseEntity.ok(genreService.getAllGenres());
+    public ResponseEntity<List<Genre>> getAllGenres(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(genreService.getAllGenres(cursor, limit));
     }
 
     @PutMapping("/{id}")
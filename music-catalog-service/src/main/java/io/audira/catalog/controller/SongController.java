@@ -19,19 +19,31 @@ public class SongController {
         return ResponseEntity.ok(songService.createSong(song));
     }
 
+    @GetMapping("/count")
+    public ResponseEntity<Long> countSongs() {
+        return ResponseEntity.ok(songService.countSongs());
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Song> getSongById(@PathVariable Long id) {
         return ResponseEntity.ok(songService.getSongById(id));
     }
 
+    // Listados paginados por cursor, de más reciente a más antiguo: limit se limita a 100 y la
+    // cabecera X-Next-Cursor trae el cursor de la página siguiente (no aparece en la última)
     @GetMapping
-    public ResponseEntity<List<Song>> getAllSongs() {
-        return ResponseEntity.ok(songService.getAllSongs());
+    public ResponseEntity<List<Song>> getAllSongs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(songService.getAllSongs(cursor, limit));
     }
 
     @GetMapping("/artist/{artistId}")
-    public ResponseEntity<List<Song>> getSongsByArtist(@PathVariable Long artistId) {
-        return ResponseEntity.ok(songService.getSongsByArtist(artistId));
+    public ResponseEntity<List<Song>> getSongsByArtist(
+            @PathVariable Long artistId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(songService.getSongsByArtist(artistId, cursor, limit));
     }
 
     @GetMapping("/album/{albumId}")
@@ -40,8 +52,11 @@ public class SongController {
     }
 
     @GetMapping("/genre/{genreId}")
-    public ResponseEntity<List<Song>> getSongsByGenre(@PathVariable Long genreId) {
-        return ResponseEntity.ok(songService.getSongsByGenre(genreId));
+    public ResponseEntity<List<Song>> getSongsByGenre(
+            @PathVariable Long genreId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        return CursorResponses.of(songService.getSongsByGenre(genreId, cursor, limit));
     }
 
     @GetMapping("/search")
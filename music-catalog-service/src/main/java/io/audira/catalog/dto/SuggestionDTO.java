@@ -0,0 +1,18 @@
+package io.audira.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One autocomplete completion; {@code type} is SONG, ALBUM, ARTIST or GENRE.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SuggestionDTO {
+    private String type;
+    private Long id;
+    private String text;
+    private Double score;
+}
@@ -0,0 +1,16 @@
+package io.audira.catalog.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A trending artist or genre and its current decayed score.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingEntryDTO {
+    private Long id;
+    private Double score;
+}
@@ -0,0 +1,38 @@
+package io.audira.catalog.dto;
+
+import io.audira.catalog.model.TrendingSignal;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A listener action on a song or album, possibly aggregated over a few seconds by the sender.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingEventRequest {
+
+    @NotNull
+    private TrendingSignal type;
+
+    @NotNull
+    @Pattern(regexp = "SONG|ALBUM")
+    private String entityType;
+
+    @NotNull
+    private Long entityId;
+
+    // Number of occurrences; defaults to 1
+    @Min(1)
+    private Integer count;
+
+    // Only for RATING, from 1 to 5
+    @Min(1)
+    @Max(5)
+    private Integer rating;
+}
@@ -2,10 +2,13 @@ package io.audira.catalog.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.HashSet;
@@ -24,14 +27,15 @@ public class Album extends Product {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "album_genres", joinColumns = @JoinColumn(name = "album_id"))
     @Column(name = "genre_id")
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "album-genres")
     @Builder.Default
     private Set<Long> genreIds = new HashSet<>();
 
     @Column(name = "release_date")
     private LocalDate releaseDate;
 
-    // Price is calculated based on song prices with discount
-    // Not stored directly - calculated when needed
+    // Price is the sum of the song prices minus this discount, stored by AlbumService
+    // whenever a song of the album changes price or moves in or out
     @Transient
     @Builder.Default
     private Double discountPercentage = 0.15; // 15% discount by default
@@ -2,16 +2,20 @@ package io.audira.catalog.model;
 
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
 
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "songs")
+@Table(name = "songs", indexes = @Index(name = "idx_songs_album_id", columnList = "album_id"))
 @DiscriminatorValue("SONG")
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -26,6 +30,7 @@ public class Song extends Product {
     @ElementCollection(fetch = FetchType.EAGER)
     @CollectionTable(name = "song_genres", joinColumns = @JoinColumn(name = "song_id"))
     @Column(name = "genre_id")
+    @Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "song-genres")
     @Builder.Default
     private Set<Long> genreIds = new HashSet<>();
 
@@ -41,9 +46,10 @@ public class Song extends Product {
     @Column(name = "track_number")
     private Integer trackNumber; // Only filled if part of an album
 
-    @Column(nullable = false)
+    // Number of times played, read from song_play_counts (see SongPlayCounter)
+    @Formula("(SELECT COALESCE(MAX(c.plays), 0) FROM song_play_counts c WHERE c.song_id = id)")
     @Builder.Default
-    private Long plays = 0L; // Number of times played
+    private Long plays = 0L;
 
     @Override
     public String getProductType() {
@@ -0,0 +1,25 @@
+package io.audira.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Aggregated play count of a song, kept apart from the song row so counting plays never
+ * rewrites or locks the song itself.
+ */
+@Entity
+@Table(name = "song_play_counts", indexes = @Index(name = "idx_song_play_counts_plays", columnList = "plays, song_id"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SongPlayCount {
+
+    @Id
+    @Column(name = "song_id")
+    private Long songId;
+
+    @Column(nullable = false)
+    private Long plays;
+}
@@ -0,0 +1,40 @@
+package io.audira.catalog.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodic snapshot of a decayed trending score, used to warm the in-memory engine on restart.
+ */
+@Entity
+@Table(name = "trending_scores",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"scope", "entity_id"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingScore {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // SONG, ALBUM, ARTIST or GENRE
+    @Column(nullable = false, length = 16)
+    private String scope;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    // Score as of takenAt
+    @Column(nullable = false)
+    private Double score;
+
+    @Column(name = "taken_at", nullable = false)
+    private LocalDateTime takenAt;
+}
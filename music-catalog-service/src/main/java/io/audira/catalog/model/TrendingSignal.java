@@ -0,0 +1,22 @@
+package io.audira.catalog.model;
+
+/**
+ * Listener actions that feed the trending scores, with the weight of a single occurrence.
+ */
+public enum TrendingSignal {
+    PLAY(1.0),
+    LIKE(3.0),
+    PURCHASE(10.0),
+    // Scaled by how far the rating is above 2 stars
+    RATING(2.0);
+
+    private final double weight;
+
+    TrendingSignal(double weight) {
+        this.weight = weight;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+}
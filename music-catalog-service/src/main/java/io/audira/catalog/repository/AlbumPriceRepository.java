@@ -0,0 +1,60 @@
+package io.audira.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Maintains the stored price of albums: the sum of their song prices minus the album discount.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AlbumPriceRepository {
+
+    private static final String SONGS_TOTAL =
+            "SELECT COALESCE(SUM(sp.price), 0) FROM songs s JOIN products sp ON sp.id = s.id WHERE s.album_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Recomputes the price of the given albums. Their rows are locked first, in id order, so
+     * concurrent song changes on the same album are summed one after the other.
+     */
+    @Transactional
+    public void refresh(Collection<Long> albumIds, BigDecimal discount) {
+        List<Long> ids = new TreeSet<>(albumIds.stream().filter(Objects::nonNull).toList()).stream().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        jdbcTemplate.queryForList("SELECT id FROM products WHERE id IN (" + placeholders + ") ORDER BY id FOR UPDATE",
+                Long.class, ids.toArray());
+
+        BigDecimal factor = BigDecimal.ONE.subtract(discount);
+        jdbcTemplate.batchUpdate("UPDATE products SET price = ROUND((" + SONGS_TOTAL + ") * ?, 2) WHERE id = ?",
+                ids.stream().map(id -> new Object[]{id, factor, id}).toList());
+    }
+
+    /**
+     * Recomputes every album price in one statement, for migrations and repairs.
+     *
+     * @return number of albums whose stored price changed
+     */
+    @Transactional
+    public int refreshAll(BigDecimal discount) {
+        return jdbcTemplate.update("UPDATE products p SET price = computed.price FROM ("
+                        + "SELECT a.id, ROUND(COALESCE(SUM(sp.price), 0) * ?, 2) AS price FROM albums a "
+                        + "LEFT JOIN songs s ON s.album_id = a.id LEFT JOIN products sp ON sp.id = s.id "
+                        + "GROUP BY a.id) computed "
+                        + "WHERE p.id = computed.id AND p.price IS DISTINCT FROM computed.price",
+                BigDecimal.ONE.subtract(discount));
+    }
+}
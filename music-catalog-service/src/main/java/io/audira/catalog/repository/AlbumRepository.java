@@ -1,23 +1,46 @@
 package io.audira.catalog.repository;
 
 import io.audira.catalog.model.Album;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AlbumRepository extends JpaRepository<Album, Long> {
     List<Album> findByArtistId(Long artistId);
-    List<Album> findByTitleContainingIgnoreCase(String title);
     List<Album> findTop20ByOrderByCreatedAtDesc();
 
-    @Query("SELECT a FROM Album a WHERE LOWER(a.title) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Album> searchByTitleOrArtist(String query);
-
-    @Query("SELECT a FROM Album a ORDER BY a.createdAt DESC")
-    List<Album> findRecentAlbums();
-
     @Query("SELECT a FROM Album a JOIN a.genreIds g WHERE g = :genreId")
     List<Album> findByGenreId(Long genreId);
+
+    // Keyset pages, newest first, of the rows after (createdAt, id); see PageCursor
+    @Query("SELECT a FROM Album a WHERE a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.id < :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Album> findPageAfter(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query("SELECT a FROM Album a WHERE a.artistId = :artistId " +
+           "AND a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.id < :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Album> findPageByArtistIdAfter(Long artistId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query("SELECT a FROM Album a JOIN a.genreIds g WHERE g = :genreId " +
+           "AND a.createdAt <= :createdAt AND (a.createdAt < :createdAt OR a.id < :id) " +
+           "ORDER BY a.createdAt DESC, a.id DESC")
+    List<Album> findPageByGenreIdAfter(Long genreId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // Rows of [id, title, artistId, createdAt]
+    @Query("SELECT a.id, a.title, a.artistId, a.createdAt FROM Album a")
+    List<Object[]> findSuggestionRows();
+
+    // Rows of [id, artistId]
+    @Query("SELECT a.id, a.artistId FROM Album a WHERE a.id IN :ids")
+    List<Object[]> findFactsByIds(Collection<Long> ids);
+
+    // Rows of [albumId, genreId]
+    @Query("SELECT a.id, g FROM Album a JOIN a.genreIds g WHERE a.id IN :ids")
+    List<Object[]> findGenreIdsByIds(Collection<Long> ids);
 }
@@ -1,18 +1,27 @@
 package io.audira.catalog.repository;
 
 import io.audira.catalog.model.Collaborator;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface CollaboratorRepository extends JpaRepository<Collaborator, Long> {
 
+    // Results come from the query cache until a collaborator is written
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Collaborator> findBySongId(Long songId);
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     List<Collaborator> findByArtistId(Long artistId);
 
+    List<Collaborator> findBySongIdIn(Collection<Long> songIds);
+
     List<Collaborator> findBySongIdAndArtistId(Long songId, Long artistId);
 
     void deleteBySongId(Long songId);
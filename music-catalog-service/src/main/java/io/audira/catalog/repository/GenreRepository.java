@@ -1,12 +1,31 @@
 package io.audira.catalog.repository;
 
 import io.audira.catalog.model.Genre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface GenreRepository extends JpaRepository<Genre, Long> {
+    // Results come from the query cache until a genre is written
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    List<Genre> findAll();
+
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Genre> findByName(String name);
+
     boolean existsByName(String name);
+
+    // Keyset pages, newest first, of the rows after (createdAt, id); see PageCursor
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT g FROM Genre g WHERE g.createdAt <= :createdAt AND (g.createdAt < :createdAt OR g.id < :id) " +
+           "ORDER BY g.createdAt DESC, g.id DESC")
+    List<Genre> findPageAfter(LocalDateTime createdAt, Long id, Pageable pageable);
 }
@@ -0,0 +1,76 @@
+package io.audira.catalog.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Applies play count deltas to {@code song_play_counts} as relative upserts, so concurrent
+ * writers and several service instances add up instead of overwriting each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SongPlayCountRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds the deltas in song id order, so concurrent flushes lock rows in the same order.
+     * Deltas of songs that no longer exist are dropped.
+     */
+    @Transactional
+    public void addAll(Map<Long, Long> deltas) {
+        List<Object[]> rows = new TreeMap<>(deltas).entrySet().stream()
+                .map(entry -> new Object[]{entry.getKey(), entry.getValue(), entry.getKey()})
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO song_play_counts (song_id, plays) "
+                + "SELECT ?, ? WHERE EXISTS (SELECT 1 FROM songs WHERE id = ?) "
+                + "ON CONFLICT (song_id) DO UPDATE SET plays = song_play_counts.plays + EXCLUDED.plays", rows);
+    }
+
+    public Map<Long, Long> findPlays(Collection<Long> songIds) {
+        Map<Long, Long> plays = new HashMap<>();
+        if (songIds.isEmpty()) {
+            return plays;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(songIds.size(), "?"));
+        jdbcTemplate.query("SELECT song_id, plays FROM song_play_counts WHERE song_id IN (" + placeholders + ")",
+                rs -> {
+                    plays.put(rs.getLong(1), rs.getLong(2));
+                }, songIds.toArray());
+        return plays;
+    }
+
+    public void delete(Long songId) {
+        jdbcTemplate.update("DELETE FROM song_play_counts WHERE song_id = ?", songId);
+    }
+
+    /**
+     * Moves the counts of the former {@code songs.plays} column into the counter table and
+     * drops the column, which songs no longer write.
+     *
+     * @return number of songs whose count was moved, or -1 if there was nothing to migrate
+     */
+    @Transactional
+    public int migrateLegacyColumn() {
+        Integer legacy = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_schema = current_schema() AND table_name = 'songs' AND column_name = 'plays'",
+                Integer.class);
+        if (legacy == null || legacy == 0) {
+            return -1;
+        }
+        int moved = jdbcTemplate.update("INSERT INTO song_play_counts (song_id, plays) "
+                + "SELECT id, plays FROM songs WHERE plays > 0 "
+                + "ON CONFLICT (song_id) DO UPDATE SET plays = song_play_counts.plays + EXCLUDED.plays");
+        jdbcTemplate.execute("ALTER TABLE songs DROP COLUMN plays");
+        return moved;
+    }
+}
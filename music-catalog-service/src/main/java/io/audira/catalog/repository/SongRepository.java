@@ -1,32 +1,78 @@
 package io.audira.catalog.repository;
 
 import io.audira.catalog.model.Song;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface SongRepository extends JpaRepository<Song, Long> {
     List<Song> findByArtistId(Long artistId);
     List<Song> findByAlbumId(Long albumId);
-    List<Song> findByTitleContainingIgnoreCase(String title);
     List<Song> findTop20ByOrderByCreatedAtDesc();
     List<Song> findByAlbumIdOrderByTrackNumberAsc(Long albumId);
 
-    @Query("SELECT s FROM Song s WHERE LOWER(s.title) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<Song> searchByTitleOrArtist(String query);
-
     @Query("SELECT s FROM Song s WHERE s.artistId = :artistId OR s.id IN " +
            "(SELECT c.songId FROM Collaborator c WHERE c.artistId = :artistId)")
     List<Song> findSongsByArtistIncludingCollaborations(Long artistId);
 
-    @Query("SELECT s FROM Song s ORDER BY s.createdAt DESC")
-    List<Song> findRecentSongs();
-
     @Query("SELECT s FROM Song s JOIN s.genreIds g WHERE g = :genreId")
     List<Song> findByGenreId(Long genreId);
 
-    @Query("SELECT s FROM Song s ORDER BY s.plays DESC")
-    List<Song> findTopByPlays();
+    // Keyset pages, newest first, of the rows after (createdAt, id); see PageCursor
+    @Query("SELECT s FROM Song s WHERE s.createdAt <= :createdAt AND (s.createdAt < :createdAt OR s.id < :id) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<Song> findPageAfter(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query("SELECT s FROM Song s WHERE s.artistId = :artistId " +
+           "AND s.createdAt <= :createdAt AND (s.createdAt < :createdAt OR s.id < :id) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<Song> findPageByArtistIdAfter(Long artistId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Query("SELECT s FROM Song s JOIN s.genreIds g WHERE g = :genreId " +
+           "AND s.createdAt <= :createdAt AND (s.createdAt < :createdAt OR s.id < :id) " +
+           "ORDER BY s.createdAt DESC, s.id DESC")
+    List<Song> findPageByGenreIdAfter(Long genreId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // Most played first, served from the play counter table through its (plays, song_id) index;
+    // unplayed songs are left out
+    @Query("SELECT s FROM Song s JOIN SongPlayCount c ON c.songId = s.id " +
+           "WHERE c.plays <= :plays AND (c.plays < :plays OR c.songId < :id) " +
+           "ORDER BY c.plays DESC, c.songId DESC")
+    List<Song> findTopByPlaysAfter(Long plays, Long id, Pageable pageable);
+
+    // Rows of [id, title, plays, createdAt], without lyrics or genres
+    @Query("SELECT s.id, s.title, COALESCE(c.plays, 0), s.createdAt FROM Song s " +
+           "LEFT JOIN SongPlayCount c ON c.songId = s.id")
+    List<Object[]> findSuggestionRows();
+
+    @Query("SELECT s.artistId, SUM(c.plays) FROM Song s JOIN SongPlayCount c ON c.songId = s.id GROUP BY s.artistId")
+    List<Object[]> sumPlaysByArtist();
+
+    @Query("SELECT s.albumId, SUM(c.plays) FROM Song s JOIN SongPlayCount c ON c.songId = s.id " +
+           "WHERE s.albumId IS NOT NULL GROUP BY s.albumId")
+    List<Object[]> sumPlaysByAlbum();
+
+    @Query("SELECT g, SUM(c.plays) FROM Song s JOIN s.genreIds g JOIN SongPlayCount c ON c.songId = s.id GROUP BY g")
+    List<Object[]> sumPlaysByGenre();
+
+    @Query("SELECT COALESCE(SUM(c.plays), 0) FROM Song s JOIN SongPlayCount c ON c.songId = s.id " +
+           "WHERE s.albumId = :albumId")
+    long sumPlaysByAlbumId(Long albumId);
+
+    // Rows of [id, albumId, artistId]
+    @Query("SELECT s.id, s.albumId, s.artistId FROM Song s WHERE s.id IN :ids")
+    List<Object[]> findFactsByIds(Collection<Long> ids);
+
+    // Rows of [songId, genreId]
+    @Query("SELECT s.id, g FROM Song s JOIN s.genreIds g WHERE s.id IN :ids")
+    List<Object[]> findGenreIdsByIds(Collection<Long> ids);
+
+    // Keyset page of song ids, in id order
+    @Query("SELECT s.id FROM Song s WHERE s.id > :afterId ORDER BY s.id")
+    List<Long> findIdsAfter(Long afterId, Pageable pageable);
 }
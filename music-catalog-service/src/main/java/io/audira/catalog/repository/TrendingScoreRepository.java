@@ -0,0 +1,44 @@
+package io.audira.catalog.repository;
+
+import io.audira.catalog.model.TrendingScore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reads and replaces the trending snapshot in bulk.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TrendingScoreRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public List<TrendingScore> findAll() {
+        return jdbcTemplate.query("SELECT scope, entity_id, score, taken_at FROM trending_scores",
+                (rs, row) -> TrendingScore.builder()
+                        .scope(rs.getString(1))
+                        .entityId(rs.getLong(2))
+                        .score(rs.getDouble(3))
+                        .takenAt(rs.getTimestamp(4).toLocalDateTime())
+                        .build());
+    }
+
+    /**
+     * Swaps the previous snapshot for the given scores in one transaction.
+     */
+    @Transactional
+    public void replaceAll(List<TrendingScore> scores, LocalDateTime takenAt) {
+        jdbcTemplate.update("DELETE FROM trending_scores");
+        Timestamp timestamp = Timestamp.valueOf(takenAt);
+        jdbcTemplate.batchUpdate("INSERT INTO trending_scores (scope, entity_id, score, taken_at) VALUES (?, ?, ?, ?)",
+                scores.stream()
+                        .map(score -> new Object[]{score.getScope(), score.getEntityId(), score.getScore(), timestamp})
+                        .toList());
+    }
+}
@@ -0,0 +1,42 @@
+package io.audira.catalog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs follow-up work on in-memory read structures once the current transaction commits,
+ * or right away outside a transaction.
+ */
+final class AfterCommit {
+
+    private static final Logger logger = LoggerFactory.getLogger(AfterCommit.class);
+
+    private AfterCommit() {
+    }
+
+    /**
+     * The write has already succeeded by then, so a failing action is logged instead of
+     * failing the request.
+     */
+    static void run(String description, Runnable action) {
+        Runnable guarded = () -> {
+            try {
+                action.run();
+            } catch (RuntimeException ex) {
+                logger.error("Failed to {}", description, ex);
+            }
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            guarded.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                guarded.run();
+            }
+        });
+    }
+}
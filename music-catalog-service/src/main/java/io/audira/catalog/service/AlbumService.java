@@ -1,21 +1,34 @@
 package io.audira.catalog.service;
 
 import io.audira.catalog.model.Album;
-import io.audira.catalog.model.Song;
+import io.audira.catalog.repository.AlbumPriceRepository;
 import io.audira.catalog.repository.AlbumRepository;
 import io.audira.catalog.repository.SongRepository;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 
 @Service
 @RequiredArgsConstructor
 public class AlbumService {
 
+    // Albums cost the sum of their songs minus this discount
+    public static final BigDecimal ALBUM_DISCOUNT = BigDecimal.valueOf(0.15);
+
     private final AlbumRepository albumRepository;
+    private final AlbumPriceRepository albumPriceRepository;
     private final SongRepository songRepository;
+    private final GlobalMetricsPublisher globalMetricsPublisher;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final TrendingService trendingService;
+    private final EntityManagerFactory entityManagerFactory;
+    private final FileReleasePublisher fileReleasePublisher;
 
     @Transactional
     public Album createAlbum(Album album) {
@@ -26,7 +39,12 @@ public class AlbumService {
         System.out.println("  coverImageUrl: " + album.getCoverImageUrl());
         System.out.println("  Artist ID: " + album.getArtistId());
 
+        // The price is derived from the songs, and a new album has none yet
+        album.setPrice(BigDecimal.ZERO);
         Album savedAlbum = albumRepository.save(album);
+        globalMetricsPublisher.publishAfterCommit(GlobalMetricsPublisher.Event.ALBUM_CREATED);
+        catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.ALBUM, savedAlbum.getId());
+        autocompleteIndex.albumChangedAfterCommit(savedAlbum.getId());
 
         System.out.println("Saved Album:");
         System.out.println("  ID: " + savedAlbum.getId());
@@ -37,51 +55,59 @@ public class AlbumService {
         return savedAlbum;
     }
 
-    public List<Album> getAllAlbums() {
-        return albumRepository.findAll();
+    /**
+     * Albums newest first, one keyset page at a time.
+     */
+    public CursorPage<Album> getAllAlbums(String cursor, Integer limit) {
+        return CursorPage.fetch(cursor, PageCursor.Order.CREATED_AT, limit,
+                (after, page) -> albumRepository.findPageAfter(after.createdAt(), after.id(), page),
+                AlbumService::cursorOf);
     }
 
     public Album getAlbumById(Long id) {
-        Album album = albumRepository.findById(id)
+        return albumRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Album not found with id: " + id));
-        // Calculate and set price based on songs
-        album.setPrice(calculateAlbumPrice(id));
-        return album;
     }
 
-    public BigDecimal calculateAlbumPrice(Long albumId) {
-        List<Song> songs = songRepository.findByAlbumId(albumId);
-        if (songs.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
-        BigDecimal totalSongsPrice = songs.stream()
-                .map(Song::getPrice)
-                .filter(price -> price != null)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        // Apply 15% discount by default
-        BigDecimal discount = BigDecimal.valueOf(0.15);
-        return totalSongsPrice.multiply(BigDecimal.ONE.subtract(discount));
+    /**
+     * Recomputes the stored price of albums whose songs changed price or moved between albums.
+     * Pending song changes are flushed first so the sum sees them.
+     */
+    @Transactional
+    public void refreshPrices(Collection<Long> albumIds) {
+        songRepository.flush();
+        albumPriceRepository.refresh(albumIds, ALBUM_DISCOUNT);
+        // Prices are written with plain SQL, which the second-level cache does not see
+        List<Long> ids = albumIds.stream().filter(Objects::nonNull).toList();
+        AfterCommit.run("evict the cached album prices",
+                () -> ids.forEach(id -> entityManagerFactory.getCache().evict(Album.class, id)));
     }
 
-    public List<Album> getAlbumsByArtist(Long artistId) {
-        return albumRepository.findByArtistId(artistId);
+    /**
+     * @return number of albums whose stored price changed
+     */
+    @Transactional
+    public int recomputeAllPrices() {
+        int updated = albumPriceRepository.refreshAll(ALBUM_DISCOUNT);
+        AfterCommit.run("evict the cached album prices", () -> entityManagerFactory.getCache().evict(Album.class));
+        return updated;
     }
 
-    public List<Album> getAlbumsByGenre(Long genreId) {
-        List<Album> albums = albumRepository.findByGenreId(genreId);
-        // Calculate prices for each album
-        albums.forEach(album -> album.setPrice(calculateAlbumPrice(album.getId())));
-        return albums;
+    public CursorPage<Album> getAlbumsByArtist(Long artistId, String cursor, Integer limit) {
+        return CursorPage.fetch(cursor, PageCursor.Order.CREATED_AT, limit,
+                (after, page) -> albumRepository.findPageByArtistIdAfter(artistId, after.createdAt(), after.id(), page),
+                AlbumService::cursorOf);
     }
 
-    public List<Album> searchAlbumsByTitle(String title) {
-        return albumRepository.findByTitleContainingIgnoreCase(title);
+    public CursorPage<Album> getAlbumsByGenre(Long genreId, String cursor, Integer limit) {
+        return CursorPage.fetch(cursor, PageCursor.Order.CREATED_AT, limit,
+                (after, page) -> albumRepository.findPageByGenreIdAfter(genreId, after.createdAt(), after.id(), page),
+                AlbumService::cursorOf);
     }
 
-    public List<Album> getRecentAlbums() {
-        return albumRepository.findRecentAlbums();
+    public List<Album> searchAlbumsByTitle(String title) {
+        List<Long> ids = catalogSearchIndex.search(CatalogSearchIndex.Type.ALBUM, title, 0, DiscoveryService.MAX_PAGE_SIZE);
+        return CatalogSearchIndex.inRankOrder(ids, albumRepository.findAllById(ids));
     }
 
     @Transactional
@@ -94,6 +120,7 @@ public class AlbumService {
         System.out.println("Album ID: " + id);
         System.out.println("Received coverImageUrl: " + albumDetails.getCoverImageUrl());
         System.out.println("Current coverImageUrl: " + album.getCoverImageUrl());
+        String previousCoverImageUrl = album.getCoverImageUrl();
 
         // Update Product fields (inherited from Product)
         if (albumDetails.getTitle() != null && !albumDetails.getTitle().isEmpty()) {
@@ -122,12 +149,15 @@ public class AlbumService {
             album.setReleaseDate(albumDetails.getReleaseDate());
         }
 
-        // Allow manual price override
-        if (albumDetails.getPrice() != null) {
-            album.setPrice(albumDetails.getPrice());
-        }
+        // The price is not editable: it is kept in sync with the songs of the album
 
         Album savedAlbum = albumRepository.save(album);
+        catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.ALBUM, id);
+        autocompleteIndex.albumChangedAfterCommit(id);
+        trendingService.forgetAfterCommit(TrendingService.Scope.ALBUM, id, false);
+        if (!Objects.equals(previousCoverImageUrl, savedAlbum.getCoverImageUrl())) {
+            fileReleasePublisher.releaseAfterCommit(previousCoverImageUrl);
+        }
         System.out.println("Saved coverImageUrl: " + savedAlbum.getCoverImageUrl());
         System.out.println("=======================");
 
@@ -136,9 +166,21 @@ public class AlbumService {
 
     @Transactional
     public void deleteAlbum(Long id) {
-        if (!albumRepository.existsById(id)) {
-            throw new IllegalArgumentException("Album not found with id: " + id);
-        }
-        albumRepository.deleteById(id);
+        Album album = albumRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Album not found with id: " + id));
+        albumRepository.delete(album);
+        fileReleasePublisher.releaseAfterCommit(album.getCoverImageUrl());
+        globalMetricsPublisher.publishAfterCommit(GlobalMetricsPublisher.Event.ALBUM_DELETED);
+        catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.ALBUM, id);
+        autocompleteIndex.albumChangedAfterCommit(id);
+        trendingService.forgetAfterCommit(TrendingService.Scope.ALBUM, id, true);
+    }
+
+    public long countAlbums() {
+        return albumRepository.count();
+    }
+
+    private static PageCursor cursorOf(Album album) {
+        return PageCursor.ofCreatedAt(album.getCreatedAt(), album.getId());
     }
 }
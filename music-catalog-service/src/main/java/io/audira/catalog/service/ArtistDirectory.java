@@ -0,0 +1,116 @@
+package io.audira.catalog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Display names of artists, which live in community-service, cached for the search structures.
+ */
+@Component
+public class ArtistDirectory {
+
+    private static final Logger logger = LoggerFactory.getLogger(ArtistDirectory.class);
+
+    private record UserSummary(Long id, String username, String artistName, String role) {
+    }
+
+    private final RestTemplate restTemplate;
+    private final String usersUrl;
+    private final ConcurrentHashMap<Long, String> names = new ConcurrentHashMap<>();
+
+    public ArtistDirectory(RestTemplate restTemplate,
+                           @Value("${services.community-url:http://community-service}") String communityUrl) {
+        this.restTemplate = restTemplate;
+        this.usersUrl = communityUrl + "/api/users";
+    }
+
+    /**
+     * @return the cached name, or {@code null} if the artist has not been resolved yet
+     */
+    public String cachedName(Long artistId) {
+        return artistId == null ? null : names.get(artistId);
+    }
+
+    /**
+     * Returns the cached name, asking community-service on a miss.
+     */
+    public String nameOf(Long artistId) {
+        if (artistId == null) {
+            return null;
+        }
+        String cached = names.get(artistId);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            UserSummary user = restTemplate.getForObject(usersUrl + "/{id}", UserSummary.class, artistId);
+            String name = displayName(user);
+            if (name != null) {
+                names.put(artistId, name);
+            }
+            return name;
+        } catch (RestClientException ex) {
+            logger.warn("Could not resolve name of artist {}: {}", artistId, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Reloads every artist name in one call.
+     *
+     * @return ids of the artists whose name changed, or {@code null} if community-service is unreachable
+     */
+    public Set<Long> refresh() {
+        List<UserSummary> users;
+        try {
+            users = restTemplate.exchange(usersUrl, HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<UserSummary>>() {
+                    }).getBody();
+        } catch (RestClientException ex) {
+            logger.warn("Could not load artist names: {}", ex.getMessage());
+            return null;
+        }
+        Map<Long, String> loaded = new HashMap<>();
+        if (users != null) {
+            users.stream()
+                    .filter(user -> "ARTIST".equals(user.role()))
+                    .forEach(user -> {
+                        String name = displayName(user);
+                        if (name != null) {
+                            loaded.put(user.id(), name);
+                        }
+                    });
+        }
+        Set<Long> changed = new HashSet<>();
+        loaded.forEach((id, name) -> {
+            if (!Objects.equals(names.put(id, name), name)) {
+                changed.add(id);
+            }
+        });
+        return changed;
+    }
+
+    private static String displayName(UserSummary user) {
+        if (user == null) {
+            return null;
+        }
+        if (user.artistName() != null && !user.artistName().isBlank()) {
+            return user.artistName();
+        }
+        return user.username();
+    }
+}
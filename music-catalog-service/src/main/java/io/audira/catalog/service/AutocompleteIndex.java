@@ -0,0 +1,464 @@
+package io.audira.catalog.service;
+
+import io.audira.catalog.dto.SuggestionDTO;
+import io.audira.catalog.model.Album;
+import io.audira.catalog.model.Genre;
+import io.audira.catalog.model.Song;
+import io.audira.catalog.repository.AlbumRepository;
+import io.audira.catalog.repository.GenreRepository;
+import io.audira.catalog.repository.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Prefix completions over song, album, artist and genre names, kept in a ternary search tree.
+ * <p>
+ * Every node stores the best weight in its subtree, so the top-k completions of a prefix are
+ * found best-first without visiting the rest of the subtree. Names are keyed from each word,
+ * so "rhap" also completes "Bohemian Rhapsody". Weights combine plays with a recency boost and
+ * are refreshed by a periodic rebuild; catalog writes update the tree incrementally.
+ */
+@Component
+public class AutocompleteIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    public static final int MAX_LIMIT = 20;
+
+    private static final int MAX_KEY_LENGTH = 64;
+    private static final int MAX_WORD_KEYS = 8;
+    private static final double TRENDING_BOOST = 3.0;
+    private static final double TRENDING_HALF_LIFE_DAYS = 14.0;
+
+    public enum Kind {
+        SONG,
+        ALBUM,
+        ARTIST,
+        GENRE
+    }
+
+    private record Entry(Kind kind, long id, String text, double weight) {
+    }
+
+    private record Registration(Entry entry, List<String> keys) {
+    }
+
+    // Either a subtree to expand or a completion to emit, ordered by the best weight it can yield
+    private record Candidate(double bound, Node node, Entry entry) {
+    }
+
+    private static final class Node {
+        final char c;
+        Node lo;
+        Node eq;
+        Node hi;
+        List<Entry> entries;
+        double max = Double.NEGATIVE_INFINITY;
+
+        Node(char c) {
+            this.c = c;
+        }
+    }
+
+    private static final class Tree {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<String, Registration> registrations = new HashMap<>();
+        Node root;
+    }
+
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final GenreRepository genreRepository;
+    private final ArtistDirectory artistDirectory;
+
+    private volatile Tree tree = new Tree();
+
+    // Changes applied while a rebuild is reading the database, replayed on the rebuilt tree
+    private final Object rebuildMonitor = new Object();
+    private List<Consumer<Tree>> pendingDuringRebuild;
+
+    public AutocompleteIndex(SongRepository songRepository,
+                             AlbumRepository albumRepository,
+                             GenreRepository genreRepository,
+                             ArtistDirectory artistDirectory) {
+        this.songRepository = songRepository;
+        this.albumRepository = albumRepository;
+        this.genreRepository = genreRepository;
+        this.artistDirectory = artistDirectory;
+    }
+
+    public List<SuggestionDTO> complete(String prefix, int limit) {
+        String key = normalize(prefix);
+        int k = Math.min(Math.max(limit, 1), MAX_LIMIT);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        Tree current = tree;
+        current.lock.readLock().lock();
+        try {
+            Node node = find(current.root, key);
+            if (node == null) {
+                return List.of();
+            }
+            PriorityQueue<Candidate> queue = new PriorityQueue<>(
+                    Comparator.comparingDouble(Candidate::bound).reversed());
+            offerEntries(queue, node);
+            offerNode(queue, node.eq);
+
+            List<SuggestionDTO> results = new ArrayList<>(k);
+            Set<String> seen = new HashSet<>();
+            while (!queue.isEmpty() && results.size() < k) {
+                Candidate candidate = queue.poll();
+                if (candidate.entry() != null) {
+                    Entry entry = candidate.entry();
+                    if (seen.add(registrationKey(entry.kind(), entry.id()))) {
+                        results.add(new SuggestionDTO(entry.kind().name(), entry.id(), entry.text(), entry.weight()));
+                    }
+                } else {
+                    Node expanded = candidate.node();
+                    offerEntries(queue, expanded);
+                    offerNode(queue, expanded.lo);
+                    offerNode(queue, expanded.eq);
+                    offerNode(queue, expanded.hi);
+                }
+            }
+            return results;
+        } finally {
+            current.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Re-reads a song once the current transaction commits, so a renamed title completes
+     * under its new name only.
+     */
+    public void songChangedAfterCommit(Long songId) {
+        AfterCommit.run("update the autocomplete index", () -> {
+            Song song = songRepository.findById(songId).orElse(null);
+            if (song == null) {
+                apply(target -> unregister(target, Kind.SONG, songId));
+                return;
+            }
+            Entry entry = new Entry(Kind.SONG, songId, song.getTitle(),
+                    weight(song.getPlays(), song.getCreatedAt()));
+            String artistName = artistDirectory.nameOf(song.getArtistId());
+            apply(target -> {
+                register(target, entry);
+                if (artistName != null && !target.registrations.containsKey(
+                        registrationKey(Kind.ARTIST, song.getArtistId()))) {
+                    register(target, new Entry(Kind.ARTIST, song.getArtistId(), artistName, 0.0));
+                }
+            });
+        });
+    }
+
+    public void albumChangedAfterCommit(Long albumId) {
+        AfterCommit.run("update the autocomplete index", () -> {
+            Album album = albumRepository.findById(albumId).orElse(null);
+            if (album == null) {
+                apply(target -> unregister(target, Kind.ALBUM, albumId));
+                return;
+            }
+            Entry entry = new Entry(Kind.ALBUM, albumId, album.getTitle(),
+                    weight(songRepository.sumPlaysByAlbumId(albumId), album.getCreatedAt()));
+            apply(target -> register(target, entry));
+        });
+    }
+
+    public void genreChangedAfterCommit(Long genreId) {
+        AfterCommit.run("update the autocomplete index", () -> {
+            Genre genre = genreRepository.findById(genreId).orElse(null);
+            apply(target -> {
+                Registration previous = target.registrations.get(registrationKey(Kind.GENRE, genreId));
+                if (genre == null) {
+                    unregister(target, Kind.GENRE, genreId);
+                } else {
+                    double weight = previous != null ? previous.entry().weight() : 0.0;
+                    register(target, new Entry(Kind.GENRE, genreId, genre.getName(), weight));
+                }
+            });
+        });
+    }
+
+    /**
+     * Rebuilds the whole tree from the database, which also refreshes the play-based weights.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${search.autocomplete.rebuild-interval-ms:300000}",
+            fixedDelayString = "${search.autocomplete.rebuild-interval-ms:300000}")
+    public void rebuild() {
+        long started = System.nanoTime();
+        synchronized (rebuildMonitor) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        Tree rebuilt = new Tree();
+        boolean complete = false;
+        try {
+            List<Entry> entries = loadEntries();
+            Map<String, List<Entry>> byKey = new HashMap<>();
+            for (Entry entry : entries) {
+                List<String> keys = keysOf(entry.text());
+                rebuilt.registrations.put(registrationKey(entry.kind(), entry.id()), new Registration(entry, keys));
+                keys.forEach(key -> byKey.computeIfAbsent(key, ignored -> new ArrayList<>()).add(entry));
+            }
+            // Inserting sorted keys median-first keeps the tree balanced
+            List<String> sorted = new ArrayList<>(byKey.keySet());
+            sorted.sort(null);
+            insertBalanced(rebuilt, sorted, byKey, 0, sorted.size() - 1);
+            complete = true;
+        } finally {
+            synchronized (rebuildMonitor) {
+                List<Consumer<Tree>> pending = pendingDuringRebuild;
+                pendingDuringRebuild = null;
+                // A failed rebuild keeps serving the previous tree
+                if (complete) {
+                    pending.forEach(change -> change.accept(rebuilt));
+                    tree = rebuilt;
+                }
+            }
+        }
+        logger.info("Autocomplete index built: {} names in {} ms", rebuilt.registrations.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private List<Entry> loadEntries() {
+        List<Entry> entries = new ArrayList<>();
+        for (Object[] row : songRepository.findSuggestionRows()) {
+            entries.add(new Entry(Kind.SONG, (Long) row[0], (String) row[1],
+                    weight((Long) row[2], (LocalDateTime) row[3])));
+        }
+
+        Map<Long, Long> albumPlays = sums(songRepository.sumPlaysByAlbum());
+        Map<Long, Long> artistPlays = sums(songRepository.sumPlaysByArtist());
+        for (Object[] row : albumRepository.findSuggestionRows()) {
+            Long albumId = (Long) row[0];
+            entries.add(new Entry(Kind.ALBUM, albumId, (String) row[1],
+                    weight(albumPlays.getOrDefault(albumId, 0L), (LocalDateTime) row[3])));
+            artistPlays.putIfAbsent((Long) row[2], 0L);
+        }
+
+        artistPlays.forEach((artistId, plays) -> {
+            String name = artistDirectory.cachedName(artistId);
+            if (name != null) {
+                entries.add(new Entry(Kind.ARTIST, artistId, name, weight(plays, null)));
+            }
+        });
+
+        Map<Long, Long> genrePlays = sums(songRepository.sumPlaysByGenre());
+        for (Genre genre : genreRepository.findAll()) {
+            entries.add(new Entry(Kind.GENRE, genre.getId(), genre.getName(),
+                    weight(genrePlays.getOrDefault(genre.getId(), 0L), null)));
+        }
+        return entries;
+    }
+
+    private void apply(Consumer<Tree> change) {
+        synchronized (rebuildMonitor) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+            change.accept(tree);
+        }
+    }
+
+    private static void register(Tree target, Entry entry) {
+        List<String> keys = keysOf(entry.text());
+        target.lock.writeLock().lock();
+        try {
+            Registration previous = target.registrations.put(registrationKey(entry.kind(), entry.id()),
+                    new Registration(entry, keys));
+            if (previous != null) {
+                for (String key : previous.keys()) {
+                    target.root = remove(target.root, key, 0, previous.entry());
+                }
+            }
+            for (String key : keys) {
+                target.root = insert(target.root, key, 0, entry);
+            }
+        } finally {
+            target.lock.writeLock().unlock();
+        }
+    }
+
+    private static void unregister(Tree target, Kind kind, long id) {
+        target.lock.writeLock().lock();
+        try {
+            Registration previous = target.registrations.remove(registrationKey(kind, id));
+            if (previous != null) {
+                for (String key : previous.keys()) {
+                    target.root = remove(target.root, key, 0, previous.entry());
+                }
+            }
+        } finally {
+            target.lock.writeLock().unlock();
+        }
+    }
+
+    private static void insertBalanced(Tree target, List<String> sorted, Map<String, List<Entry>> byKey,
+                                       int from, int to) {
+        if (from > to) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        String key = sorted.get(middle);
+        for (Entry entry : byKey.get(key)) {
+            target.root = insert(target.root, key, 0, entry);
+        }
+        insertBalanced(target, sorted, byKey, from, middle - 1);
+        insertBalanced(target, sorted, byKey, middle + 1, to);
+    }
+
+    private static Node insert(Node node, String key, int index, Entry entry) {
+        char c = key.charAt(index);
+        if (node == null) {
+            node = new Node(c);
+        }
+        if (c < node.c) {
+            node.lo = insert(node.lo, key, index, entry);
+        } else if (c > node.c) {
+            node.hi = insert(node.hi, key, index, entry);
+        } else if (index < key.length() - 1) {
+            node.eq = insert(node.eq, key, index + 1, entry);
+        } else {
+            if (node.entries == null) {
+                node.entries = new ArrayList<>(2);
+            }
+            node.entries.add(entry);
+        }
+        node.max = Math.max(node.max, entry.weight());
+        return node;
+    }
+
+    /**
+     * @return the node, or {@code null} once it holds no entries and no children
+     */
+    private static Node remove(Node node, String key, int index, Entry entry) {
+        if (node == null) {
+            return null;
+        }
+        char c = key.charAt(index);
+        if (c < node.c) {
+            node.lo = remove(node.lo, key, index, entry);
+        } else if (c > node.c) {
+            node.hi = remove(node.hi, key, index, entry);
+        } else if (index < key.length() - 1) {
+            node.eq = remove(node.eq, key, index + 1, entry);
+        } else if (node.entries != null) {
+            node.entries.remove(entry);
+            if (node.entries.isEmpty()) {
+                node.entries = null;
+            }
+        }
+        if (node.entries == null && node.lo == null && node.eq == null && node.hi == null) {
+            return null;
+        }
+        double max = Double.NEGATIVE_INFINITY;
+        if (node.entries != null) {
+            for (Entry remaining : node.entries) {
+                max = Math.max(max, remaining.weight());
+            }
+        }
+        for (Node child : new Node[]{node.lo, node.eq, node.hi}) {
+            if (child != null) {
+                max = Math.max(max, child.max);
+            }
+        }
+        node.max = max;
+        return node;
+    }
+
+    private static Node find(Node node, String prefix) {
+        int index = 0;
+        while (node != null) {
+            char c = prefix.charAt(index);
+            if (c < node.c) {
+                node = node.lo;
+            } else if (c > node.c) {
+                node = node.hi;
+            } else if (index == prefix.length() - 1) {
+                return node;
+            } else {
+                node = node.eq;
+                index++;
+            }
+        }
+        return null;
+    }
+
+    private static void offerEntries(PriorityQueue<Candidate> queue, Node node) {
+        if (node.entries != null) {
+            for (Entry entry : node.entries) {
+                queue.add(new Candidate(entry.weight(), null, entry));
+            }
+        }
+    }
+
+    private static void offerNode(PriorityQueue<Candidate> queue, Node node) {
+        if (node != null) {
+            queue.add(new Candidate(node.max, node, null));
+        }
+    }
+
+    /**
+     * The folded name, plus the remainder from each following word.
+     */
+    private static List<String> keysOf(String text) {
+        List<String> tokens = SearchText.tokenize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < tokens.size() && i < MAX_WORD_KEYS; i++) {
+            String key = truncate(String.join(" ", tokens.subList(i, tokens.size())));
+            if (!keys.contains(key)) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String prefix) {
+        return truncate(String.join(" ", SearchText.tokenize(prefix)));
+    }
+
+    private static String truncate(String key) {
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * Log-scaled plays plus a boost that halves every two weeks after release.
+     */
+    private static double weight(Long plays, LocalDateTime createdAt) {
+        double weight = Math.log1p(plays != null ? Math.max(plays, 0) : 0);
+        if (createdAt != null) {
+            double ageDays = Math.max(0, Duration.between(createdAt, LocalDateTime.now()).toHours() / 24.0);
+            weight += TRENDING_BOOST * Math.pow(0.5, ageDays / TRENDING_HALF_LIFE_DAYS);
+        }
+        return weight;
+    }
+
+    private static Map<Long, Long> sums(List<Object[]> rows) {
+        Map<Long, Long> sums = new HashMap<>();
+        rows.forEach(row -> sums.put((Long) row[0], row[1] != null ? ((Number) row[1]).longValue() : 0L));
+        return sums;
+    }
+
+    private static String registrationKey(Kind kind, long id) {
+        return kind.name() + ":" + id;
+    }
+}
@@ -0,0 +1,582 @@
+package io.audira.catalog.service;
+
+import io.audira.catalog.model.Album;
+import io.audira.catalog.model.Collaborator;
+import io.audira.catalog.model.Product;
+import io.audira.catalog.model.Song;
+import io.audira.catalog.repository.AlbumRepository;
+import io.audira.catalog.repository.CollaboratorRepository;
+import io.audira.catalog.repository.GenreRepository;
+import io.audira.catalog.repository.SongRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory inverted index over song and album titles, artist names, genres and lyrics.
+ * <p>
+ * Built once the application is ready and kept current from the catalog services after each
+ * commit. Every query term must match; the last one may still be being typed and also matches
+ * the terms it is a prefix of. Hits are ranked by a saturated, field-weighted term frequency
+ * times the term's inverse document frequency, then by plays and recency.
+ */
+@Component
+public class CatalogSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSearchIndex.class);
+
+    // Deepest result a query can page to
+    public static final int MAX_WINDOW = 10_000;
+
+    private static final float TITLE_WEIGHT = 3.0f;
+    private static final float ARTIST_WEIGHT = 2.0f;
+    private static final float GENRE_WEIGHT = 1.0f;
+    private static final float LYRICS_WEIGHT = 0.5f;
+    private static final float K1 = 1.2f;
+
+    // Score factor of a fuzzy match by edit distance
+    private static final double[] EDIT_PENALTY = {1.0, 0.6, 0.35};
+    private static final int MAX_EXPANSIONS = 16;
+
+    // Score factor of a completion of the last query term, and how many of the most frequent are kept
+    private static final double COMPLETION_PENALTY = 0.8;
+    private static final int MAX_COMPLETIONS = 64;
+
+    public enum Type {
+        SONG,
+        ALBUM
+    }
+
+    private record Doc(Map<String, Float> terms, long popularity) {
+    }
+
+    // A product's field-weighted terms, read from the database and not yet indexed
+    private record Entry(Long id, Map<String, Float> raw, long popularity) {
+    }
+
+    private record Hit(long id, double score, long popularity) {
+    }
+
+    // One query term: the postings it matches and the factor applied to their weights
+    private record Clause(Map<Long, Float> postings, double boost) {
+    }
+
+    // Ascending: the worst hit sorts first
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score)
+            .thenComparingLong(Hit::popularity)
+            .thenComparingLong(Hit::id);
+
+    private static final class Shard {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        // Sorted, so the completions of a prefix are one range
+        final NavigableMap<String, Map<Long, Float>> postings = new TreeMap<>();
+        final Map<Long, Doc> docs = new HashMap<>();
+        // Trigram to indexed terms, for fuzzy candidate generation
+        final Map<String, Set<String>> trigrams = new HashMap<>();
+    }
+
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final CollaboratorRepository collaboratorRepository;
+    private final GenreRepository genreRepository;
+    private final ArtistDirectory artistDirectory;
+
+    private final long fuzzyBudgetNanos;
+
+    private final ConcurrentHashMap<Long, String> genreNames = new ConcurrentHashMap<>();
+    private volatile Map<Type, Shard> shards = newShards();
+
+    // Changes applied while a rebuild is reading the database, replayed on the rebuilt shards
+    private final Object rebuildMonitor = new Object();
+    private List<Consumer<Map<Type, Shard>>> pendingDuringRebuild;
+
+    public CatalogSearchIndex(SongRepository songRepository,
+                              AlbumRepository albumRepository,
+                              CollaboratorRepository collaboratorRepository,
+                              GenreRepository genreRepository,
+                              ArtistDirectory artistDirectory,
+                              @Value("${search.fuzzy.budget-ms:20}") long fuzzyBudgetMs) {
+        this.songRepository = songRepository;
+        this.albumRepository = albumRepository;
+        this.collaboratorRepository = collaboratorRepository;
+        this.genreRepository = genreRepository;
+        this.artistDirectory = artistDirectory;
+        this.fuzzyBudgetNanos = TimeUnit.MILLISECONDS.toNanos(fuzzyBudgetMs);
+    }
+
+    /**
+     * @return ids of the matching products, best first, starting at {@code offset}
+     */
+    public List<Long> search(Type type, String query, int offset, int limit) {
+        List<String> tokens = SearchText.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0 || offset >= MAX_WINDOW) {
+            return List.of();
+        }
+        String typing = tokens.get(tokens.size() - 1);
+        List<String> terms = tokens.stream().distinct().filter(term -> !term.equals(typing)).toList();
+
+        Shard shard = shards.get(type);
+        shard.lock.readLock().lock();
+        try {
+            List<Clause> clauses = new ArrayList<>(terms.size() + 1);
+            for (String term : terms) {
+                Map<Long, Float> postings = shard.postings.get(term);
+                if (postings == null) {
+                    return List.of();
+                }
+                clauses.add(new Clause(postings, idf(shard, postings.size())));
+            }
+            Map<Long, Float> completed = completions(shard, typing);
+            if (completed.isEmpty()) {
+                return List.of();
+            }
+            clauses.add(new Clause(completed, 1.0));
+            return rank(shard, clauses, offset, limit);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Like {@link #search}, but each query term also matches indexed terms within a small edit
+     * distance: one edit for terms of 3 to 5 characters, two for longer ones. Candidates come
+     * from the trigram index and are verified with a bounded Levenshtein distance; closer
+     * matches score higher. Expansion stops at the latency budget, keeping what was found.
+     */
+    public List<Long> fuzzySearch(Type type, String query, int offset, int limit) {
+        List<String> tokens = SearchText.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0 || offset >= MAX_WINDOW) {
+            return List.of();
+        }
+        String typing = tokens.get(tokens.size() - 1);
+        List<String> terms = tokens.stream().distinct().toList();
+        long deadline = System.nanoTime() + fuzzyBudgetNanos;
+
+        Shard shard = shards.get(type);
+        shard.lock.readLock().lock();
+        try {
+            List<Clause> clauses = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Map<String, Integer> expansions = expand(shard, term, deadline);
+                // A document matching several spellings counts its best one
+                Map<Long, Float> merged = term.equals(typing) ? completions(shard, term) : new HashMap<>();
+                if (expansions.isEmpty() && merged.isEmpty()) {
+                    return List.of();
+                }
+                if (merged.isEmpty() && expansions.size() == 1 && expansions.containsKey(term)) {
+                    Map<Long, Float> postings = shard.postings.get(term);
+                    clauses.add(new Clause(postings, idf(shard, postings.size())));
+                    continue;
+                }
+                expansions.forEach((expansion, distance) -> {
+                    Map<Long, Float> postings = shard.postings.get(expansion);
+                    float boost = (float) (idf(shard, postings.size()) * EDIT_PENALTY[distance]);
+                    postings.forEach((id, weight) -> merged.merge(id, weight * boost, Math::max));
+                });
+                clauses.add(new Clause(merged, 1.0));
+            }
+            return rank(shard, clauses, offset, limit);
+        } finally {
+            shard.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Intersects the clauses, driven from the shortest one, and keeps the best
+     * {@code offset + limit} hits in a bounded heap.
+     */
+    private static List<Long> rank(Shard shard, List<Clause> clauses, int offset, int limit) {
+        int window = Math.min(offset + limit, MAX_WINDOW);
+        List<Clause> ordered = new ArrayList<>(clauses);
+        ordered.sort(Comparator.comparingInt(clause -> clause.postings().size()));
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(window + 1, RANKING);
+        Clause first = ordered.get(0);
+        candidates:
+        for (Map.Entry<Long, Float> entry : first.postings().entrySet()) {
+            long id = entry.getKey();
+            double score = first.boost() * entry.getValue();
+            for (int i = 1; i < ordered.size(); i++) {
+                Float weight = ordered.get(i).postings().get(id);
+                if (weight == null) {
+                    continue candidates;
+                }
+                score += ordered.get(i).boost() * weight;
+            }
+            Hit hit = new Hit(id, score, shard.docs.get(id).popularity());
+            if (top.size() < window) {
+                top.add(hit);
+            } else if (RANKING.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.add(hit);
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING.reversed());
+        return ranked.stream().skip(offset).map(Hit::id).toList();
+    }
+
+    /**
+     * The term and, scoring a little lower, the indexed terms it is a prefix of, so a word still
+     * being typed already matches: "bea" finds "beatles". Only the most frequent completions are
+     * kept, which bounds the work for one- or two-letter prefixes.
+     *
+     * @return per-document weights already scaled by each term's idf; a document matching
+     *         several of the terms counts its best one
+     */
+    private static Map<Long, Float> completions(Shard shard, String term) {
+        PriorityQueue<Map<Long, Float>> frequent = new PriorityQueue<>(MAX_COMPLETIONS + 1,
+                Comparator.comparingInt(Map::size));
+        for (Map<Long, Float> postings : shard.postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+            frequent.add(postings);
+            if (frequent.size() > MAX_COMPLETIONS) {
+                frequent.poll();
+            }
+        }
+
+        Map<Long, Float> merged = new HashMap<>();
+        for (Map<Long, Float> postings : frequent) {
+            float boost = (float) (idf(shard, postings.size()) * COMPLETION_PENALTY);
+            postings.forEach((id, weight) -> merged.merge(id, weight * boost, Math::max));
+        }
+        Map<Long, Float> exact = shard.postings.get(term);
+        if (exact != null) {
+            float boost = (float) idf(shard, exact.size());
+            exact.forEach((id, weight) -> merged.merge(id, weight * boost, Math::max));
+        }
+        return merged;
+    }
+
+    private static double idf(Shard shard, int df) {
+        int documents = shard.docs.size();
+        return Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+    }
+
+    /**
+     * @return indexed terms within the edit budget of {@code term}, with their distance
+     */
+    private static Map<String, Integer> expand(Shard shard, String term, long deadline) {
+        Map<String, Integer> expansions = new HashMap<>();
+        if (shard.postings.containsKey(term)) {
+            expansions.put(term, 0);
+        }
+        int maxEdits = term.length() < 3 ? 0 : term.length() <= 5 ? 1 : 2;
+        if (maxEdits == 0) {
+            return expansions;
+        }
+
+        // A term within k edits shares at least |grams| - 3k trigrams with the query term
+        List<String> grams = SearchText.trigrams(term);
+        int required = Math.max(1, grams.size() - 3 * maxEdits);
+        Map<String, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            Set<String> indexed = shard.trigrams.get(gram);
+            if (indexed == null) {
+                continue;
+            }
+            for (String candidate : indexed) {
+                if (Math.abs(candidate.length() - term.length()) <= maxEdits) {
+                    shared.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<Map.Entry<String, Integer>> ordered = new ArrayList<>(shared.entrySet());
+        ordered.removeIf(entry -> entry.getValue() < required);
+        ordered.sort(Map.Entry.<String, Integer>comparingByValue().reversed());
+        int checked = 0;
+        for (Map.Entry<String, Integer> entry : ordered) {
+            if (expansions.size() >= MAX_EXPANSIONS
+                    || (++checked % 64 == 0 && System.nanoTime() > deadline)) {
+                break;
+            }
+            String candidate = entry.getKey();
+            if (!expansions.containsKey(candidate)) {
+                int distance = SearchText.editDistance(term, candidate, maxEdits);
+                if (distance <= maxEdits) {
+                    expansions.put(candidate, distance);
+                }
+            }
+        }
+        return expansions;
+    }
+
+    /**
+     * Orders loaded entities as their ids were ranked, dropping ids that no longer exist.
+     */
+    public static <T extends Product> List<T> inRankOrder(List<Long> ids, Collection<T> entities) {
+        Map<Long, T> byId = entities.stream().collect(Collectors.toMap(Product::getId, Function.identity()));
+        return ids.stream().map(byId::get).filter(entity -> entity != null).toList();
+    }
+
+    /**
+     * Re-reads a product once the current transaction commits and indexes it, or drops it from
+     * the index if it was deleted.
+     */
+    public void reindexAfterCommit(Type type, Long id) {
+        AfterCommit.run("update the catalog search index", () -> {
+            List<Entry> entries = type == Type.SONG
+                    ? songRepository.findById(id).map(song -> songEntries(List.of(song), true)).orElse(List.of())
+                    : albumRepository.findById(id).map(album -> List.of(albumEntry(album, true))).orElse(List.of());
+            apply(target -> {
+                if (entries.isEmpty()) {
+                    remove(target.get(type), id);
+                } else {
+                    putAll(target.get(type), entries);
+                }
+            });
+        });
+    }
+
+    /**
+     * Re-indexes everything tagged with a genre after it is renamed or deleted.
+     */
+    public void genreChangedAfterCommit(Long genreId) {
+        AfterCommit.run("update the catalog search index", () -> {
+            genreRepository.findById(genreId).ifPresentOrElse(
+                    genre -> genreNames.put(genreId, genre.getName()),
+                    () -> genreNames.remove(genreId));
+            List<Entry> songs = songEntries(songRepository.findByGenreId(genreId), true);
+            List<Entry> albums = albumRepository.findByGenreId(genreId).stream()
+                    .map(album -> albumEntry(album, true)).toList();
+            apply(target -> {
+                putAll(target.get(Type.SONG), songs);
+                putAll(target.get(Type.ALBUM), albums);
+            });
+        });
+    }
+
+    /**
+     * Updates the popularity used to break ties, without re-reading the song.
+     */
+    public void updatePopularity(Long songId, long plays) {
+        apply(target -> {
+            Shard shard = target.get(Type.SONG);
+            shard.lock.writeLock().lock();
+            try {
+                shard.docs.computeIfPresent(songId,
+                        (id, doc) -> new Doc(doc.terms(), plays));
+            } finally {
+                shard.lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.nanoTime();
+        synchronized (rebuildMonitor) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        // Built aside and swapped in, so searches keep answering from the previous index
+        Map<Type, Shard> rebuilt = newShards();
+        boolean complete = false;
+        try {
+            genreNames.clear();
+            genreRepository.findAll().forEach(genre -> genreNames.put(genre.getId(), genre.getName()));
+            artistDirectory.refresh();
+
+            putAll(rebuilt.get(Type.SONG), songEntries(songRepository.findAll(), false));
+            putAll(rebuilt.get(Type.ALBUM), albumRepository.findAll().stream()
+                    .map(album -> albumEntry(album, false)).toList());
+            complete = true;
+        } finally {
+            synchronized (rebuildMonitor) {
+                List<Consumer<Map<Type, Shard>>> pending = pendingDuringRebuild;
+                pendingDuringRebuild = null;
+                // A failed rebuild keeps serving the previous index
+                if (complete) {
+                    pending.forEach(change -> change.accept(rebuilt));
+                    shards = rebuilt;
+                }
+            }
+        }
+
+        logger.info("Catalog search index built: {} songs, {} albums in {} ms",
+                rebuilt.get(Type.SONG).docs.size(), rebuilt.get(Type.ALBUM).docs.size(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Picks up artist renames and artists that could not be resolved at startup.
+     */
+    @Scheduled(initialDelayString = "${search.artist-refresh-interval-ms:600000}",
+            fixedDelayString = "${search.artist-refresh-interval-ms:600000}")
+    public void refreshArtistNames() {
+        Set<Long> changed = artistDirectory.refresh();
+        if (changed == null || changed.isEmpty()) {
+            return;
+        }
+        for (Long artistId : changed) {
+            List<Entry> songs = songEntries(songRepository.findSongsByArtistIncludingCollaborations(artistId), true);
+            List<Entry> albums = albumRepository.findByArtistId(artistId).stream()
+                    .map(album -> albumEntry(album, true)).toList();
+            apply(target -> {
+                putAll(target.get(Type.SONG), songs);
+                putAll(target.get(Type.ALBUM), albums);
+            });
+        }
+        logger.info("Re-indexed the catalog of {} renamed artists", changed.size());
+    }
+
+    /**
+     * Applies an index change to the live shards and, while a rebuild is reading the database,
+     * queues it for the rebuilt ones too, so it is not lost when they are swapped in. The
+     * change must only touch the index: database reads happen before.
+     */
+    private void apply(Consumer<Map<Type, Shard>> change) {
+        synchronized (rebuildMonitor) {
+            if (pendingDuringRebuild != null) {
+                pendingDuringRebuild.add(change);
+            }
+            change.accept(shards);
+        }
+    }
+
+    /**
+     * @param live resolve unknown artists through community-service; a rebuild uses the cache
+     *             only, since community-service may be down and must not be asked once per song
+     */
+    private List<Entry> songEntries(List<Song> songs, boolean live) {
+        if (songs.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<Collaborator>> collaborators = collaboratorRepository
+                .findBySongIdIn(songs.stream().map(Song::getId).toList()).stream()
+                .collect(Collectors.groupingBy(Collaborator::getSongId));
+        List<Entry> entries = new ArrayList<>(songs.size());
+        for (Song song : songs) {
+            Map<String, Float> raw = new HashMap<>();
+            addField(raw, song.getTitle(), TITLE_WEIGHT, false);
+            addField(raw, artistName(song.getArtistId(), live), ARTIST_WEIGHT, false);
+            for (Collaborator collaborator : collaborators.getOrDefault(song.getId(), List.of())) {
+                addField(raw, collaborator.getArtistName(), ARTIST_WEIGHT, true);
+            }
+            addGenres(raw, song.getGenreIds());
+            addField(raw, song.getLyrics(), LYRICS_WEIGHT, true);
+            entries.add(new Entry(song.getId(), raw, song.getPlays() != null ? song.getPlays() : 0L));
+        }
+        return entries;
+    }
+
+    private Entry albumEntry(Album album, boolean live) {
+        Map<String, Float> raw = new HashMap<>();
+        addField(raw, album.getTitle(), TITLE_WEIGHT, false);
+        addField(raw, artistName(album.getArtistId(), live), ARTIST_WEIGHT, false);
+        addGenres(raw, album.getGenreIds());
+        return new Entry(album.getId(), raw, 0L);
+    }
+
+    private String artistName(Long artistId, boolean live) {
+        return live ? artistDirectory.nameOf(artistId) : artistDirectory.cachedName(artistId);
+    }
+
+    private void addGenres(Map<String, Float> raw, Set<Long> genreIds) {
+        if (genreIds == null) {
+            return;
+        }
+        for (Long genreId : genreIds) {
+            addField(raw, genreNames.get(genreId), GENRE_WEIGHT, true);
+        }
+    }
+
+    /**
+     * @param distinct count each term once, so long fields such as lyrics cannot outweigh a title
+     */
+    private static void addField(Map<String, Float> raw, String text, float weight, boolean distinct) {
+        Collection<String> tokens = SearchText.tokenize(text);
+        if (distinct) {
+            tokens = new HashSet<>(tokens);
+        }
+        for (String token : tokens) {
+            raw.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static void putAll(Shard shard, List<Entry> entries) {
+        for (Entry entry : entries) {
+            put(shard, entry.id(), entry.raw(), entry.popularity());
+        }
+    }
+
+    private static void put(Shard shard, Long id, Map<String, Float> raw, long popularity) {
+        Map<String, Float> terms = new HashMap<>(raw.size());
+        // BM25-style saturation: repeating a term helps less and less
+        raw.forEach((term, weight) -> terms.put(term, weight * (K1 + 1) / (weight + K1)));
+
+        shard.lock.writeLock().lock();
+        try {
+            removeLocked(shard, id);
+            terms.forEach((term, weight) -> shard.postings.computeIfAbsent(term, key -> {
+                SearchText.trigrams(key).forEach(gram -> shard.trigrams.computeIfAbsent(gram, g -> new HashSet<>()).add(key));
+                return new HashMap<>();
+            }).put(id, weight));
+            shard.docs.put(id, new Doc(terms, popularity));
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private static void remove(Shard shard, Long id) {
+        shard.lock.writeLock().lock();
+        try {
+            removeLocked(shard, id);
+        } finally {
+            shard.lock.writeLock().unlock();
+        }
+    }
+
+    private static void removeLocked(Shard shard, Long id) {
+        Doc previous = shard.docs.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String term : previous.terms().keySet()) {
+            Map<Long, Float> postings = shard.postings.get(term);
+            if (postings != null) {
+                postings.remove(id);
+                if (postings.isEmpty()) {
+                    shard.postings.remove(term);
+                    for (String gram : SearchText.trigrams(term)) {
+                        Set<String> indexed = shard.trigrams.get(gram);
+                        if (indexed != null && indexed.remove(term) && indexed.isEmpty()) {
+                            shard.trigrams.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static Map<Type, Shard> newShards() {
+        Map<Type, Shard> created = new EnumMap<>(Type.class);
+        for (Type type : Type.values()) {
+            created.put(type, new Shard());
+        }
+        return created;
+    }
+}
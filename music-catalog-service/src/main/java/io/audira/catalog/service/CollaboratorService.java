@@ -13,10 +13,13 @@ import java.util.List;
 public class CollaboratorService {
 
     private final CollaboratorRepository collaboratorRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
 
     @Transactional
     public Collaborator addCollaborator(Collaborator collaborator) {
-        return collaboratorRepository.save(collaborator);
+        Collaborator saved = collaboratorRepository.save(collaborator);
+        catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.SONG, saved.getSongId());
+        return saved;
     }
 
     public List<Collaborator> getCollaboratorsBySong(Long songId) {
@@ -29,11 +32,15 @@ public class CollaboratorService {
 
     @Transactional
     public void removeCollaborator(Long collaboratorId) {
-        collaboratorRepository.deleteById(collaboratorId);
+        collaboratorRepository.findById(collaboratorId).ifPresent(collaborator -> {
+            collaboratorRepository.delete(collaborator);
+            catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.SONG, collaborator.getSongId());
+        });
     }
 
     @Transactional
     public void removeAllCollaboratorsFromSong(Long songId) {
         collaboratorRepository.deleteBySongId(songId);
+        catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.SONG, songId);
     }
 }
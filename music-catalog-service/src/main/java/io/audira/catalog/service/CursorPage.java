@@ -0,0 +1,42 @@
+package io.audira.catalog.service;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset listing.
+ *
+ * @param nextCursor token for the following page, or {@code null} on the last one
+ */
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    @FunctionalInterface
+    public interface KeysetQuery<T> {
+        /**
+         * @return rows strictly after {@code after} in listing order, at most {@code page.getPageSize()}
+         */
+        List<T> find(PageCursor after, Pageable page);
+    }
+
+    /**
+     * Runs the query for one row more than the page holds, to know whether another page follows.
+     *
+     * @param limit requested page size, clamped to 1..{@link DiscoveryService#MAX_PAGE_SIZE};
+     *              {@link DiscoveryService#DEFAULT_PAGE_SIZE} when {@code null}
+     */
+    public static <T> CursorPage<T> fetch(String cursor, PageCursor.Order order, Integer limit,
+                                          KeysetQuery<T> query, Function<T, PageCursor> cursorOf) {
+        int size = limit != null
+                ? Math.min(Math.max(limit, 1), DiscoveryService.MAX_PAGE_SIZE)
+                : DiscoveryService.DEFAULT_PAGE_SIZE;
+        List<T> rows = query.find(PageCursor.decode(cursor, order), PageRequest.of(0, size + 1));
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = List.copyOf(rows.subList(0, size));
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)).encode());
+    }
+}
@@ -1,7 +1,11 @@
 package io.audira.catalog.service;
 
+import io.audira.catalog.dto.SuggestionDTO;
+import io.audira.catalog.dto.TrendingEntryDTO;
+import io.audira.catalog.dto.TrendingEventRequest;
 import io.audira.catalog.model.Album;
 import io.audira.catalog.model.Song;
+import io.audira.catalog.model.TrendingSignal;
 import io.audira.catalog.repository.AlbumRepository;
 import io.audira.catalog.repository.SongRepository;
 import lombok.RequiredArgsConstructor;
@@ -12,30 +16,104 @@ import java.util.List;
 @RequiredArgsConstructor
 public class DiscoveryService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 100;
+    private static final int RECOMMENDATIONS = 20;
+
     private final SongRepository songRepository;
     private final AlbumRepository albumRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final AutocompleteIndex autocompleteIndex;
+    private final TrendingService trendingService;
+    private final RecommendationClient recommendationClient;
+    private final SimilarSongIndex similarSongIndex;
+    private final SongPlayCounter songPlayCounter;
+
+    /**
+     * @param fuzzy also match terms within one or two typos of the query terms
+     */
+    public List<Song> searchSongs(String query, int page, int size, boolean fuzzy) {
+        List<Long> ids = search(CatalogSearchIndex.Type.SONG, query, page, size, fuzzy);
+        return CatalogSearchIndex.inRankOrder(ids, songRepository.findAllById(ids));
+    }
+
+    public List<Album> searchAlbums(String query, int page, int size, boolean fuzzy) {
+        List<Long> ids = search(CatalogSearchIndex.Type.ALBUM, query, page, size, fuzzy);
+        return CatalogSearchIndex.inRankOrder(ids, albumRepository.findAllById(ids));
+    }
+
+    public List<SuggestionDTO> autocomplete(String prefix, int limit) {
+        return autocompleteIndex.complete(prefix, limit);
+    }
+
+    public List<Song> getTrendingSongs(int limit) {
+        List<Song> trending = trendingService.trendingSongs(clampSize(limit));
+        // Sin actividad reciente se devuelven las canciones más recientes
+        return trending.isEmpty() ? songRepository.findTop20ByOrderByCreatedAtDesc() : trending;
+    }
+
+    public List<Album> getTrendingAlbums(int limit) {
+        List<Album> trending = trendingService.trendingAlbums(clampSize(limit));
+        return trending.isEmpty() ? albumRepository.findTop20ByOrderByCreatedAtDesc() : trending;
+    }
 
-    public List<Song> searchSongs(String query) {
-        return songRepository.searchByTitleOrArtist(query);
+    /**
+     * Most played songs first, one keyset page at a time over the play counters.
+     */
+    public CursorPage<Song> getTopSongs(String cursor, Integer limit) {
+        return CursorPage.fetch(cursor, PageCursor.Order.PLAYS, limit,
+                (after, page) -> songRepository.findTopByPlaysAfter(after.key(), after.id(), page),
+                song -> PageCursor.ofPlays(song.getPlays(), song.getId()));
     }
 
-    public List<Album> searchAlbums(String query) {
-        return albumRepository.searchByTitleOrArtist(query);
+    public List<Song> getTrendingSongsInGenre(Long genreId, int limit) {
+        return trendingService.trendingSongsInGenre(genreId, clampSize(limit));
     }
 
-    public List<Song> getTrendingSongs() {
-        // Por ahora devuelve las canciones más recientes
-        return songRepository.findTop20ByOrderByCreatedAtDesc();
+    public List<TrendingEntryDTO> getTrendingArtists(int limit) {
+        return trendingService.trendingArtists(clampSize(limit));
     }
 
-    public List<Album> getTrendingAlbums() {
-        // Por ahora devuelve los álbumes más recientes
-        return albumRepository.findTop20ByOrderByCreatedAtDesc();
+    public List<TrendingEntryDTO> getTrendingGenres(int limit) {
+        return trendingService.trendingGenres(clampSize(limit));
+    }
+
+    public void recordTrendingEvents(List<TrendingEventRequest> events) {
+        for (TrendingEventRequest event : events) {
+            TrendingService.Scope scope = TrendingService.Scope.valueOf(event.getEntityType());
+            int count = event.getCount() != null ? event.getCount() : 1;
+            trendingService.record(event.getType(), scope, event.getEntityId(), count, event.getRating());
+            if (event.getType() == TrendingSignal.PLAY && scope == TrendingService.Scope.SONG) {
+                songPlayCounter.add(event.getEntityId(), count);
+            }
+        }
     }
 
     public List<Song> getRecommendations(Long userId) {
-        // Implementación básica: devuelve canciones aleatorias
-        // TODO: Implementar algoritmo de recomendación real
-        return songRepository.findTop20ByOrderByCreatedAtDesc();
+        List<Long> ids = recommendationClient.recommendedSongIds(userId, RECOMMENDATIONS);
+        if (ids.isEmpty()) {
+            // Sin historial suficiente se recomienda lo que es tendencia
+            return getTrendingSongs(RECOMMENDATIONS);
+        }
+        return CatalogSearchIndex.inRankOrder(ids, songRepository.findAllById(ids));
+    }
+
+    public List<Song> getSimilarSongs(Long songId, int limit) {
+        List<Long> ids = similarSongIndex.similar(songId, clampSize(limit));
+        return CatalogSearchIndex.inRankOrder(ids, songRepository.findAllById(ids));
+    }
+
+    private List<Long> search(CatalogSearchIndex.Type type, String query, int page, int size, boolean fuzzy) {
+        return fuzzy
+                ? catalogSearchIndex.fuzzySearch(type, query, offset(page, size), clampSize(size))
+                : catalogSearchIndex.search(type, query, offset(page, size), clampSize(size));
+    }
+
+    private static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    private static int offset(int page, int size) {
+        return (int) Math.min((long) Math.max(page, 0) * clampSize(size), Integer.MAX_VALUE);
     }
 }
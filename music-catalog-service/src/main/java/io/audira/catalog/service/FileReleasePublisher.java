@@ -0,0 +1,45 @@
+package io.audira.catalog.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Hands cover and audio files that songs and albums stopped using back to community-service,
+ * which drops one reference of the stored blob and deletes it with its last one.
+ * <p>
+ * Every upload holds one reference, so a URL is released once for each song or album that
+ * drops it, even if another one still uses the same content. Releases go through
+ * {@link InternalEventPublisher}; one that cannot be delivered is dropped and the blob simply
+ * stays on disk.
+ */
+@Component
+public class FileReleasePublisher {
+
+    private final InternalEventPublisher publisher;
+    private final String releaseUrl;
+
+    FileReleasePublisher(InternalEventPublisher publisher,
+                         @Value("${services.community-url:http://community-service}") String communityUrl) {
+        this.publisher = publisher;
+        this.releaseUrl = communityUrl + "/api/files/release";
+    }
+
+    /**
+     * Releases one reference per given URL once the current transaction commits; {@code null}
+     * and blank URLs are skipped.
+     */
+    public void releaseAfterCommit(String... fileUrls) {
+        List<String> released = Arrays.stream(fileUrls)
+                .filter(Objects::nonNull)
+                .filter(url -> !url.isBlank())
+                .toList();
+        if (released.isEmpty()) {
+            return;
+        }
+        publisher.postAfterCommit("release of " + released.size() + " files", releaseUrl, released);
+    }
+}
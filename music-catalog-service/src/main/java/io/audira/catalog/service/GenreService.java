@@ -5,7 +5,6 @@ import io.audira.catalog.repository.GenreRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -13,17 +12,26 @@ import java.util.Optional;
 public class GenreService {
 
     private final GenreRepository genreRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final AutocompleteIndex autocompleteIndex;
 
     @Transactional
     public Genre createGenre(Genre genre) {
         if (genreRepository.existsByName(genre.getName())) {
             throw new IllegalArgumentException("Genre with name '" + genre.getName() + "' already exists");
         }
-        return genreRepository.save(genre);
+        Genre saved = genreRepository.save(genre);
+        autocompleteIndex.genreChangedAfterCommit(saved.getId());
+        return saved;
     }
 
-    public List<Genre> getAllGenres() {
-        return genreRepository.findAll();
+    /**
+     * Genres newest first, one keyset page at a time.
+     */
+    public CursorPage<Genre> getAllGenres(String cursor, Integer limit) {
+        return CursorPage.fetch(cursor, PageCursor.Order.CREATED_AT, limit,
+                (after, page) -> genreRepository.findPageAfter(after.createdAt(), after.id(), page),
+                genre -> PageCursor.ofCreatedAt(genre.getCreatedAt(), genre.getId()));
     }
 
     public Genre getGenreById(Long id) {
@@ -45,6 +53,8 @@ public class GenreService {
                 throw new IllegalArgumentException("Genre with name '" + genreDetails.getName() + "' already exists");
             }
             genre.setName(genreDetails.getName());
+            catalogSearchIndex.genreChangedAfterCommit(id);
+            autocompleteIndex.genreChangedAfterCommit(id);
         }
 
         if (genreDetails.getDescription() != null) {
@@ -64,5 +74,7 @@ public class GenreService {
             throw new IllegalArgumentException("Genre not found with id: " + id);
         }
         genreRepository.deleteById(id);
+        catalogSearchIndex.genreChangedAfterCommit(id);
+        autocompleteIndex.genreChangedAfterCommit(id);
     }
 }
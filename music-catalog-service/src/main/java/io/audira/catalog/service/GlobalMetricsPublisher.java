@@ -0,0 +1,37 @@
+package io.audira.catalog.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Sends catalog events to the global metrics of community-service.
+ * <p>
+ * Events go through {@link InternalEventPublisher}, so catalog writes never wait on
+ * community-service. Events that cannot be delivered are dropped; the nightly
+ * reconciliation in community-service corrects the resulting drift.
+ */
+@Component
+public class GlobalMetricsPublisher {
+
+    public enum Event {
+        SONG_CREATED,
+        SONG_DELETED,
+        ALBUM_CREATED,
+        ALBUM_DELETED
+    }
+
+    private final InternalEventPublisher publisher;
+    private final String eventsUrl;
+
+    GlobalMetricsPublisher(InternalEventPublisher publisher,
+                           @Value("${services.community-url:http://community-service}") String communityUrl) {
+        this.publisher = publisher;
+        this.eventsUrl = communityUrl + "/api/metrics/global/events";
+    }
+
+    public void publishAfterCommit(Event event) {
+        publisher.postAfterCommit("global metrics event " + event, eventsUrl, Map.of("type", event.name()));
+    }
+}
@@ -0,0 +1,393 @@
+package io.audira.catalog.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Hierarchical navigable small world graph over unit vectors, for approximate nearest
+ * neighbours by cosine distance. Vectors stay in a {@link VectorStore}; the graph is kept in
+ * flat int arrays and saved to a memory-mapped snapshot file.
+ * <p>
+ * Nodes are only added; removed ids are skipped in results but keep routing searches until
+ * the index is rebuilt. Not thread-safe.
+ */
+final class HnswIndex {
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+    private static final int HEADER_INTS = 8;
+    private static final int MAX_LEVEL = 16;
+
+    private record Scored(int node, float distance) {
+    }
+
+    private static final Comparator<Scored> NEAREST = Comparator.comparingDouble(Scored::distance);
+    private static final Comparator<Scored> FARTHEST = NEAREST.reversed();
+
+    private final VectorStore vectors;
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelFactor;
+    private final Random random = new Random(42);
+
+    private int count;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private long[] ids;
+    private byte[] levels;
+    // Per node: link count, then up to maxM0 links
+    private int[] layer0;
+    // Per node above layer 0: for each level, link count then up to m links
+    private int[][] upper;
+    private final Map<Long, Integer> nodes = new HashMap<>();
+    private final BitSet removed = new BitSet();
+
+    HnswIndex(VectorStore vectors, int m, int efConstruction) {
+        this.vectors = vectors;
+        this.m = m;
+        this.maxM0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.levelFactor = 1 / Math.log(m);
+        allocate(1024);
+    }
+
+    int size() {
+        return count;
+    }
+
+    boolean contains(long id) {
+        return nodes.containsKey(id);
+    }
+
+    long maxId() {
+        long max = 0;
+        for (int node = 0; node < count; node++) {
+            max = Math.max(max, ids[node]);
+        }
+        return max;
+    }
+
+    /**
+     * @return the stored vector of a song, or {@code null} if it is not indexed
+     */
+    float[] vectorOf(long id) {
+        Integer node = nodes.get(id);
+        return node != null ? vectors.get(node) : null;
+    }
+
+    void add(long id, float[] vector) {
+        if (nodes.containsKey(id)) {
+            return;
+        }
+        if (count == ids.length) {
+            allocate(count * 2);
+        }
+        int node = count++;
+        vectors.set(node, vector);
+        ids[node] = id;
+        nodes.put(id, node);
+        int level = randomLevel();
+        levels[node] = (byte) level;
+        if (level > 0) {
+            upper[node] = new int[level * (m + 1)];
+        }
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        int nearest = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            nearest = greedy(vector, nearest, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            List<Scored> found = sorted(searchLayer(vector, nearest, efConstruction, l));
+            int[] selected = selectNeighbours(found, m);
+            block(node, l)[base(node, l)] = 0;
+            for (int neighbour : selected) {
+                append(node, l, neighbour);
+                connect(neighbour, node, l);
+            }
+            nearest = found.get(0).node();
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    void remove(long id) {
+        Integer node = nodes.get(id);
+        if (node != null) {
+            removed.set(node);
+        }
+    }
+
+    /**
+     * @return ids of up to {@code k} nearest songs, nearest first, without {@code excludeId}
+     */
+    List<Long> search(float[] query, int k, int ef, long excludeId) {
+        if (entryPoint < 0) {
+            return List.of();
+        }
+        int nearest = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            nearest = greedy(query, nearest, l);
+        }
+        List<Long> result = new ArrayList<>(k);
+        for (Scored scored : sorted(searchLayer(query, nearest, Math.max(ef, k + 1), 0))) {
+            if (result.size() == k) {
+                break;
+            }
+            if (!removed.get(scored.node()) && ids[scored.node()] != excludeId) {
+                result.add(ids[scored.node()]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Writes the graph to a temporary file mapped in memory, then moves it over {@code file}.
+     */
+    void save(Path file) {
+        long upperInts = 0;
+        for (int node = 0; node < count; node++) {
+            upperInts += (long) levels[node] * (m + 1);
+        }
+        long bytes = 4L * HEADER_INTS + 8L * count + count + 4L * count * (maxM0 + 1)
+                + 4L * upperInts + 4L + 8L * removed.toLongArray().length;
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(vectors.dimension()).putInt(m)
+                    .putInt(count).putInt(entryPoint).putInt(maxLevel).putInt(0);
+            buffer.asLongBuffer().put(ids, 0, count);
+            buffer.position(buffer.position() + 8 * count);
+            buffer.put(levels, 0, count);
+            buffer.asIntBuffer().put(layer0, 0, count * (maxM0 + 1));
+            buffer.position(buffer.position() + 4 * count * (maxM0 + 1));
+            for (int node = 0; node < count; node++) {
+                if (upper[node] != null) {
+                    buffer.asIntBuffer().put(upper[node]);
+                    buffer.position(buffer.position() + 4 * upper[node].length);
+                }
+            }
+            long[] removedWords = removed.toLongArray();
+            buffer.putInt(removedWords.length);
+            buffer.asLongBuffer().put(removedWords);
+            buffer.force();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write index snapshot " + file, ex);
+        }
+        try {
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not replace index snapshot " + file, ex);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #save(Path)} over the vectors it was built on.
+     */
+    static HnswIndex load(Path file, VectorStore vectors, int efConstruction) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION || buffer.getInt() != vectors.dimension()) {
+                throw new IllegalStateException("Incompatible index snapshot " + file);
+            }
+            HnswIndex index = new HnswIndex(vectors, buffer.getInt(), efConstruction);
+            int count = buffer.getInt();
+            index.entryPoint = buffer.getInt();
+            index.maxLevel = buffer.getInt();
+            buffer.getInt();
+            index.allocate(Math.max(count, 1024));
+            index.count = count;
+            buffer.asLongBuffer().get(index.ids, 0, count);
+            buffer.position(buffer.position() + 8 * count);
+            buffer.get(index.levels, 0, count);
+            buffer.asIntBuffer().get(index.layer0, 0, count * (index.maxM0 + 1));
+            buffer.position(buffer.position() + 4 * count * (index.maxM0 + 1));
+            for (int node = 0; node < count; node++) {
+                index.nodes.put(index.ids[node], node);
+                if (index.levels[node] > 0) {
+                    index.upper[node] = new int[index.levels[node] * (index.m + 1)];
+                    buffer.asIntBuffer().get(index.upper[node]);
+                    buffer.position(buffer.position() + 4 * index.upper[node].length);
+                }
+            }
+            long[] removedWords = new long[buffer.getInt()];
+            buffer.asLongBuffer().get(removedWords);
+            index.removed.or(BitSet.valueOf(removedWords));
+            return index;
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read index snapshot " + file, ex);
+        }
+    }
+
+    private int greedy(float[] query, int start, int level) {
+        int current = start;
+        float best = distance(current, query);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] block = block(current, level);
+            int base = base(current, level);
+            for (int i = 1; i <= block[base]; i++) {
+                int neighbour = block[base + i];
+                float d = distance(neighbour, query);
+                if (d < best) {
+                    best = d;
+                    current = neighbour;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private PriorityQueue<Scored> searchLayer(float[] query, int start, int ef, int level) {
+        BitSet visited = new BitSet(count);
+        visited.set(start);
+        Scored first = new Scored(start, distance(start, query));
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(NEAREST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(FARTHEST);
+        candidates.add(first);
+        results.add(first);
+        while (!candidates.isEmpty()) {
+            Scored candidate = candidates.poll();
+            if (results.size() >= ef && candidate.distance() > results.peek().distance()) {
+                break;
+            }
+            int[] block = block(candidate.node(), level);
+            int base = base(candidate.node(), level);
+            for (int i = 1; i <= block[base]; i++) {
+                int neighbour = block[base + i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                float d = distance(neighbour, query);
+                if (results.size() < ef || d < results.peek().distance()) {
+                    Scored scored = new Scored(neighbour, d);
+                    candidates.add(scored);
+                    results.add(scored);
+                    if (results.size() > ef) {
+                        results.poll();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Keeps candidates that are closer to the base than to any already selected neighbour, so
+     * links spread in different directions, then fills up with the closest of the rest.
+     *
+     * @param candidates sorted nearest first
+     */
+    private int[] selectNeighbours(List<Scored> candidates, int max) {
+        int[] selected = new int[max];
+        int size = 0;
+        List<Scored> pruned = new ArrayList<>();
+        for (Scored candidate : candidates) {
+            if (size == max) {
+                break;
+            }
+            boolean diverse = true;
+            for (int i = 0; i < size && diverse; i++) {
+                diverse = distanceBetween(candidate.node(), selected[i]) >= candidate.distance();
+            }
+            if (diverse) {
+                selected[size++] = candidate.node();
+            } else {
+                pruned.add(candidate);
+            }
+        }
+        for (int i = 0; i < pruned.size() && size < max; i++) {
+            selected[size++] = pruned.get(i).node();
+        }
+        return Arrays.copyOf(selected, size);
+    }
+
+    private void connect(int node, int neighbour, int level) {
+        int[] block = block(node, level);
+        int base = base(node, level);
+        int max = level == 0 ? maxM0 : m;
+        if (block[base] < max) {
+            append(node, level, neighbour);
+            return;
+        }
+        List<Scored> candidates = new ArrayList<>(max + 1);
+        for (int i = 1; i <= block[base]; i++) {
+            candidates.add(new Scored(block[base + i], distanceBetween(node, block[base + i])));
+        }
+        candidates.add(new Scored(neighbour, distanceBetween(node, neighbour)));
+        candidates.sort(NEAREST);
+        int[] selected = selectNeighbours(candidates, max);
+        block[base] = selected.length;
+        System.arraycopy(selected, 0, block, base + 1, selected.length);
+    }
+
+    private void append(int node, int level, int neighbour) {
+        int[] block = block(node, level);
+        int base = base(node, level);
+        block[base + 1 + block[base]] = neighbour;
+        block[base]++;
+    }
+
+    private int[] block(int node, int level) {
+        return level == 0 ? layer0 : upper[node];
+    }
+
+    private int base(int node, int level) {
+        return level == 0 ? node * (maxM0 + 1) : (level - 1) * (m + 1);
+    }
+
+    private float distance(int node, float[] query) {
+        return 1f - vectors.dot(node, query);
+    }
+
+    private float distanceBetween(int a, int b) {
+        return 1f - vectors.dot(a, b);
+    }
+
+    private int randomLevel() {
+        return Math.min((int) (-Math.log(1.0 - random.nextDouble()) * levelFactor), MAX_LEVEL);
+    }
+
+    private static List<Scored> sorted(PriorityQueue<Scored> found) {
+        List<Scored> sorted = new ArrayList<>(found);
+        sorted.sort(NEAREST);
+        return sorted;
+    }
+
+    private void allocate(int capacity) {
+        ids = ids == null ? new long[capacity] : Arrays.copyOf(ids, capacity);
+        levels = levels == null ? new byte[capacity] : Arrays.copyOf(levels, capacity);
+        layer0 = layer0 == null ? new int[capacity * (maxM0 + 1)] : Arrays.copyOf(layer0, capacity * (maxM0 + 1));
+        upper = upper == null ? new int[capacity][] : Arrays.copyOf(upper, capacity);
+    }
+}
@@ -0,0 +1,73 @@
+package io.audira.catalog.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: its sort key and id. Clients get it as an
+ * opaque token and send it back to continue, so each page is an index range scan no matter
+ * how deep it is.
+ *
+ * @param order which sort key {@code key} holds
+ * @param key   the sort key, creation time in epoch microseconds or play count
+ * @param id    id of the last row, breaking ties of the sort key
+ */
+public record PageCursor(Order order, long key, long id) {
+
+    public enum Order {
+        CREATED_AT('t'),
+        PLAYS('p');
+
+        private final char code;
+
+        Order(char code) {
+            this.code = code;
+        }
+    }
+
+    // Sorts after every stored value, so the first page needs no separate query
+    private static final LocalDateTime LATEST = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    public static PageCursor ofCreatedAt(LocalDateTime createdAt, Long id) {
+        Instant instant = createdAt.toInstant(ZoneOffset.UTC);
+        long micros = instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+        return new PageCursor(Order.CREATED_AT, micros, id);
+    }
+
+    public static PageCursor ofPlays(Long plays, Long id) {
+        return new PageCursor(Order.PLAYS, plays != null ? plays : 0L, id);
+    }
+
+    /**
+     * @param token a token from {@link #encode()}, or {@code null} for the first page
+     */
+    public static PageCursor decode(String token, Order order) {
+        if (token == null || token.isBlank()) {
+            return order == Order.CREATED_AT
+                    ? ofCreatedAt(LATEST, Long.MAX_VALUE)
+                    : new PageCursor(order, Long.MAX_VALUE, Long.MAX_VALUE);
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 3 || parts[0].length() != 1 || parts[0].charAt(0) != order.code) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new PageCursor(order, Long.parseLong(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, ex);
+        }
+    }
+
+    public String encode() {
+        String raw = order.code + ":" + key + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public LocalDateTime createdAt() {
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(key, 1_000_000), Math.floorMod(key, 1_000_000) * 1_000L);
+        return LocalDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,67 @@
+package io.audira.catalog.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+
+/**
+ * Reads co-listening recommendations computed by playback-service, which owns the listening data.
+ */
+@Component
+public class RecommendationClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationClient.class);
+
+    public record SongNeighbours(Long songId, List<Long> neighbourIds, List<Float> similarities) {
+    }
+
+    public record NeighboursPage(List<SongNeighbours> items, Integer nextOffset) {
+    }
+
+    private final RestTemplate restTemplate;
+    private final String recommendationsUrl;
+    private final String neighboursUrl;
+
+    public RecommendationClient(RestTemplate restTemplate,
+                                @Value("${services.playback-url:http://playback-service}") String playbackUrl) {
+        this.restTemplate = restTemplate;
+        this.recommendationsUrl = playbackUrl + "/api/recommendations/user/{userId}?limit={limit}";
+        this.neighboursUrl = playbackUrl + "/api/recommendations/neighbours?offset={offset}&limit={limit}";
+    }
+
+    /**
+     * @return recommended song ids, best first; empty if playback-service has none or is unreachable
+     */
+    public List<Long> recommendedSongIds(Long userId, int limit) {
+        try {
+            List<Long> ids = restTemplate.exchange(recommendationsUrl, HttpMethod.GET, null,
+                    new ParameterizedTypeReference<List<Long>>() {
+                    }, userId, limit).getBody();
+            return ids != null ? ids : List.of();
+        } catch (RestClientException ex) {
+            logger.warn("Could not load recommendations for user {}: {}", userId, ex.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * One page of the co-listening neighbours of every song.
+     *
+     * @return the page, or {@code null} if playback-service is unreachable
+     */
+    public NeighboursPage neighbourPage(int offset, int limit) {
+        try {
+            return restTemplate.getForObject(neighboursUrl, NeighboursPage.class, offset, limit);
+        } catch (RestClientException ex) {
+            logger.warn("Could not load co-listening neighbours: {}", ex.getMessage());
+            return null;
+        }
+    }
+}
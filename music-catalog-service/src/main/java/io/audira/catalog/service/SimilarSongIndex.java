@@ -0,0 +1,326 @@
+package io.audira.catalog.service;
+
+import io.audira.catalog.model.Collaborator;
+import io.audira.catalog.repository.CollaboratorRepository;
+import io.audira.catalog.repository.SongRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * "More like this" for songs: nearest neighbours of {@link SongEmbedding} vectors in an
+ * {@link HnswIndex}.
+ * <p>
+ * Vectors live in a memory-mapped file per index generation and the graph is snapshotted next
+ * to it, so a restart maps both back instead of rebuilding. New songs are inserted as they are
+ * created, from their genres and artists; co-listening, genre changes and deletions are folded
+ * in by the periodic full rebuild, which builds a new generation and swaps it in.
+ */
+@Service
+public class SimilarSongIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimilarSongIndex.class);
+
+    private static final int M = 16;
+    private static final int EF_CONSTRUCTION = 100;
+    private static final int BATCH = 1000;
+    private static final Pattern GRAPH_FILE = Pattern.compile("graph-(\\d+)\\.bin");
+
+    private final SongRepository songRepository;
+    private final CollaboratorRepository collaboratorRepository;
+    private final RecommendationClient recommendationClient;
+    private final Path directory;
+    private final int efSearch;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock
+    private HnswIndex index;
+    private VectorStore vectors;
+    private long generation;
+
+    // One rebuild at a time
+    private final Object rebuildLock = new Object();
+
+    public SimilarSongIndex(SongRepository songRepository,
+                            CollaboratorRepository collaboratorRepository,
+                            RecommendationClient recommendationClient,
+                            @Value("${similar.index-dir:data/similar-index}") String directory,
+                            @Value("${similar.ef-search:64}") int efSearch) {
+        this.songRepository = songRepository;
+        this.collaboratorRepository = collaboratorRepository;
+        this.recommendationClient = recommendationClient;
+        this.directory = Paths.get(directory);
+        this.efSearch = efSearch;
+    }
+
+    /**
+     * @return ids of the songs most similar to the given one, most similar first
+     */
+    public List<Long> similar(Long songId, int limit) {
+        lock.readLock().lock();
+        try {
+            float[] vector = index != null ? index.vectorOf(songId) : null;
+            return vector != null ? index.search(vector, limit, efSearch, songId) : List.of();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void songCreatedAfterCommit(Long songId) {
+        AfterCommit.run("add the song to the similarity index", () -> insert(List.of(songId)));
+    }
+
+    public void songDeletedAfterCommit(Long songId) {
+        AfterCommit.run("remove the song from the similarity index", () -> {
+            lock.writeLock().lock();
+            try {
+                if (index != null) {
+                    index.remove(songId);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not create " + directory, ex);
+        }
+        if (restore()) {
+            insertSongsAfter(maxIndexedId());
+        } else {
+            rebuild();
+        }
+    }
+
+    /**
+     * Builds a new generation from the whole catalog and the co-listening neighbours exported by
+     * playback-service, then swaps it in.
+     */
+    @Scheduled(initialDelayString = "${similar.rebuild-interval-ms:86400000}",
+            fixedDelayString = "${similar.rebuild-interval-ms:86400000}")
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            long started = System.currentTimeMillis();
+            long newGeneration = started;
+            Path scratchFile = directory.resolve("scratch-" + newGeneration + ".bin");
+            VectorStore built = VectorStore.open(vectorsFile(newGeneration), SongEmbedding.DIMENSION, BATCH);
+            HnswIndex rebuilt = new HnswIndex(built, M, EF_CONSTRUCTION);
+
+            try (VectorStore scratch = VectorStore.open(scratchFile, SongEmbedding.DIMENSION, BATCH)) {
+                // Content vectors by position in id order, then co-listening on top, then the graph
+                List<Long> songIds = new ArrayList<>();
+                Map<Long, Integer> positions = new HashMap<>();
+                long afterId = 0;
+                List<Long> page;
+                while (!(page = songRepository.findIdsAfter(afterId, PageRequest.of(0, BATCH))).isEmpty()) {
+                    Map<Long, float[]> content = contentVectors(page);
+                    content.forEach((songId, vector) -> {
+                        positions.put(songId, songIds.size());
+                        scratch.set(songIds.size(), vector);
+                        songIds.add(songId);
+                    });
+                    afterId = page.get(page.size() - 1);
+                }
+
+                Integer offset = 0;
+                while (offset != null) {
+                    RecommendationClient.NeighboursPage neighbours = recommendationClient.neighbourPage(offset, BATCH);
+                    if (neighbours == null) {
+                        logger.warn("Building the similarity index without co-listening data");
+                        break;
+                    }
+                    for (RecommendationClient.SongNeighbours song : neighbours.items()) {
+                        Integer position = positions.get(song.songId());
+                        if (position != null) {
+                            float[] vector = scratch.get(position);
+                            SongEmbedding.addCoListening(vector, song.songId(), song.neighbourIds(), song.similarities());
+                            scratch.set(position, vector);
+                        }
+                    }
+                    offset = neighbours.nextOffset();
+                }
+
+                for (int position = 0; position < songIds.size(); position++) {
+                    long songId = songIds.get(position);
+                    rebuilt.add(songId, SongEmbedding.normalize(scratch.get(position), songId));
+                }
+            } finally {
+                deleteQuietly(scratchFile);
+            }
+            built.force();
+            rebuilt.save(graphFile(newGeneration));
+
+            long previous;
+            lock.writeLock().lock();
+            try {
+                if (vectors != null) {
+                    vectors.close();
+                }
+                previous = generation;
+                index = rebuilt;
+                vectors = built;
+                generation = newGeneration;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            deleteQuietly(vectorsFile(previous));
+            deleteQuietly(graphFile(previous));
+            // Songs created while building
+            insertSongsAfter(rebuilt.maxId());
+            logger.info("Built similarity index of {} songs in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${similar.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        lock.readLock().lock();
+        try {
+            if (index != null) {
+                vectors.force();
+                index.save(graphFile(generation));
+            }
+        } catch (RuntimeException ex) {
+            logger.error("Failed to snapshot the similarity index", ex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    private boolean restore() {
+        long latest = -1;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Matcher matcher = GRAPH_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches() && Files.exists(vectorsFile(Long.parseLong(matcher.group(1))))) {
+                    latest = Math.max(latest, Long.parseLong(matcher.group(1)));
+                }
+            }
+        } catch (IOException ex) {
+            logger.warn("Could not list {}: {}", directory, ex.getMessage());
+            return false;
+        }
+        if (latest < 0) {
+            return false;
+        }
+        VectorStore restoredVectors = VectorStore.open(vectorsFile(latest), SongEmbedding.DIMENSION, BATCH);
+        try {
+            HnswIndex restored = HnswIndex.load(graphFile(latest), restoredVectors, EF_CONSTRUCTION);
+            lock.writeLock().lock();
+            try {
+                index = restored;
+                vectors = restoredVectors;
+                generation = latest;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            logger.info("Restored similarity index of {} songs", restored.size());
+            return true;
+        } catch (RuntimeException ex) {
+            restoredVectors.close();
+            logger.warn("Could not restore the similarity index, rebuilding: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private long maxIndexedId() {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.maxId() : 0L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void insertSongsAfter(long afterId) {
+        List<Long> page;
+        while (!(page = songRepository.findIdsAfter(afterId, PageRequest.of(0, BATCH))).isEmpty()) {
+            insert(page);
+            afterId = page.get(page.size() - 1);
+        }
+    }
+
+    private void insert(Collection<Long> songIds) {
+        Map<Long, float[]> content = contentVectors(songIds);
+        lock.writeLock().lock();
+        try {
+            if (index == null) {
+                return;
+            }
+            content.forEach((songId, vector) -> index.add(songId, SongEmbedding.normalize(vector, songId)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Genre and artist vectors of existing songs; unknown ids are left out.
+     */
+    private Map<Long, float[]> contentVectors(Collection<Long> songIds) {
+        Map<Long, Set<Long>> genres = new HashMap<>();
+        for (Object[] row : songRepository.findGenreIdsByIds(songIds)) {
+            genres.computeIfAbsent((Long) row[0], ignored -> new HashSet<>()).add((Long) row[1]);
+        }
+        Map<Long, List<Long>> collaborators = new HashMap<>();
+        for (Collaborator collaborator : collaboratorRepository.findBySongIdIn(songIds)) {
+            collaborators.computeIfAbsent(collaborator.getSongId(), ignored -> new ArrayList<>())
+                    .add(collaborator.getArtistId());
+        }
+        Map<Long, float[]> vectors = new HashMap<>();
+        for (Object[] row : songRepository.findFactsByIds(songIds)) {
+            Long songId = (Long) row[0];
+            vectors.put(songId, SongEmbedding.content(genres.getOrDefault(songId, Set.of()), (Long) row[2],
+                    collaborators.getOrDefault(songId, List.of())));
+        }
+        return vectors;
+    }
+
+    private Path vectorsFile(long generation) {
+        return directory.resolve("vectors-" + generation + ".bin");
+    }
+
+    private Path graphFile(long generation) {
+        return directory.resolve("graph-" + generation + ".bin");
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            logger.warn("Could not delete {}: {}", file, ex.getMessage());
+        }
+    }
+}
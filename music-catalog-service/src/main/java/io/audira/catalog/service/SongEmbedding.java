@@ -0,0 +1,102 @@
+package io.audira.catalog.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Song vectors built by random projection: every genre, artist and song has a fixed random
+ * unit vector, and a song is the weighted sum of the vectors of its genres, its artist and
+ * collaborators, and its co-listening neighbours. Songs that share many of these end up
+ * with a high cosine similarity.
+ */
+final class SongEmbedding {
+
+    static final int DIMENSION = 64;
+
+    private static final long GENRE = 1;
+    private static final long ARTIST = 2;
+    private static final long SONG = 3;
+
+    private static final float GENRE_WEIGHT = 1f;
+    private static final float ARTIST_WEIGHT = 1f;
+    private static final float COLLABORATOR_WEIGHT = 0.5f;
+    private static final float CO_LISTENING_WEIGHT = 2f;
+
+    private SongEmbedding() {
+    }
+
+    /**
+     * Genre and artist part of a song vector, not yet normalized.
+     */
+    static float[] content(Collection<Long> genreIds, Long artistId, Collection<Long> collaboratorIds) {
+        float[] vector = new float[DIMENSION];
+        float[] genres = new float[DIMENSION];
+        genreIds.forEach(genreId -> add(genres, basis(GENRE, genreId), 1f));
+        addNormalized(vector, genres, GENRE_WEIGHT);
+
+        float[] artists = new float[DIMENSION];
+        if (artistId != null) {
+            add(artists, basis(ARTIST, artistId), 1f);
+        }
+        collaboratorIds.forEach(collaboratorId -> add(artists, basis(ARTIST, collaboratorId), COLLABORATOR_WEIGHT));
+        addNormalized(vector, artists, ARTIST_WEIGHT);
+        return vector;
+    }
+
+    /**
+     * Adds the co-listening part; the song's own vector is included so that it also resembles
+     * the songs that list it as a neighbour.
+     */
+    static void addCoListening(float[] vector, long songId, List<Long> neighbourIds, List<Float> similarities) {
+        float[] coListening = basis(SONG, songId);
+        for (int i = 0; i < neighbourIds.size(); i++) {
+            add(coListening, basis(SONG, neighbourIds.get(i)), similarities.get(i));
+        }
+        addNormalized(vector, coListening, CO_LISTENING_WEIGHT);
+    }
+
+    /**
+     * Scales to unit length; a song with no features gets its own random direction.
+     */
+    static float[] normalize(float[] vector, long songId) {
+        double norm = norm(vector);
+        if (norm == 0) {
+            return basis(SONG, songId);
+        }
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= (float) norm;
+        }
+        return vector;
+    }
+
+    private static float[] basis(long namespace, long id) {
+        SplittableRandom random = new SplittableRandom(namespace * 0x9E3779B97F4A7C15L ^ id);
+        float[] vector = new float[DIMENSION];
+        for (int i = 0; i < DIMENSION; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return normalize(vector, 0);
+    }
+
+    private static void addNormalized(float[] target, float[] component, float weight) {
+        double norm = norm(component);
+        if (norm > 0) {
+            add(target, component, (float) (weight / norm));
+        }
+    }
+
+    private static void add(float[] target, float[] component, float weight) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += component[i] * weight;
+        }
+    }
+
+    private static double norm(float[] vector) {
+        double sum = 0;
+        for (float value : vector) {
+            sum += value * value;
+        }
+        return Math.sqrt(sum);
+    }
+}
@@ -0,0 +1,89 @@
+package io.audira.catalog.service;
+
+import io.audira.catalog.model.Song;
+import io.audira.catalog.repository.SongPlayCountRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind play counter. Plays are summed per song in memory and added to
+ * {@code song_play_counts} in one batch every {@code catalog.plays.flush-interval-ms}, so a
+ * popular song costs one small upsert per interval instead of a locked song row per play.
+ * Stored counts, and everything derived from them, lag by at most one interval.
+ */
+@Component
+@RequiredArgsConstructor
+public class SongPlayCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SongPlayCounter.class);
+
+    private final SongPlayCountRepository songPlayCountRepository;
+    private final CatalogSearchIndex catalogSearchIndex;
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ConcurrentHashMap<Long, Long> pending = new ConcurrentHashMap<>();
+
+    public void add(Long songId, long plays) {
+        if (songId != null && plays > 0) {
+            pending.merge(songId, plays, Long::sum);
+        }
+    }
+
+    public long pending(Long songId) {
+        return pending.getOrDefault(songId, 0L);
+    }
+
+    /**
+     * Drops the count of a deleted song, including plays not flushed yet.
+     */
+    public void forgetAfterCommit(Long songId) {
+        AfterCommit.run("drop the play count of the song", () -> {
+            pending.remove(songId);
+            songPlayCountRepository.delete(songId);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.plays.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    public synchronized void flush() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Long songId : pending.keySet()) {
+            // Plays added after the removal start a new entry for the next flush
+            Long plays = pending.remove(songId);
+            if (plays != null) {
+                deltas.put(songId, plays);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            songPlayCountRepository.addAll(deltas);
+        } catch (RuntimeException ex) {
+            // The batch was rolled back: keep the deltas for the next attempt
+            deltas.forEach((songId, plays) -> pending.merge(songId, plays, Long::sum));
+            logger.error("Failed to flush the plays of {} songs", deltas.size(), ex);
+            return;
+        }
+        // Song.plays is read from the counters, so cached songs are stale now
+        deltas.keySet().forEach(songId -> entityManagerFactory.getCache().evict(Song.class, songId));
+        songPlayCountRepository.findPlays(deltas.keySet()).forEach(catalogSearchIndex::updatePopularity);
+    }
+}
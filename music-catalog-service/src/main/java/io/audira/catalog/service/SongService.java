@@ -5,13 +5,24 @@
     import lombok.RequiredArgsConstructor;
     import org.springframework.stereotype.Service;
     import org.springframework.transaction.annotation.Transactional;
+    import java.math.BigDecimal;
+    import java.util.Arrays;
     import java.util.List;
+    import java.util.Objects;
 
     @Service
     @RequiredArgsConstructor
     public class SongService {
 
         private final SongRepository songRepository;
+        private final GlobalMetricsPublisher globalMetricsPublisher;
+        private final CatalogSearchIndex catalogSearchIndex;
+        private final AutocompleteIndex autocompleteIndex;
+        private final TrendingService trendingService;
+        private final SimilarSongIndex similarSongIndex;
+        private final AlbumService albumService;
+        private final SongPlayCounter songPlayCounter;
+        private final FileReleasePublisher fileReleasePublisher;
 
         @Transactional
         public Song createSong(Song song) {
@@ -23,6 +34,13 @@
             System.out.println("  Artist ID: " + song.getArtistId());
 
             Song savedSong = songRepository.save(song);
+            if (savedSong.getAlbumId() != null && savedSong.getPrice() != null) {
+                albumService.refreshPrices(List.of(savedSong.getAlbumId()));
+            }
+            globalMetricsPublisher.publishAfterCommit(GlobalMetricsPublisher.Event.SONG_CREATED);
+            catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.SONG, savedSong.getId());
+            autocompleteIndex.songChangedAfterCommit(savedSong.getId());
+            similarSongIndex.songCreatedAfterCommit(savedSong.getId());
 
             System.out.println("Saved Song:");
             System.out.println("  ID: " + savedSong.getId());
@@ -38,25 +56,38 @@
                     .orElseThrow(() -> new RuntimeException("Song not found with id: " + id));
         }
 
-        public List<Song> getAllSongs() {
-            return songRepository.findAll();
+        /**
+         * Songs newest first, one keyset page at a time.
+         */
+        public CursorPage<Song> getAllSongs(String cursor, Integer limit) {
+            return CursorPage.fetch(cursor, PageCursor.Order.CREATED_AT, limit,
+                    (after, page) -> songRepository.findPageAfter(after.createdAt(), after.id(), page),
+                    SongService::cursorOf);
         }
 
-        public List<Song> getSongsByArtist(Long artistId) {
-            return songRepository.findByArtistId(artistId);
+        public CursorPage<Song> getSongsByArtist(Long artistId, String cursor, Integer limit) {
+            return CursorPage.fetch(cursor, PageCursor.Order.CREATED_AT, limit,
+                    (after, page) -> songRepository.findPageByArtistIdAfter(artistId, after.createdAt(), after.id(), page),
+                    SongService::cursorOf);
         }
 
         public List<Song> getSongsByAlbum(Long albumId) {
             return songRepository.findByAlbumId(albumId);
         }
 
-        public List<Song> getSongsByGenre(Long genreId) {
-            return songRepository.findByGenreId(genreId);
+        public CursorPage<Song> getSongsByGenre(Long genreId, String cursor, Integer limit) {
+            return CursorPage.fetch(cursor, PageCursor.Order.CREATED_AT, limit,
+                    (after, page) -> songRepository.findPageByGenreIdAfter(genreId, after.createdAt(), after.id(), page),
+                    SongService::cursorOf);
         }
 
         @Transactional
         public Song updateSong(Long id, Song updatedSong) {
             Song existingSong = getSongById(id);
+            Long previousAlbumId = existingSong.getAlbumId();
+            BigDecimal previousPrice = existingSong.getPrice();
+            String previousCoverImageUrl = existingSong.getCoverImageUrl();
+            String previousAudioUrl = existingSong.getAudioUrl();
 
             // Log para debugging
             System.out.println("=== UPDATE SONG DEBUG ===");
@@ -103,6 +134,18 @@
             }
 
             Song savedSong = songRepository.save(existingSong);
+            if (!Objects.equals(previousAlbumId, savedSong.getAlbumId())
+                    || !samePrice(previousPrice, savedSong.getPrice())) {
+                albumService.refreshPrices(Arrays.asList(previousAlbumId, savedSong.getAlbumId()));
+            }
+            catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.SONG, id);
+            trendingService.forgetAfterCommit(TrendingService.Scope.SONG, id, false);
+            fileReleasePublisher.releaseAfterCommit(
+                    Objects.equals(previousCoverImageUrl, savedSong.getCoverImageUrl()) ? null : previousCoverImageUrl,
+                    Objects.equals(previousAudioUrl, savedSong.getAudioUrl()) ? null : previousAudioUrl);
+            if (updatedSong.getTitle() != null && !updatedSong.getTitle().isEmpty()) {
+                autocompleteIndex.songChangedAfterCommit(id);
+            }
             System.out.println("Saved coverImageUrl: " + savedSong.getCoverImageUrl());
             System.out.println("========================");
 
@@ -111,22 +154,41 @@
 
         @Transactional
         public void deleteSong(Long id) {
-            songRepository.deleteById(id);
+            Song song = songRepository.findById(id).orElse(null);
+            if (song != null) {
+                songRepository.delete(song);
+                if (song.getAlbumId() != null) {
+                    albumService.refreshPrices(List.of(song.getAlbumId()));
+                }
+                globalMetricsPublisher.publishAfterCommit(GlobalMetricsPublisher.Event.SONG_DELETED);
+                catalogSearchIndex.reindexAfterCommit(CatalogSearchIndex.Type.SONG, id);
+                autocompleteIndex.songChangedAfterCommit(id);
+                trendingService.forgetAfterCommit(TrendingService.Scope.SONG, id, true);
+                similarSongIndex.songDeletedAfterCommit(id);
+                songPlayCounter.forgetAfterCommit(id);
+                fileReleasePublisher.releaseAfterCommit(song.getCoverImageUrl(), song.getAudioUrl());
+            }
+        }
+
+        public long countSongs() {
+            return songRepository.count();
         }
 
         public List<Song> searchSongs(String query) {
-            return songRepository.searchByTitleOrArtist(query);
+            List<Long> ids = catalogSearchIndex.search(CatalogSearchIndex.Type.SONG, query, 0, DiscoveryService.MAX_PAGE_SIZE);
+            return CatalogSearchIndex.inRankOrder(ids, songRepository.findAllById(ids));
         }
 
-        @Transactional
         public void incrementPlays(Long songId) {
-            Song song = getSongById(songId);
-            song.setPlays(song.getPlays() + 1);
-            songRepository.save(song);
+            songPlayCounter.add(songId, 1);
+        }
+
+        private static PageCursor cursorOf(Song song) {
+            return PageCursor.ofCreatedAt(song.getCreatedAt(), song.getId());
         }
 
-        public List<Song> getTopSongsByPlays() {
-            return songRepository.findTopByPlays();
+        private static boolean samePrice(BigDecimal a, BigDecimal b) {
+            return a == null ? b == null : b != null && a.compareTo(b) == 0;
         }
 
         public List<Song> getSongsByAlbumOrdered(Long albumId) {
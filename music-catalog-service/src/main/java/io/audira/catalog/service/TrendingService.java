@@ -0,0 +1,473 @@
+package io.audira.catalog.service;
+
+import io.audira.catalog.dto.TrendingEntryDTO;
+import io.audira.catalog.model.Album;
+import io.audira.catalog.model.Song;
+import io.audira.catalog.model.TrendingScore;
+import io.audira.catalog.model.TrendingSignal;
+import io.audira.catalog.repository.AlbumRepository;
+import io.audira.catalog.repository.SongRepository;
+import io.audira.catalog.repository.TrendingScoreRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Exponentially time-decayed trending scores for songs, albums, artists and genres.
+ * <p>
+ * Every score is kept relative to a shared reference time, so decay never has to be applied
+ * to stored scores: an event adds {@code weight * e^(λ(t - t0))}, and scores only grow. That
+ * keeps bounded top-K sets exact under updates. The reference is moved forward when snapshots
+ * are taken, which also prunes scores that have decayed away.
+ * <p>
+ * The trending song and album lists are materialized from the top-K sets in the background,
+ * so requests are answered from memory.
+ */
+@Service
+public class TrendingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TrendingService.class);
+
+    // Scores below this (a hundredth of a play) are forgotten on rebase
+    private static final double PRUNE_BELOW = 0.01;
+    // Rebase before e^exponent gets anywhere near overflowing a double
+    private static final double MAX_EXPONENT = 40.0;
+    private static final int FACTS_BATCH = 1000;
+
+    public enum Scope {
+        SONG,
+        ALBUM,
+        ARTIST,
+        GENRE
+    }
+
+    private record SongFacts(Long albumId, Long artistId, Set<Long> genreIds) {
+    }
+
+    private record AlbumFacts(Long artistId, Set<Long> genreIds) {
+    }
+
+    private record Ranked(long id, double score) {
+    }
+
+    /**
+     * The best {@code capacity} entries seen so far. Exact as long as scores only increase:
+     * an entry outside the set can only get in by beating the current minimum.
+     */
+    private static final class TopK {
+        private static final Comparator<Ranked> ORDER =
+                Comparator.comparingDouble(Ranked::score).thenComparingLong(Ranked::id);
+
+        private final int capacity;
+        private final Map<Long, Double> members = new HashMap<>();
+        private final TreeSet<Ranked> ordered = new TreeSet<>(ORDER);
+
+        TopK(int capacity) {
+            this.capacity = capacity;
+        }
+
+        void offer(long id, double score) {
+            Double current = members.get(id);
+            if (current != null) {
+                ordered.remove(new Ranked(id, current));
+            } else if (members.size() >= capacity) {
+                Ranked lowest = ordered.first();
+                if (score <= lowest.score()) {
+                    return;
+                }
+                ordered.pollFirst();
+                members.remove(lowest.id());
+            }
+            members.put(id, score);
+            ordered.add(new Ranked(id, score));
+        }
+
+        void remove(long id) {
+            Double current = members.remove(id);
+            if (current != null) {
+                ordered.remove(new Ranked(id, current));
+            }
+        }
+
+        List<Ranked> top(int limit) {
+            List<Ranked> top = new ArrayList<>(Math.min(limit, ordered.size()));
+            Iterator<Ranked> best = ordered.descendingIterator();
+            while (best.hasNext() && top.size() < limit) {
+                top.add(best.next());
+            }
+            return top;
+        }
+    }
+
+    private final SongRepository songRepository;
+    private final AlbumRepository albumRepository;
+    private final TrendingScoreRepository trendingScoreRepository;
+    private final double decayPerMilli;
+    private final int capacity;
+
+    // Guarded by this
+    private long referenceMillis = System.currentTimeMillis();
+    private final Map<Scope, Map<Long, Double>> scores = new EnumMap<>(Scope.class);
+    private final Map<Scope, TopK> global = new EnumMap<>(Scope.class);
+    private final Map<Long, TopK> songsByGenre = new HashMap<>();
+    private final Map<Long, TopK> albumsByGenre = new HashMap<>();
+    private boolean restored;
+
+    private final ConcurrentHashMap<Long, SongFacts> songFacts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, AlbumFacts> albumFacts = new ConcurrentHashMap<>();
+
+    // Materialized responses, swapped in by refreshViews
+    private volatile List<Song> songsView = List.of();
+    private volatile List<Album> albumsView = List.of();
+    private final ConcurrentHashMap<Long, List<Song>> genreSongViews = new ConcurrentHashMap<>();
+    private volatile boolean dirty;
+
+    public TrendingService(SongRepository songRepository,
+                           AlbumRepository albumRepository,
+                           TrendingScoreRepository trendingScoreRepository,
+                           @Value("${trending.half-life-hours:48}") double halfLifeHours,
+                           @Value("${trending.top-k:100}") int capacity) {
+        this.songRepository = songRepository;
+        this.albumRepository = albumRepository;
+        this.trendingScoreRepository = trendingScoreRepository;
+        this.decayPerMilli = Math.log(2) / (halfLifeHours * 3_600_000);
+        this.capacity = capacity;
+        for (Scope scope : Scope.values()) {
+            scores.put(scope, new HashMap<>());
+            global.put(scope, new TopK(capacity));
+        }
+    }
+
+    /**
+     * Adds a listener action on a song or album to its own score and to the scores of its
+     * album, artist and genres. Unknown ids are ignored.
+     *
+     * @param rating stars from 1 to 5, only for {@link TrendingSignal#RATING}
+     */
+    public void record(TrendingSignal signal, Scope target, Long id, int count, Integer rating) {
+        double weight = signal.getWeight() * count;
+        if (signal == TrendingSignal.RATING) {
+            weight *= Math.max(0, (rating != null ? rating : 0) - 2);
+        }
+        if (weight <= 0 || id == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+
+        if (target == Scope.SONG) {
+            SongFacts song = songFacts(id);
+            if (song == null) {
+                return;
+            }
+            AlbumFacts album = song.albumId() != null ? albumFacts(song.albumId()) : null;
+            synchronized (this) {
+                double boosted = boost(weight, now);
+                bump(Scope.SONG, id, boosted, song.genreIds());
+                if (album != null) {
+                    bump(Scope.ALBUM, song.albumId(), boosted, album.genreIds());
+                }
+                bump(Scope.ARTIST, song.artistId(), boosted, null);
+                song.genreIds().forEach(genreId -> bump(Scope.GENRE, genreId, boosted, null));
+            }
+        } else if (target == Scope.ALBUM) {
+            AlbumFacts album = albumFacts(id);
+            if (album == null) {
+                return;
+            }
+            synchronized (this) {
+                double boosted = boost(weight, now);
+                bump(Scope.ALBUM, id, boosted, album.genreIds());
+                bump(Scope.ARTIST, album.artistId(), boosted, null);
+                album.genreIds().forEach(genreId -> bump(Scope.GENRE, genreId, boosted, null));
+            }
+        } else {
+            throw new IllegalArgumentException("Trending events target songs or albums, not " + target);
+        }
+        dirty = true;
+    }
+
+    public List<Song> trendingSongs(int limit) {
+        List<Song> view = songsView;
+        return view.subList(0, Math.min(Math.max(limit, 0), view.size()));
+    }
+
+    public List<Album> trendingAlbums(int limit) {
+        List<Album> view = albumsView;
+        return view.subList(0, Math.min(Math.max(limit, 0), view.size()));
+    }
+
+    /**
+     * Served from memory after the first request for a genre, which materializes its view.
+     */
+    public List<Song> trendingSongsInGenre(Long genreId, int limit) {
+        List<Song> view = genreSongViews.get(genreId);
+        if (view == null) {
+            view = loadSongs(topIds(songsByGenre, genreId));
+            genreSongViews.putIfAbsent(genreId, view);
+        }
+        return view.subList(0, Math.min(Math.max(limit, 0), view.size()));
+    }
+
+    public List<TrendingEntryDTO> trendingArtists(int limit) {
+        return entries(Scope.ARTIST, limit);
+    }
+
+    public List<TrendingEntryDTO> trendingGenres(int limit) {
+        return entries(Scope.GENRE, limit);
+    }
+
+    /**
+     * Drops cached song or album facts once the current transaction commits, so the next event
+     * uses the new album, artist and genres; a deleted entry also loses its score.
+     */
+    public void forgetAfterCommit(Scope scope, Long id, boolean deleted) {
+        AfterCommit.run("update the trending scores", () -> {
+            if (scope == Scope.SONG) {
+                songFacts.remove(id);
+            } else if (scope == Scope.ALBUM) {
+                albumFacts.remove(id);
+            }
+            if (deleted) {
+                synchronized (this) {
+                    scores.get(scope).remove(id);
+                    global.get(scope).remove(id);
+                    songsByGenre.values().forEach(top -> top.remove(id));
+                    albumsByGenre.values().forEach(top -> top.remove(id));
+                }
+                dirty = true;
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${trending.view-refresh-ms:10000}")
+    public void refreshViews() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        List<Long> songIds;
+        List<Long> albumIds;
+        synchronized (this) {
+            songIds = global.get(Scope.SONG).top(capacity).stream().map(Ranked::id).toList();
+            albumIds = global.get(Scope.ALBUM).top(capacity).stream().map(Ranked::id).toList();
+        }
+        songsView = loadSongs(songIds);
+        albumsView = CatalogSearchIndex.inRankOrder(albumIds, albumRepository.findAllById(albumIds));
+        for (Long genreId : genreSongViews.keySet()) {
+            genreSongViews.put(genreId, loadSongs(topIds(songsByGenre, genreId)));
+        }
+    }
+
+    /**
+     * Moves the reference time to now, pruning decayed scores, and persists every score.
+     */
+    @Scheduled(initialDelayString = "${trending.snapshot-interval-ms:300000}",
+            fixedDelayString = "${trending.snapshot-interval-ms:300000}")
+    public void snapshot() {
+        long now;
+        List<TrendingScore> rows = new ArrayList<>();
+        synchronized (this) {
+            if (!restored) {
+                return;
+            }
+            now = System.currentTimeMillis();
+            rebase(now);
+            scores.forEach((scope, byId) -> byId.forEach((id, score) -> rows.add(TrendingScore.builder()
+                    .scope(scope.name())
+                    .entityId(id)
+                    .score(score)
+                    .build())));
+        }
+        try {
+            trendingScoreRepository.replaceAll(rows,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZoneId.systemDefault()));
+        } catch (RuntimeException ex) {
+            logger.error("Failed to snapshot trending scores", ex);
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        snapshot();
+    }
+
+    /**
+     * Reloads the last snapshot, decayed by the time elapsed since it was taken.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<TrendingScore> stored = trendingScoreRepository.findAll();
+        loadSongFacts(stored.stream().filter(row -> Scope.SONG.name().equals(row.getScope()))
+                .map(TrendingScore::getEntityId).toList());
+        loadAlbumFacts(stored.stream().filter(row -> Scope.ALBUM.name().equals(row.getScope()))
+                .map(TrendingScore::getEntityId).toList());
+
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            // Events recorded while starting up are kept
+            rebase(now);
+            for (TrendingScore row : stored) {
+                long takenAt = row.getTakenAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                double decayed = row.getScore() * Math.exp(-decayPerMilli * Math.max(0, now - takenAt));
+                if (decayed >= PRUNE_BELOW) {
+                    scores.get(Scope.valueOf(row.getScope())).merge(row.getEntityId(), decayed, Double::sum);
+                }
+            }
+            rebuildTops();
+            restored = true;
+        }
+        dirty = true;
+        refreshViews();
+        logger.info("Restored {} trending scores", stored.size());
+    }
+
+    private double boost(double weight, long now) {
+        double exponent = decayPerMilli * (now - referenceMillis);
+        if (exponent > MAX_EXPONENT) {
+            rebase(now);
+            exponent = 0;
+        }
+        return weight * Math.exp(exponent);
+    }
+
+    private void bump(Scope scope, Long id, double delta, Set<Long> genreIds) {
+        if (id == null) {
+            return;
+        }
+        double score = scores.get(scope).merge(id, delta, Double::sum);
+        global.get(scope).offer(id, score);
+        Map<Long, TopK> byGenre = scope == Scope.SONG ? songsByGenre : scope == Scope.ALBUM ? albumsByGenre : null;
+        if (byGenre != null && genreIds != null) {
+            for (Long genreId : genreIds) {
+                byGenre.computeIfAbsent(genreId, ignored -> new TopK(capacity)).offer(id, score);
+            }
+        }
+    }
+
+    private void rebase(long now) {
+        double factor = Math.exp(-decayPerMilli * (now - referenceMillis));
+        for (Scope scope : Scope.values()) {
+            Map<Long, Double> byId = scores.get(scope);
+            byId.replaceAll((id, score) -> score * factor);
+            byId.values().removeIf(score -> score < PRUNE_BELOW);
+        }
+        referenceMillis = now;
+        songFacts.keySet().retainAll(scores.get(Scope.SONG).keySet());
+        albumFacts.keySet().retainAll(scores.get(Scope.ALBUM).keySet());
+        rebuildTops();
+    }
+
+    private void rebuildTops() {
+        global.replaceAll((scope, top) -> new TopK(capacity));
+        songsByGenre.clear();
+        albumsByGenre.clear();
+        scores.get(Scope.SONG).forEach((id, score) -> {
+            SongFacts facts = songFacts.get(id);
+            bumpTops(Scope.SONG, id, score, facts != null ? facts.genreIds() : null);
+        });
+        scores.get(Scope.ALBUM).forEach((id, score) -> {
+            AlbumFacts facts = albumFacts.get(id);
+            bumpTops(Scope.ALBUM, id, score, facts != null ? facts.genreIds() : null);
+        });
+        scores.get(Scope.ARTIST).forEach((id, score) -> global.get(Scope.ARTIST).offer(id, score));
+        scores.get(Scope.GENRE).forEach((id, score) -> global.get(Scope.GENRE).offer(id, score));
+    }
+
+    private void bumpTops(Scope scope, long id, double score, Set<Long> genreIds) {
+        global.get(scope).offer(id, score);
+        if (genreIds != null) {
+            Map<Long, TopK> byGenre = scope == Scope.SONG ? songsByGenre : albumsByGenre;
+            for (Long genreId : genreIds) {
+                byGenre.computeIfAbsent(genreId, ignored -> new TopK(capacity)).offer(id, score);
+            }
+        }
+    }
+
+    private synchronized List<Long> topIds(Map<Long, TopK> byGenre, Long genreId) {
+        TopK top = byGenre.get(genreId);
+        return top == null ? List.of() : top.top(capacity).stream().map(Ranked::id).toList();
+    }
+
+    private List<TrendingEntryDTO> entries(Scope scope, int limit) {
+        List<Ranked> top;
+        double decay;
+        synchronized (this) {
+            top = global.get(scope).top(Math.min(Math.max(limit, 0), capacity));
+            decay = Math.exp(-decayPerMilli * (System.currentTimeMillis() - referenceMillis));
+        }
+        return top.stream().map(ranked -> new TrendingEntryDTO(ranked.id(), ranked.score() * decay)).toList();
+    }
+
+    private List<Song> loadSongs(List<Long> ids) {
+        return ids.isEmpty() ? List.of() : CatalogSearchIndex.inRankOrder(ids, songRepository.findAllById(ids));
+    }
+
+    private SongFacts songFacts(Long songId) {
+        SongFacts facts = songFacts.get(songId);
+        if (facts == null) {
+            loadSongFacts(List.of(songId));
+            facts = songFacts.get(songId);
+        }
+        return facts;
+    }
+
+    private AlbumFacts albumFacts(Long albumId) {
+        AlbumFacts facts = albumFacts.get(albumId);
+        if (facts == null) {
+            loadAlbumFacts(List.of(albumId));
+            facts = albumFacts.get(albumId);
+        }
+        return facts;
+    }
+
+    private void loadSongFacts(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += FACTS_BATCH) {
+            List<Long> batch = all.subList(from, Math.min(from + FACTS_BATCH, all.size()));
+            Map<Long, Set<Long>> genres = groupGenres(songRepository.findGenreIdsByIds(batch));
+            for (Object[] row : songRepository.findFactsByIds(batch)) {
+                Long id = (Long) row[0];
+                songFacts.put(id, new SongFacts((Long) row[1], (Long) row[2], genres.getOrDefault(id, Set.of())));
+            }
+        }
+    }
+
+    private void loadAlbumFacts(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += FACTS_BATCH) {
+            List<Long> batch = all.subList(from, Math.min(from + FACTS_BATCH, all.size()));
+            Map<Long, Set<Long>> genres = groupGenres(albumRepository.findGenreIdsByIds(batch));
+            for (Object[] row : albumRepository.findFactsByIds(batch)) {
+                Long id = (Long) row[0];
+                albumFacts.put(id, new AlbumFacts((Long) row[1], genres.getOrDefault(id, Set.of())));
+            }
+        }
+    }
+
+    private static Map<Long, Set<Long>> groupGenres(List<Object[]> rows) {
+        Map<Long, Set<Long>> genres = new HashMap<>();
+        rows.forEach(row -> genres.computeIfAbsent((Long) row[0], ignored -> new HashSet<>()).add((Long) row[1]));
+        return genres;
+    }
+}
@@ -0,0 +1,125 @@
+package io.audira.catalog.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Fixed-dimension float vectors in a memory-mapped file, so they live off-heap and survive
+ * restarts without being reloaded. The file grows by remapping; a single mapping limits it
+ * to 2 GB. Callers synchronize access.
+ */
+final class VectorStore implements Closeable {
+
+    private final int dimension;
+    private final FileChannel channel;
+    // Bulk copies out of the mapping are much faster than element-wise reads
+    private final ThreadLocal<float[][]> scratch;
+    private FloatBuffer floats;
+    private int capacity;
+
+    private VectorStore(int dimension, FileChannel channel, int capacity) throws IOException {
+        this.dimension = dimension;
+        this.channel = channel;
+        this.scratch = ThreadLocal.withInitial(() -> new float[][]{new float[dimension], new float[dimension]});
+        map(capacity);
+    }
+
+    /**
+     * Opens the file, creating it if needed; existing vectors are kept.
+     */
+    static VectorStore open(Path file, int dimension, int initialCapacity) {
+        try {
+            FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            int existing = (int) (channel.size() / (4L * dimension));
+            return new VectorStore(dimension, channel, Math.max(existing, initialCapacity));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open vector file " + file, ex);
+        }
+    }
+
+    int dimension() {
+        return dimension;
+    }
+
+    void set(int node, float[] vector) {
+        ensureCapacity(node + 1);
+        int base = node * dimension;
+        for (int i = 0; i < dimension; i++) {
+            floats.put(base + i, vector[i]);
+        }
+    }
+
+    float[] get(int node) {
+        float[] vector = new float[dimension];
+        floats.get(node * dimension, vector);
+        return vector;
+    }
+
+    float dot(int node, float[] vector) {
+        float[] stored = scratch.get()[0];
+        floats.get(node * dimension, stored, 0, dimension);
+        return dot(stored, vector);
+    }
+
+    float dot(int a, int b) {
+        float[][] buffers = scratch.get();
+        floats.get(a * dimension, buffers[0], 0, dimension);
+        floats.get(b * dimension, buffers[1], 0, dimension);
+        return dot(buffers[0], buffers[1]);
+    }
+
+    void force() {
+        try {
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not flush vector file", ex);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not close vector file", ex);
+        }
+    }
+
+    private float dot(float[] a, float[] b) {
+        float sum = 0f;
+        for (int i = 0; i < dimension; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private void ensureCapacity(int nodes) {
+        if (nodes <= capacity) {
+            return;
+        }
+        long grown = Math.max(nodes, (long) capacity * 2);
+        long maxNodes = Integer.MAX_VALUE / (4L * dimension);
+        if (nodes > maxNodes) {
+            throw new IllegalStateException("Vector file is full at " + maxNodes + " vectors");
+        }
+        try {
+            map((int) Math.min(grown, maxNodes));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not grow vector file", ex);
+        }
+    }
+
+    private void map(int nodes) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, 4L * dimension * nodes);
+        floats = buffer.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        capacity = nodes;
+    }
+}
@@ -0,0 +1,48 @@
+package io.audira.playback.config;
+
+import io.audira.playback.dto.RecommendationEvaluationDTO;
+import io.audira.playback.service.RecommendationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Measures the offline hit-rate of the recommender at startup and logs it. Training the
+ * evaluation model costs as much as a full rebuild, so it only runs when
+ * {@code recommendations.evaluation.enabled} is set.
+ */
+@Component
+@ConditionalOnProperty(name = "recommendations.evaluation.enabled", havingValue = "true")
+public class RecommendationEvaluationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationEvaluationRunner.class);
+
+    private final RecommendationService recommendationService;
+    private final int holdoutDays;
+    private final int k;
+    private final int users;
+
+    public RecommendationEvaluationRunner(RecommendationService recommendationService,
+                                          @Value("${recommendations.evaluation.holdout-days:7}") int holdoutDays,
+                                          @Value("${recommendations.evaluation.k:10}") int k,
+                                          @Value("${recommendations.evaluation.users:1000}") int users) {
+        this.recommendationService = recommendationService;
+        this.holdoutDays = holdoutDays;
+        this.k = k;
+        this.users = users;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        RecommendationEvaluationDTO result = recommendationService.evaluate(holdoutDays, k, users);
+        logger.info("Recommendation hit-rate@{} since {}: {} ({} of {} users), popularity baseline {}, "
+                        + "{} songs in model trained in {} ms",
+                result.getK(), result.getCutoff(), result.getHitRate(), result.getHits(),
+                result.getUsersEvaluated(), result.getPopularityHitRate(), result.getSongsInModel(),
+                result.getTrainingMillis());
+    }
+}
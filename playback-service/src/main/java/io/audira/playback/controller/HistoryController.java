@@ -1,8 +1,13 @@
 package io.audira.playback.controller;
 
-import io.audira.playback.model.PlayHistory;
+import io.audira.playback.dto.PlayEventRequest;
+import io.audira.playback.dto.PlayHistoryPageDTO;
 import io.audira.playback.service.HistoryService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
@@ -12,26 +17,46 @@ import java.util.List;
 @RequiredArgsConstructor
 public class HistoryController {
 
+    private static final int MAX_BATCH = 1000;
+
     private final HistoryService historyService;
 
+    // Las reproducciones se escriben en lotes de forma asíncrona: 202 si se aceptan y 503 con
+    // Retry-After si el búfer de ingesta está lleno
     @PostMapping
-    public ResponseEntity<PlayHistory> recordPlay(
+    public ResponseEntity<Void> recordPlay(
             @RequestParam Long userId,
             @RequestParam Long songId,
             @RequestParam Integer completionPercentage) {
-        return ResponseEntity.ok(historyService.recordPlay(userId, songId, completionPercentage));
+        return accepted(historyService.recordPlay(userId, songId, completionPercentage));
+    }
+
+    // Reproducciones acumuladas por el cliente (por ejemplo sin conexión); se aceptan todas o ninguna
+    @PostMapping("/batch")
+    public ResponseEntity<Void> recordPlays(
+            @RequestBody @Size(max = MAX_BATCH) List<@Valid PlayEventRequest> events) {
+        return accepted(historyService.recordPlays(events));
     }
 
+    // Historial paginado por cursor, de más reciente a más antiguo (limit máx. 100).
+    // before devuelve las reproducciones anteriores al cursor y after las posteriores;
+    // la respuesta trae los cursores para seguir en cada sentido
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<PlayHistory>> getUserHistory(@PathVariable Long userId) {
-        return ResponseEntity.ok(historyService.getUserHistory(userId));
+    public ResponseEntity<PlayHistoryPageDTO> getUserHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(historyService.getUserHistory(userId, before, after, limit));
     }
 
     @GetMapping("/user/{userId}/recent")
-    public ResponseEntity<List<PlayHistory>> getRecentHistory(
+    public ResponseEntity<PlayHistoryPageDTO> getRecentHistory(
             @PathVariable Long userId,
-            @RequestParam(defaultValue = "20") Integer limit) {
-        return ResponseEntity.ok(historyService.getRecentHistory(userId, limit));
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(historyService.getUserHistory(userId, before, after, limit));
     }
 
     @DeleteMapping("/user/{userId}")
@@ -39,4 +64,10 @@ public class HistoryController {
         historyService.clearHistory(userId);
         return ResponseEntity.noContent().build();
     }
+
+    private static ResponseEntity<Void> accepted(boolean accepted) {
+        return accepted
+                ? ResponseEntity.accepted().build()
+                : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+    }
 }
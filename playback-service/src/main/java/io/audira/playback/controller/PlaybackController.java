@@ -1,10 +1,14 @@
 package io.audira.playback.controller;
 
 import io.audira.playback.model.PlaybackSession;
+import io.audira.playback.service.PlaybackEventBroadcaster;
 import io.audira.playback.service.PlaybackService;
+import io.audira.playback.service.QueueService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import java.util.List;
 
 @RestController
@@ -13,6 +17,8 @@ import java.util.List;
 public class PlaybackController {
 
     private final PlaybackService playbackService;
+    private final QueueService queueService;
+    private final PlaybackEventBroadcaster playbackEventBroadcaster;
 
     @PostMapping("/play")
     public ResponseEntity<PlaybackSession> play(
@@ -39,6 +45,15 @@ public class PlaybackController {
         return ResponseEntity.ok(playbackService.seek(sessionId, time));
     }
 
+    // Posición actual del cliente cada pocos segundos; se guarda en memoria, no en la base de datos
+    @PutMapping("/{sessionId}/heartbeat")
+    public ResponseEntity<PlaybackSession> heartbeat(
+            @PathVariable Long sessionId,
+            @RequestParam Integer time,
+            @RequestParam(required = false) Boolean playing) {
+        return ResponseEntity.ok(playbackService.heartbeat(sessionId, time, playing));
+    }
+
     @DeleteMapping("/{sessionId}")
     public ResponseEntity<Void> stop(@PathVariable Long sessionId) {
         playbackService.stopPlayback(sessionId);
@@ -54,6 +69,14 @@ public class PlaybackController {
         return ResponseEntity.ok(session);
     }
 
+    // Flujo SSE con los cambios de sesión y de cola del usuario, para sincronizar sus dispositivos.
+    // Empieza con el estado actual; eventos: session, session-ended y queue
+    @GetMapping(value = "/events/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@PathVariable Long userId) {
+        return playbackEventBroadcaster.connect(userId, playbackService.getCurrentSession(userId),
+                queueService.findUserQueue(userId).orElse(null));
+    }
+
     @GetMapping("/sessions/{userId}")
     public ResponseEntity<List<PlaybackSession>> getUserSessions(@PathVariable Long userId) {
         return ResponseEntity.ok(playbackService.getUserSessions(userId));
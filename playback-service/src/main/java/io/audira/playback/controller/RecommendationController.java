@@ -0,0 +1,32 @@
+package io.audira.playback.controller;
+
+import io.audira.playback.dto.NeighboursPageDTO;
+import io.audira.playback.service.RecommendationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/recommendations")
+@RequiredArgsConstructor
+public class RecommendationController {
+
+    private final RecommendationService recommendationService;
+
+    // Ids de canciones recomendadas a partir de las escuchas recientes del usuario
+    @GetMapping("/user/{userId}")
+    public ResponseEntity<List<Long>> getRecommendations(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(recommendationService.recommend(userId, Math.min(limit, 100)));
+    }
+
+    // Exportación paginada de los vecinos de cada canción (la usa music-catalog-service para sus embeddings)
+    @GetMapping("/neighbours")
+    public ResponseEntity<NeighboursPageDTO> getNeighbours(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "1000") int limit) {
+        return ResponseEntity.ok(recommendationService.neighbours(Math.max(offset, 0), Math.min(Math.max(limit, 1), 5000)));
+    }
+}
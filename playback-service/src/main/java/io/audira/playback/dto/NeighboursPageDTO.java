@@ -0,0 +1,16 @@
+package io.audira.playback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NeighboursPageDTO {
+    private List<SongNeighboursDTO> items;
+    // Offset of the next page, or null after the last one
+    private Integer nextOffset;
+}
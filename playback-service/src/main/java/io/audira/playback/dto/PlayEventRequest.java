@@ -0,0 +1,33 @@
+package io.audira.playback.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A play reported by a client, possibly buffered while it was offline.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayEventRequest {
+
+    @NotNull
+    private Long userId;
+
+    @NotNull
+    private Long songId;
+
+    @NotNull
+    @DecimalMin("0.0")
+    @DecimalMax("100.0")
+    private Double completionPercentage;
+
+    // When the song was played; defaults to the time the server accepts the event
+    private LocalDateTime playedAt;
+}
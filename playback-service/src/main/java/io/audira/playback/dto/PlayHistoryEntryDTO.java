@@ -0,0 +1,20 @@
+package io.audira.playback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A play as listed in a user's history, read as a projection without loading the entity.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayHistoryEntryDTO {
+    private Long id;
+    private Long songId;
+    private LocalDateTime playedAt;
+    private Double completionPercentage;
+}
@@ -0,0 +1,19 @@
+package io.audira.playback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayHistoryPageDTO {
+    // Newest first
+    private List<PlayHistoryEntryDTO> items;
+    // Cursor for older plays, or null when there are none
+    private String before;
+    // Cursor for plays newer than this page, to poll or scroll back up; null on an empty first page
+    private String after;
+}
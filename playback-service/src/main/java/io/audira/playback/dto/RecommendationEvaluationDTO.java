@@ -0,0 +1,28 @@
+package io.audira.playback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Offline hit-rate of the recommender: trained on everything before {@code cutoff}, a user is a
+ * hit when one of their top-k recommendations is a song they played after it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecommendationEvaluationDTO {
+    private LocalDateTime cutoff;
+    private Integer k;
+    private Integer usersEvaluated;
+    private Integer hits;
+    private Double hitRate;
+    // Same metric recommending the most played songs, for comparison
+    private Double popularityHitRate;
+    private Integer songsInModel;
+    private Long trainingMillis;
+}
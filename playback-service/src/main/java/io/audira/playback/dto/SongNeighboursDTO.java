@@ -0,0 +1,19 @@
+package io.audira.playback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Co-listening neighbours of a song with their cosine similarities, best first.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SongNeighboursDTO {
+    private Long songId;
+    private List<Long> neighbourIds;
+    private List<Float> similarities;
+}
@@ -0,0 +1,43 @@
+package io.audira.playback.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Plays of a song by a user on one day, compacted from {@code play_history} partitions once
+ * they fall out of the retention window.
+ */
+@Entity
+@Table(name = "play_history_daily",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"user_id", "song_id", "day"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayHistoryDaily {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "song_id", nullable = false)
+    private Long songId;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Long plays;
+
+    // Sum of the completion percentages, so averages survive later merges
+    @Column(name = "completion_sum", nullable = false)
+    private Double completionSum;
+}
@@ -0,0 +1,149 @@
+package io.audira.playback.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streams plays, playlists and favourites as ordered song sequences for the recommender.
+ * The streaming methods run in a read-only transaction so the driver can fetch with a cursor.
+ */
+@Repository
+public class ListeningSequenceRepository {
+
+    @FunctionalInterface
+    public interface SequenceHandler {
+        void accept(long key, long[] songIds);
+    }
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ListeningSequenceRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    public long maxPlayId() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM play_history", Long.class);
+        return max != null ? max : 0L;
+    }
+
+    /**
+     * Plays with {@code afterId < id <= upToId}, grouped per user in time order.
+     *
+     * @param before only plays before this time, or {@code null} for all
+     */
+    @Transactional(readOnly = true)
+    public void forEachUserPlays(long afterId, long upToId, LocalDateTime before, double minCompletion,
+                                 SequenceHandler handler) {
+        String sql = "SELECT user_id, song_id FROM play_history"
+                + " WHERE id > ? AND id <= ? AND completion_percentage >= ?"
+                + (before != null ? " AND played_at < ?" : "")
+                + " ORDER BY user_id, played_at, id";
+        List<Object> args = new ArrayList<>(List.of(afterId, upToId, minCompletion));
+        if (before != null) {
+            args.add(Timestamp.valueOf(before));
+        }
+        stream(sql, handler, args.toArray());
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachPlaylist(LocalDateTime before, SequenceHandler handler) {
+        String sql = "SELECT playlist_id, song_id FROM playlist_songs"
+                + (before != null ? " WHERE added_at < ?" : "")
+                + " ORDER BY playlist_id, position";
+        stream(sql, handler, before != null ? new Object[]{Timestamp.valueOf(before)} : new Object[0]);
+    }
+
+    @Transactional(readOnly = true)
+    public void forEachUserFavourites(LocalDateTime before, SequenceHandler handler) {
+        String sql = "SELECT user_id, item_id FROM library_items WHERE item_type = 'SONG' AND is_favorite"
+                + (before != null ? " AND added_at < ?" : "")
+                + " ORDER BY user_id, added_at";
+        stream(sql, handler, before != null ? new Object[]{Timestamp.valueOf(before)} : new Object[0]);
+    }
+
+    /**
+     * Songs of the latest plays of a user, most recent first.
+     *
+     * @param upToId only plays with an id up to this one
+     * @param before only plays before this time, or {@code null} for all
+     */
+    public long[] recentSongs(long userId, long upToId, LocalDateTime before, double minCompletion, int limit) {
+        String sql = "SELECT song_id FROM play_history"
+                + " WHERE user_id = ? AND id <= ? AND completion_percentage >= ?"
+                + (before != null ? " AND played_at < ?" : "")
+                + " ORDER BY played_at DESC, id DESC LIMIT ?";
+        List<Object> args = new ArrayList<>(List.of(userId, upToId, minCompletion));
+        if (before != null) {
+            args.add(Timestamp.valueOf(before));
+        }
+        args.add(limit);
+        return jdbcTemplate.queryForList(sql, Long.class, args.toArray()).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public long[] songsPlayedSince(long userId, LocalDateTime since, double minCompletion) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT song_id FROM play_history"
+                                + " WHERE user_id = ? AND played_at >= ? AND completion_percentage >= ?",
+                        Long.class, userId, Timestamp.valueOf(since), minCompletion)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    public List<Long> usersActiveSince(LocalDateTime since, double minCompletion, int limit) {
+        return jdbcTemplate.queryForList("SELECT DISTINCT user_id FROM play_history"
+                        + " WHERE played_at >= ? AND completion_percentage >= ? LIMIT ?",
+                Long.class, Timestamp.valueOf(since), minCompletion, limit);
+    }
+
+    private void stream(String sql, SequenceHandler handler, Object[] args) {
+        Grouping grouping = new Grouping(handler);
+        jdbcTemplate.query(sql, grouping, args);
+        grouping.flush();
+    }
+
+    /**
+     * Collects consecutive rows of {@code (key, song_id)} into one sequence per key.
+     */
+    private static final class Grouping implements RowCallbackHandler {
+        private final SequenceHandler handler;
+        private long key;
+        private long[] songs = new long[64];
+        private int size;
+
+        Grouping(SequenceHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            long rowKey = rs.getLong(1);
+            if (size > 0 && rowKey != key) {
+                flush();
+            }
+            key = rowKey;
+            if (size == songs.length) {
+                songs = Arrays.copyOf(songs, size * 2);
+            }
+            songs[size++] = rs.getLong(2);
+        }
+
+        void flush() {
+            if (size > 0) {
+                handler.accept(key, Arrays.copyOf(songs, size));
+                size = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.audira.playback.repository;
+
+import io.audira.playback.model.PlayHistory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Bulk inserts into {@code play_history}. Ids come from the column default, so nothing is read
+ * back and the driver sends each batch as multi-row inserts ({@code reWriteBatchedInserts}).
+ */
+@Repository
+@RequiredArgsConstructor
+public class PlayHistoryBatchRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public void insertAll(List<PlayHistory> plays) {
+        Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate("INSERT INTO play_history (user_id, song_id, played_at, completion_percentage, created_at)"
+                        + " VALUES (?, ?, ?, ?, ?)",
+                plays.stream()
+                        .map(play -> new Object[]{play.getUserId(), play.getSongId(),
+                                Timestamp.valueOf(play.getPlayedAt()), play.getCompletionPercentage(), createdAt})
+                        .toList());
+    }
+}
@@ -0,0 +1,15 @@
+package io.audira.playback.repository;
+
+import io.audira.playback.model.PlayHistoryDaily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PlayHistoryDailyRepository extends JpaRepository<PlayHistoryDaily, Long> {
+
+    @Modifying
+    @Query("DELETE FROM PlayHistoryDaily d WHERE d.userId = :userId")
+    void deleteByUserId(Long userId);
+}
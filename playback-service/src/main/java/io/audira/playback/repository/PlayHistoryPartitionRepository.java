@@ -0,0 +1,184 @@
+package io.audira.playback.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * DDL and compaction for {@code play_history}, range-partitioned by month on {@code played_at}.
+ * <p>
+ * Monthly partitions are named {@code play_history_YYYY_MM}; plays outside of them land in
+ * {@code play_history_default} and are moved into their month when it is created. Ids come
+ * from the {@code play_history_ids} sequence. Every change takes a transaction-scoped advisory
+ * lock, so several instances can run the maintenance at once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class PlayHistoryPartitionRepository {
+
+    public enum State { MISSING, PLAIN, PARTITIONED }
+
+    private static final Pattern PARTITION = Pattern.compile("play_history_(\\d{4})_(\\d{2})");
+    private static final String DEFAULT_PARTITION = "play_history_default";
+    private static final String LEGACY_TABLE = "play_history_unpartitioned";
+    private static final long LOCK_KEY = 0x706c61795f686973L;
+
+    private static final String MERGE_DAILY = "INSERT INTO play_history_daily (user_id, song_id, day, plays, completion_sum) "
+            + "SELECT user_id, song_id, CAST(played_at AS date), COUNT(*), SUM(completion_percentage) FROM %s %s "
+            + "GROUP BY user_id, song_id, CAST(played_at AS date) "
+            + "ON CONFLICT (user_id, song_id, day) DO UPDATE SET "
+            + "plays = play_history_daily.plays + EXCLUDED.plays, "
+            + "completion_sum = play_history_daily.completion_sum + EXCLUDED.completion_sum";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public State state() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT c.relkind::text FROM pg_class c WHERE c.oid = to_regclass('play_history')", String.class);
+        if (kinds.isEmpty()) {
+            return State.MISSING;
+        }
+        return "p".equals(kinds.get(0)) ? State.PARTITIONED : State.PLAIN;
+    }
+
+    /**
+     * Creates the partitioned table and, if a plain {@code play_history} exists, moves its rows
+     * into it, creating the monthly partitions they need.
+     */
+    @Transactional
+    public void createPartitionedTable(YearMonth firstMonth, YearMonth lastMonth) {
+        lock();
+        State state = state();
+        if (state == State.PARTITIONED) {
+            return;
+        }
+        boolean migrate = state == State.PLAIN;
+        if (migrate) {
+            // Index and constraint names are schema-wide, so the old ones are moved aside
+            jdbcTemplate.execute("ALTER TABLE play_history RENAME TO " + LEGACY_TABLE);
+            jdbcTemplate.execute("ALTER INDEX IF EXISTS idx_user_played_at RENAME TO idx_user_played_at_unpartitioned");
+            jdbcTemplate.execute("ALTER TABLE " + LEGACY_TABLE + " RENAME CONSTRAINT play_history_pkey TO "
+                    + LEGACY_TABLE + "_pkey");
+        }
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS play_history_ids");
+        if (migrate) {
+            jdbcTemplate.queryForList("SELECT setval('play_history_ids', GREATEST((SELECT MAX(id) FROM "
+                    + LEGACY_TABLE + "), 1))");
+        }
+        jdbcTemplate.execute("CREATE TABLE play_history ("
+                + "id bigint NOT NULL DEFAULT nextval('play_history_ids'), "
+                + "user_id bigint NOT NULL, "
+                + "song_id bigint NOT NULL, "
+                + "played_at timestamp(6) NOT NULL, "
+                + "completion_percentage float8 NOT NULL, "
+                + "created_at timestamp(6) NOT NULL, "
+                + "PRIMARY KEY (id, played_at)"
+                + ") PARTITION BY RANGE (played_at)");
+        jdbcTemplate.execute("ALTER SEQUENCE play_history_ids OWNED BY play_history.id");
+        jdbcTemplate.execute("CREATE INDEX idx_user_played_at ON play_history (user_id, played_at)");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF play_history DEFAULT");
+
+        YearMonth from = firstMonth;
+        if (migrate) {
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT MIN(played_at) FROM " + LEGACY_TABLE, Timestamp.class);
+            if (oldest != null && YearMonth.from(oldest.toLocalDateTime()).isBefore(from)) {
+                from = YearMonth.from(oldest.toLocalDateTime());
+            }
+        }
+        for (YearMonth month = from; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+            jdbcTemplate.execute("CREATE TABLE " + name(month) + " PARTITION OF play_history FOR VALUES " + bounds(month));
+        }
+        if (migrate) {
+            jdbcTemplate.update("INSERT INTO play_history (id, user_id, song_id, played_at, completion_percentage, created_at) "
+                    + "SELECT id, user_id, song_id, played_at, completion_percentage, created_at FROM " + LEGACY_TABLE);
+            jdbcTemplate.execute("DROP TABLE " + LEGACY_TABLE);
+        }
+    }
+
+    public List<YearMonth> partitions() {
+        List<YearMonth> months = new ArrayList<>();
+        for (String table : jdbcTemplate.queryForList("SELECT c.relname::text FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'play_history'::regclass", String.class)) {
+            Matcher matcher = PARTITION.matcher(table);
+            if (matcher.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    /**
+     * Creates the partition of a month, moving in the plays of that month that had landed in
+     * the default partition.
+     */
+    @Transactional
+    public void createPartition(YearMonth month) {
+        lock();
+        if (partitions().contains(month)) {
+            return;
+        }
+        String table = name(month);
+        String range = rangeCondition(month);
+        jdbcTemplate.execute("CREATE TABLE " + table + " (LIKE play_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+        jdbcTemplate.update("INSERT INTO " + table + " SELECT * FROM " + DEFAULT_PARTITION + " WHERE " + range);
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE " + range);
+        jdbcTemplate.execute("ALTER TABLE play_history ATTACH PARTITION " + table + " FOR VALUES " + bounds(month));
+    }
+
+    /**
+     * Adds the plays of a month to the daily aggregates and drops its partition.
+     *
+     * @return number of daily rows written
+     */
+    @Transactional
+    public int compactPartition(YearMonth month) {
+        lock();
+        if (!partitions().contains(month)) {
+            return 0;
+        }
+        String table = name(month);
+        int merged = jdbcTemplate.update(String.format(MERGE_DAILY, table, ""));
+        jdbcTemplate.execute("ALTER TABLE play_history DETACH PARTITION " + table);
+        jdbcTemplate.execute("DROP TABLE " + table);
+        return merged;
+    }
+
+    /**
+     * Compacts plays older than {@code before} that sit in the default partition, such as
+     * offline plays reported after their month was compacted.
+     */
+    @Transactional
+    public int compactDefaultPartition(LocalDateTime before) {
+        lock();
+        String condition = "WHERE played_at < '" + Timestamp.valueOf(before) + "'";
+        int merged = jdbcTemplate.update(String.format(MERGE_DAILY, DEFAULT_PARTITION, condition));
+        jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " " + condition);
+        return merged;
+    }
+
+    private void lock() {
+        jdbcTemplate.queryForList("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+    }
+
+    private static String name(YearMonth month) {
+        return String.format("play_history_%04d_%02d", month.getYear(), month.getMonthValue());
+    }
+
+    private static String bounds(YearMonth month) {
+        return "FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')";
+    }
+
+    private static String rangeCondition(YearMonth month) {
+        return "played_at >= '" + month.atDay(1) + "' AND played_at < '" + month.plusMonths(1).atDay(1) + "'";
+    }
+}
@@ -1,16 +1,37 @@
 package io.audira.playback.repository;
 
+import io.audira.playback.dto.PlayHistoryEntryDTO;
 import io.audira.playback.model.PlayHistory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * {@code play_history} is partitioned by month on {@code played_at} (see
+ * {@link PlayHistoryPartitionRepository}): queries bounded on {@code playedAt} only read the
+ * partitions in range, and per-user newest-first queries read partitions newest first and stop
+ * once the limit is reached.
+ */
 @Repository
 public interface PlayHistoryRepository extends JpaRepository<PlayHistory, Long> {
-    List<PlayHistory> findByUserIdOrderByPlayedAtDesc(Long userId);
-    List<PlayHistory> findTop20ByUserIdOrderByPlayedAtDesc(Long userId);
+    // Keyset pages over idx_user_played_at: plays before (playedAt, id), newest first, ...
+    @Query("SELECT new io.audira.playback.dto.PlayHistoryEntryDTO(ph.id, ph.songId, ph.playedAt, ph.completionPercentage) " +
+           "FROM PlayHistory ph WHERE ph.userId = :userId " +
+           "AND ph.playedAt <= :playedAt AND (ph.playedAt < :playedAt OR ph.id < :id) " +
+           "ORDER BY ph.playedAt DESC, ph.id DESC")
+    List<PlayHistoryEntryDTO> findPageBefore(Long userId, LocalDateTime playedAt, Long id, Pageable pageable);
+
+    // ... and plays after it, oldest first
+    @Query("SELECT new io.audira.playback.dto.PlayHistoryEntryDTO(ph.id, ph.songId, ph.playedAt, ph.completionPercentage) " +
+           "FROM PlayHistory ph WHERE ph.userId = :userId " +
+           "AND ph.playedAt >= :playedAt AND (ph.playedAt > :playedAt OR ph.id > :id) " +
+           "ORDER BY ph.playedAt ASC, ph.id ASC")
+    List<PlayHistoryEntryDTO> findPageAfter(Long userId, LocalDateTime playedAt, Long id, Pageable pageable);
+
     List<PlayHistory> findByUserIdAndSongIdOrderByPlayedAtDesc(Long userId, Long songId);
     List<PlayHistory> findBySongId(Long songId);
     List<PlayHistory> findByUserIdAndPlayedAtBetweenOrderByPlayedAtDesc(
@@ -23,6 +44,12 @@ public interface PlayHistoryRepository extends JpaRepository<PlayHistory, Long>
     @Query("SELECT COUNT(ph) FROM PlayHistory ph WHERE ph.userId = ?1")
     Long countByUserId(Long userId);
 
+    // Bulk deletes instead of loading every play first
+    @Modifying
+    @Query("DELETE FROM PlayHistory ph WHERE ph.userId = :userId")
     void deleteByUserId(Long userId);
+
+    @Modifying
+    @Query("DELETE FROM PlayHistory ph WHERE ph.userId = :userId AND ph.playedAt < :before")
     void deleteByUserIdAndPlayedAtBefore(Long userId, LocalDateTime before);
 }
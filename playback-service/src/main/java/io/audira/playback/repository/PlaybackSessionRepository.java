@@ -2,7 +2,11 @@ package io.audira.playback.repository;
 
 import io.audira.playback.model.PlaybackSession;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,10 +14,24 @@ import java.util.Optional;
 public interface PlaybackSessionRepository extends JpaRepository<PlaybackSession, Long> {
     Optional<PlaybackSession> findByUserIdAndIsPlaying(Long userId, Boolean isPlaying);
     Optional<PlaybackSession> findByUserIdAndIsPlayingTrue(Long userId);
+    Optional<PlaybackSession> findFirstByUserIdAndIsPlayingTrueOrderByStartTimeDesc(Long userId);
     Optional<PlaybackSession> findTopByUserIdOrderByCreatedAtDesc(Long userId);
     List<PlaybackSession> findByUserId(Long userId);
     List<PlaybackSession> findByUserIdOrderByStartTimeDesc(Long userId);
     List<PlaybackSession> findBySongId(Long songId);
     List<PlaybackSession> findByUserIdAndSongId(Long userId, Long songId);
     void deleteByUserId(Long userId);
+
+    // Snapshot of the live state, without loading the row first
+    @Transactional
+    @Modifying
+    @Query("UPDATE PlaybackSession s SET s.currentTime = :currentTime, s.isPlaying = :isPlaying, " +
+           "s.updatedAt = :updatedAt WHERE s.id = :id")
+    int updateState(Long id, Integer currentTime, Boolean isPlaying, LocalDateTime updatedAt);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PlaybackSession s SET s.isPlaying = false, s.updatedAt = :updatedAt " +
+           "WHERE s.userId = :userId AND s.isPlaying = true")
+    int stopPlayingByUserId(Long userId, LocalDateTime updatedAt);
 }
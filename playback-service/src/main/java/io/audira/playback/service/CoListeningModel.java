@@ -0,0 +1,336 @@
+package io.audira.playback.service;
+
+import io.audira.playback.dto.SongNeighboursDTO;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Sparse, symmetric song-to-song co-occurrence matrix and the top neighbours of every song.
+ * <p>
+ * Sequences (a user's plays in time order, a playlist, a user's favourites) are walked with
+ * a sliding window of distinct songs; a song entering the window co-occurs with every song
+ * already in it. Songs get dense int indexes so rows are primitive maps. Neighbours are
+ * ranked by cosine similarity, {@code co(a, b) / sqrt(occ(a) * occ(b))}, and recomputed only
+ * for rows touched since the last {@link #recomputeDirty()}.
+ * <p>
+ * Not thread-safe; readers use immutable {@link Snapshot}s.
+ */
+final class CoListeningModel {
+
+    // Pairs seen fewer times than this are noise
+    private static final float MIN_CO_OCCURRENCE = 2f;
+    // Weight of each older seed relative to the next more recent one
+    private static final float SEED_DECAY = 0.9f;
+
+    private final int window;
+    private final int neighbourCount;
+
+    private final LongIntHashMap index = new LongIntHashMap(1024);
+    private long[] songIds = new long[1024];
+    private float[] occurrences = new float[1024];
+    private IntFloatHashMap[] rows = new IntFloatHashMap[1024];
+    private int[][] neighbours = new int[1024][];
+    private float[][] neighbourScores = new float[1024][];
+    private int size;
+    private final BitSet dirty = new BitSet();
+
+    CoListeningModel(int window, int neighbourCount) {
+        this.window = window;
+        this.neighbourCount = neighbourCount;
+    }
+
+    /**
+     * @param history songs that precede {@code songs} in the same sequence, oldest first; they only
+     *                fill the window, as they were counted before
+     * @param songs   new songs of the sequence, oldest first
+     */
+    void addSequence(long[] history, long[] songs, float weight) {
+        int[] recent = new int[window];
+        int count = 0;
+        for (long songId : history) {
+            count = slide(recent, count, indexOf(songId), 0f);
+        }
+        for (long songId : songs) {
+            count = slide(recent, count, indexOf(songId), weight);
+        }
+    }
+
+    void recomputeDirty() {
+        for (int song = dirty.nextSetBit(0); song >= 0; song = dirty.nextSetBit(song + 1)) {
+            computeNeighbours(song);
+        }
+        dirty.clear();
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the ids of the {@code limit} songs with the most occurrences, most frequent first
+     */
+    long[] mostFrequent(int limit) {
+        TopN top = new TopN(limit);
+        for (int song = 0; song < size; song++) {
+            top.offer(song, occurrences[song]);
+        }
+        int[] best = top.sortedIds();
+        long[] ids = new long[best.length];
+        for (int i = 0; i < best.length; i++) {
+            ids[i] = songIds[best[i]];
+        }
+        return ids;
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(index.copy(), Arrays.copyOf(songIds, size),
+                Arrays.copyOf(neighbours, size), Arrays.copyOf(neighbourScores, size));
+    }
+
+    /**
+     * Keeps {@code recent} as the last distinct songs of the sequence, oldest first.
+     */
+    private int slide(int[] recent, int count, int song, float weight) {
+        for (int i = 0; i < count; i++) {
+            if (recent[i] == song) {
+                System.arraycopy(recent, i + 1, recent, i, count - i - 1);
+                recent[count - 1] = song;
+                return count;
+            }
+        }
+        if (weight > 0) {
+            for (int i = 0; i < count; i++) {
+                row(song).add(recent[i], weight);
+                row(recent[i]).add(song, weight);
+                dirty.set(recent[i]);
+            }
+            occurrences[song] += weight;
+            dirty.set(song);
+        }
+        if (count == window) {
+            System.arraycopy(recent, 1, recent, 0, count - 1);
+            count--;
+        }
+        recent[count] = song;
+        return count + 1;
+    }
+
+    private int indexOf(long songId) {
+        int song = index.get(songId);
+        if (song >= 0) {
+            return song;
+        }
+        if (size == songIds.length) {
+            int capacity = size * 2;
+            songIds = Arrays.copyOf(songIds, capacity);
+            occurrences = Arrays.copyOf(occurrences, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+            neighbours = Arrays.copyOf(neighbours, capacity);
+            neighbourScores = Arrays.copyOf(neighbourScores, capacity);
+        }
+        song = size++;
+        songIds[song] = songId;
+        index.put(songId, song);
+        return song;
+    }
+
+    private IntFloatHashMap row(int song) {
+        IntFloatHashMap row = rows[song];
+        if (row == null) {
+            row = new IntFloatHashMap(8);
+            rows[song] = row;
+        }
+        return row;
+    }
+
+    private void computeNeighbours(int song) {
+        IntFloatHashMap row = rows[song];
+        if (row == null) {
+            return;
+        }
+        TopN top = new TopN(neighbourCount);
+        for (int slot = 0; slot < row.slots(); slot++) {
+            if (row.used(slot) && row.valueAt(slot) >= MIN_CO_OCCURRENCE) {
+                int other = row.keyAt(slot);
+                top.offer(other, (float) (row.valueAt(slot) / Math.sqrt(occurrences[song] * occurrences[other])));
+            }
+        }
+        neighbours[song] = top.sortedIds();
+        neighbourScores[song] = top.sortedScores();
+    }
+
+    /**
+     * Immutable view of the neighbour lists, safe to share between threads.
+     */
+    static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(new LongIntHashMap(4), new long[0], new int[0][], new float[0][]);
+
+        private final LongIntHashMap index;
+        private final long[] songIds;
+        private final int[][] neighbours;
+        private final float[][] neighbourScores;
+
+        private Snapshot(LongIntHashMap index, long[] songIds, int[][] neighbours, float[][] neighbourScores) {
+            this.index = index;
+            this.songIds = songIds;
+            this.neighbours = neighbours;
+            this.neighbourScores = neighbourScores;
+        }
+
+        int size() {
+            return songIds.length;
+        }
+
+        /**
+         * Neighbour lists of the songs at positions {@code [offset, offset + limit)} of the model,
+         * for exporting the whole model page by page. Songs without neighbours are skipped.
+         */
+        List<SongNeighboursDTO> neighbours(int offset, int limit) {
+            List<SongNeighboursDTO> page = new ArrayList<>();
+            int end = (int) Math.min((long) offset + limit, songIds.length);
+            for (int song = Math.max(offset, 0); song < end; song++) {
+                int[] ids = neighbours[song];
+                if (ids == null || ids.length == 0) {
+                    continue;
+                }
+                List<Long> neighbourIds = new ArrayList<>(ids.length);
+                List<Float> similarities = new ArrayList<>(ids.length);
+                for (int i = 0; i < ids.length; i++) {
+                    neighbourIds.add(songIds[ids[i]]);
+                    similarities.add(neighbourScores[song][i]);
+                }
+                page.add(new SongNeighboursDTO(songIds[song], neighbourIds, similarities));
+            }
+            return page;
+        }
+
+        /**
+         * Merges the neighbours of the seeds, weighting recent seeds higher. Seeds themselves are
+         * never recommended.
+         *
+         * @param seeds songs the user listened to, most recent first
+         */
+        List<Long> recommend(long[] seeds, int limit) {
+            IntFloatHashMap seen = new IntFloatHashMap(seeds.length);
+            IntFloatHashMap scores = new IntFloatHashMap(256);
+            float weight = 1f;
+            for (long seedId : seeds) {
+                int seed = index.get(seedId);
+                if (seed >= 0 && !seen.containsKey(seed)) {
+                    seen.add(seed, 1f);
+                    int[] ids = neighbours[seed];
+                    if (ids != null) {
+                        float[] similarities = neighbourScores[seed];
+                        for (int i = 0; i < ids.length; i++) {
+                            scores.add(ids[i], weight * similarities[i]);
+                        }
+                    }
+                }
+                weight *= SEED_DECAY;
+            }
+            TopN top = new TopN(limit);
+            for (int slot = 0; slot < scores.slots(); slot++) {
+                if (scores.used(slot) && !seen.containsKey(scores.keyAt(slot))) {
+                    top.offer(scores.keyAt(slot), scores.valueAt(slot));
+                }
+            }
+            List<Long> recommended = new ArrayList<>(limit);
+            for (int song : top.sortedIds()) {
+                recommended.add(songIds[song]);
+            }
+            return recommended;
+        }
+    }
+
+    /**
+     * Bounded min-heap keeping the {@code capacity} highest scores.
+     */
+    private static final class TopN {
+        private final int[] ids;
+        private final float[] scores;
+        private int size;
+        private boolean sorted;
+
+        TopN(int capacity) {
+            ids = new int[Math.max(capacity, 0)];
+            scores = new float[Math.max(capacity, 0)];
+        }
+
+        void offer(int id, float score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (size > 0 && score > scores[0]) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0, size);
+            }
+        }
+
+        int[] sortedIds() {
+            sortDescending();
+            return Arrays.copyOf(ids, size);
+        }
+
+        float[] sortedScores() {
+            sortDescending();
+            return Arrays.copyOf(scores, size);
+        }
+
+        // Heap sort in place: repeatedly moving the minimum to the end leaves a descending array
+        private void sortDescending() {
+            if (sorted) {
+                return;
+            }
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+            sorted = true;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (scores[parent] <= scores[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int end) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < end && scores[left] < scores[smallest]) {
+                    smallest = left;
+                }
+                if (right < end && scores[right] < scores[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            float score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package io.audira.playback.service;
+
+import io.audira.playback.dto.PlayHistoryEntryDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+/**
+ * Position of a play in a user's history, {@code (playedAt, id)}, handed to clients as an
+ * opaque token so the next page is an index range scan instead of an offset.
+ */
+record HistoryCursor(LocalDateTime playedAt, long id) {
+
+    // Sorts after every stored play, so the first page needs no separate query
+    static final HistoryCursor LATEST = new HistoryCursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+    static HistoryCursor of(PlayHistoryEntryDTO entry) {
+        return new HistoryCursor(entry.getPlayedAt(), entry.getId());
+    }
+
+    static HistoryCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.US_ASCII).split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            long micros = Long.parseLong(parts[0]);
+            Instant instant = Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000), Math.floorMod(micros, 1_000_000) * 1_000L);
+            return new HistoryCursor(LocalDateTime.ofInstant(instant, ZoneOffset.UTC), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, ex);
+        }
+    }
+
+    String encode() {
+        Instant instant = playedAt.toInstant(ZoneOffset.UTC);
+        long micros = instant.getEpochSecond() * 1_000_000 + instant.getNano() / 1_000;
+        String raw = micros + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -1,40 +1,100 @@
 package io.audira.playback.service;
 
+import io.audira.playback.dto.PlayEventRequest;
+import io.audira.playback.dto.PlayHistoryEntryDTO;
+import io.audira.playback.dto.PlayHistoryPageDTO;
 import io.audira.playback.model.PlayHistory;
+import io.audira.playback.repository.PlayHistoryDailyRepository;
 import io.audira.playback.repository.PlayHistoryRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class HistoryService {
 
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final PlayHistoryRepository playHistoryRepository;
+    private final PlayHistoryDailyRepository playHistoryDailyRepository;
+    private final PlayIngestionService playIngestionService;
 
-    @Transactional
-    public PlayHistory recordPlay(Long userId, Long songId, Integer completionPercentage) {
-        PlayHistory history = PlayHistory.builder()
+    /**
+     * Queues the play for the batched writer.
+     *
+     * @return false if ingestion is saturated and the caller should retry later
+     */
+    public boolean recordPlay(Long userId, Long songId, Integer completionPercentage) {
+        return playIngestionService.submit(List.of(PlayHistory.builder()
                 .userId(userId)
                 .songId(songId)
                 .playedAt(LocalDateTime.now())
                 .completionPercentage(completionPercentage.doubleValue())
-                .build();
-        return playHistoryRepository.save(history);
+                .build()));
     }
 
-    public List<PlayHistory> getUserHistory(Long userId) {
-        return playHistoryRepository.findByUserIdOrderByPlayedAtDesc(userId);
+    /**
+     * Queues plays buffered by a client, all of them or none.
+     *
+     * @return false if ingestion is saturated and the caller should retry the whole batch later
+     */
+    public boolean recordPlays(List<PlayEventRequest> events) {
+        LocalDateTime now = LocalDateTime.now();
+        return playIngestionService.submit(events.stream()
+                .map(event -> PlayHistory.builder()
+                        .userId(event.getUserId())
+                        .songId(event.getSongId())
+                        .playedAt(event.getPlayedAt() != null ? event.getPlayedAt() : now)
+                        .completionPercentage(event.getCompletionPercentage())
+                        .build())
+                .toList());
     }
 
-    public List<PlayHistory> getRecentHistory(Long userId, Integer limit) {
-        return playHistoryRepository.findTop20ByUserIdOrderByPlayedAtDesc(userId);
+    /**
+     * One page of a user's plays, newest first: the latest ones, the ones older than
+     * {@code before}, or the ones right after {@code after}. Every page costs the same index
+     * range scan however deep it is.
+     *
+     * @param limit clamped to 1..{@value #MAX_PAGE_SIZE}
+     */
+    public PlayHistoryPageDTO getUserHistory(Long userId, String before, String after, int limit) {
+        if (before != null && after != null) {
+            throw new IllegalArgumentException("Use either before or after, not both");
+        }
+        int size = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        Pageable page = PageRequest.of(0, size + 1);
+
+        if (after != null) {
+            HistoryCursor cursor = HistoryCursor.decode(after);
+            List<PlayHistoryEntryDTO> rows = playHistoryRepository.findPageAfter(userId, cursor.playedAt(), cursor.id(), page);
+            List<PlayHistoryEntryDTO> items = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+            Collections.reverse(items);
+            if (items.isEmpty()) {
+                return new PlayHistoryPageDTO(items, after, after);
+            }
+            // The cursor row itself is older, so there always is a page before this one
+            return new PlayHistoryPageDTO(items, HistoryCursor.of(items.get(items.size() - 1)).encode(),
+                    HistoryCursor.of(items.get(0)).encode());
+        }
+
+        HistoryCursor cursor = before != null ? HistoryCursor.decode(before) : HistoryCursor.LATEST;
+        List<PlayHistoryEntryDTO> rows = playHistoryRepository.findPageBefore(userId, cursor.playedAt(), cursor.id(), page);
+        List<PlayHistoryEntryDTO> items = rows.subList(0, Math.min(size, rows.size()));
+        String older = rows.size() > size ? HistoryCursor.of(items.get(size - 1)).encode() : null;
+        String newer = !items.isEmpty() ? HistoryCursor.of(items.get(0)).encode() : before;
+        return new PlayHistoryPageDTO(List.copyOf(items), older, newer);
     }
 
     @Transactional
     public void clearHistory(Long userId) {
         playHistoryRepository.deleteByUserId(userId);
+        playHistoryDailyRepository.deleteByUserId(userId);
     }
 }
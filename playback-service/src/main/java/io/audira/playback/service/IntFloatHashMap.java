@@ -0,0 +1,84 @@
+package io.audira.playback.service;
+
+/**
+ * Open-addressing map from non-negative ints to floats, without boxing.
+ * Slots are exposed for iteration: {@code for (slot < slots()) if (used(slot)) ...}.
+ */
+final class IntFloatHashMap {
+
+    // Keys are stored plus one so that 0 marks an empty slot
+    private int[] keys;
+    private float[] values;
+    private int size;
+
+    IntFloatHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new float[capacity];
+    }
+
+    void add(int key, float delta) {
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            keys[slot] = key + 1;
+            values[slot] = delta;
+            if (++size * 4 >= keys.length * 3) {
+                grow();
+            }
+        } else {
+            values[slot] += delta;
+        }
+    }
+
+    boolean containsKey(int key) {
+        return keys[slot(key)] != 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int slots() {
+        return keys.length;
+    }
+
+    boolean used(int slot) {
+        return keys[slot] != 0;
+    }
+
+    int keyAt(int slot) {
+        return keys[slot] - 1;
+    }
+
+    float valueAt(int slot) {
+        return values[slot];
+    }
+
+    private int slot(int key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key + 1) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        float[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new float[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = slot(oldKeys[i] - 1);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
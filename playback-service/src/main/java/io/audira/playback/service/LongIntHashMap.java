@@ -0,0 +1,82 @@
+package io.audira.playback.service;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from longs to non-negative ints, without boxing.
+ */
+final class LongIntHashMap {
+
+    private long[] keys;
+    // Values are stored plus one so that 0 marks an empty slot
+    private int[] values;
+    private int size;
+
+    LongIntHashMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+    }
+
+    private LongIntHashMap(long[] keys, int[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * @return the value, or -1 if the key is absent
+     */
+    int get(long key) {
+        return values[slot(key)] - 1;
+    }
+
+    void put(long key, int value) {
+        int slot = slot(key);
+        if (values[slot] == 0) {
+            keys[slot] = key;
+            if (++size * 4 >= keys.length * 3) {
+                values[slot] = value + 1;
+                grow();
+                return;
+            }
+        }
+        values[slot] = value + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    LongIntHashMap copy() {
+        return new LongIntHashMap(Arrays.copyOf(keys, keys.length), Arrays.copyOf(values, values.length), size);
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (values[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != 0) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
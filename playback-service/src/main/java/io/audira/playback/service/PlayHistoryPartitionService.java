@@ -0,0 +1,75 @@
+package io.audira.playback.service;
+
+import io.audira.playback.repository.PlayHistoryPartitionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.YearMonth;
+
+/**
+ * Keeps {@code play_history} partitioned by month.
+ * <p>
+ * At startup the table is created partitioned, or converted if an earlier version created it
+ * plain. Every day the partitions of the next {@code history.partitions.months-ahead} months
+ * are created, and months older than {@code history.retention-months} are compacted into
+ * {@code play_history_daily} and dropped.
+ */
+@Service
+public class PlayHistoryPartitionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayHistoryPartitionService.class);
+
+    private final PlayHistoryPartitionRepository partitionRepository;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public PlayHistoryPartitionService(PlayHistoryPartitionRepository partitionRepository,
+                                       @Value("${history.partitions.months-ahead:2}") int monthsAhead,
+                                       @Value("${history.retention-months:13}") int retentionMonths) {
+        this.partitionRepository = partitionRepository;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    /**
+     * Runs before the play writer starts, so no insert races the conversion.
+     */
+    @PostConstruct
+    public void prepare() {
+        YearMonth now = YearMonth.now();
+        if (partitionRepository.state() != PlayHistoryPartitionRepository.State.PARTITIONED) {
+            long started = System.currentTimeMillis();
+            partitionRepository.createPartitionedTable(now, now.plusMonths(monthsAhead));
+            logger.info("Partitioned play_history by month in {} ms", System.currentTimeMillis() - started);
+        }
+        createUpcomingPartitions(now);
+    }
+
+    @Scheduled(cron = "${history.partitions.maintenance-cron:0 30 3 * * *}")
+    public void maintain() {
+        YearMonth now = YearMonth.now();
+        createUpcomingPartitions(now);
+
+        YearMonth oldestKept = now.minusMonths(retentionMonths);
+        for (YearMonth month : partitionRepository.partitions()) {
+            if (month.isBefore(oldestKept)) {
+                int rows = partitionRepository.compactPartition(month);
+                logger.info("Compacted play history of {} into {} daily rows", month, rows);
+            }
+        }
+        int late = partitionRepository.compactDefaultPartition(oldestKept.atDay(1).atStartOfDay());
+        if (late > 0) {
+            logger.info("Compacted {} daily rows of late plays", late);
+        }
+    }
+
+    private void createUpcomingPartitions(YearMonth now) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            partitionRepository.createPartition(now.plusMonths(i));
+        }
+    }
+}
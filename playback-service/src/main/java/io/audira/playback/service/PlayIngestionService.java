@@ -0,0 +1,196 @@
+package io.audira.playback.service;
+
+import io.audira.playback.model.PlayHistory;
+import io.audira.playback.repository.PlayHistoryBatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write path of the play history.
+ * <p>
+ * Plays are accepted into a bounded in-memory buffer and a single writer thread drains it into
+ * multi-row inserts of up to {@code history.ingest.batch-size} rows. A full buffer, for
+ * instance while the database is down, makes callers wait up to
+ * {@code history.ingest.offer-timeout-ms} and then rejects them so they can retry later.
+ * Capacity is released only once a batch is written, and a batch whose write fails is retried
+ * until it succeeds. Accepted plays that are not written yet are lost if the process dies.
+ */
+// The table must be partitioned before the writer inserts into it
+@Service
+@DependsOn("playHistoryPartitionService")
+public class PlayIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlayIngestionService.class);
+
+    private static final long POLL_MILLIS = 200;
+    private static final long MAX_BACKOFF_MILLIS = 30_000;
+    private static final int SHUTDOWN_ATTEMPTS = 3;
+
+    private record Pending(PlayHistory play, long acceptedAt) {
+    }
+
+    private final PlayHistoryBatchRepository playHistoryBatchRepository;
+    private final int capacity;
+    private final int batchSize;
+    private final long offerTimeoutMillis;
+
+    // Permits are free slots; the queue itself is unbounded so a batch is admitted whole or not at all
+    private final Semaphore slots;
+    private final LinkedBlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter written;
+    private final DistributionSummary batchSizes;
+    private final Timer lag;
+    private final Timer writeTimer;
+
+    public PlayIngestionService(PlayHistoryBatchRepository playHistoryBatchRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${history.ingest.capacity:100000}") int capacity,
+                                @Value("${history.ingest.batch-size:1000}") int batchSize,
+                                @Value("${history.ingest.offer-timeout-ms:100}") long offerTimeoutMillis) {
+        this.playHistoryBatchRepository = playHistoryBatchRepository;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.offerTimeoutMillis = offerTimeoutMillis;
+        this.slots = new Semaphore(capacity);
+        this.writer = new Thread(this::drainLoop, "play-history-writer");
+        this.writer.setDaemon(true);
+
+        Gauge.builder("history.ingest.pending", this, service -> service.capacity - service.slots.availablePermits())
+                .description("Plays accepted and not written yet")
+                .register(meterRegistry);
+        this.accepted = Counter.builder("history.ingest.plays").tag("outcome", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("history.ingest.plays").tag("outcome", "rejected").register(meterRegistry);
+        this.written = Counter.builder("history.ingest.plays").tag("outcome", "written").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("history.ingest.batch.size")
+                .description("Rows per multi-row insert")
+                .register(meterRegistry);
+        this.lag = Timer.builder("history.ingest.lag")
+                .description("Time from accepting the oldest play of a batch to its commit")
+                .register(meterRegistry);
+        this.writeTimer = Timer.builder("history.ingest.write")
+                .description("Time to insert and commit one batch")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer.start();
+    }
+
+    /**
+     * Accepts all of the plays or none of them.
+     *
+     * @return false if the buffer stayed full for the whole offer timeout
+     */
+    public boolean submit(List<PlayHistory> plays) {
+        if (plays.isEmpty()) {
+            return true;
+        }
+        if (plays.size() > capacity) {
+            throw new IllegalArgumentException("At most " + capacity + " plays can be submitted at once");
+        }
+        boolean admitted;
+        try {
+            admitted = running && slots.tryAcquire(plays.size(), offerTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment(plays.size());
+            return false;
+        }
+        long now = System.nanoTime();
+        for (PlayHistory play : plays) {
+            queue.add(new Pending(play, now));
+        }
+        accepted.increment(plays.size());
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        // Whatever the writer left behind, including plays admitted while it was stopping
+        List<Pending> batch = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            int attempt = 1;
+            while (!write(batch)) {
+                if (attempt++ == SHUTDOWN_ATTEMPTS) {
+                    logger.error("Dropping {} plays that could not be written on shutdown", queue.size() + batch.size());
+                    return;
+                }
+                Thread.sleep(POLL_MILLIS);
+            }
+            batch.clear();
+        }
+    }
+
+    private void drainLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        long backoff = POLL_MILLIS;
+        while (running || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    Pending first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                if (write(batch)) {
+                    batch.clear();
+                    backoff = POLL_MILLIS;
+                } else if (running) {
+                    Thread.sleep(backoff);
+                    backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+                } else {
+                    // Shutting down: leave the batch to the final drain
+                    batch.forEach(queue::add);
+                    return;
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                batch.forEach(queue::add);
+                return;
+            }
+        }
+    }
+
+    private boolean write(List<Pending> batch) {
+        try {
+            writeTimer.record(() -> playHistoryBatchRepository.insertAll(batch.stream().map(Pending::play).toList()));
+        } catch (RuntimeException ex) {
+            logger.error("Failed to write {} plays, will retry", batch.size(), ex);
+            return false;
+        }
+        lag.record(System.nanoTime() - batch.get(0).acceptedAt(), TimeUnit.NANOSECONDS);
+        batchSizes.record(batch.size());
+        written.increment(batch.size());
+        slots.release(batch.size());
+        return true;
+    }
+}
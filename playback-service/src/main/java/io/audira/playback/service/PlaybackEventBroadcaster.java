@@ -0,0 +1,272 @@
+package io.audira.playback.service;
+
+import io.audira.playback.model.PlayQueue;
+import io.audira.playback.model.PlaybackSession;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes playback session and queue changes to every connected device of a user as
+ * server-sent events.
+ * <p>
+ * Connections are async requests, so an idle one holds a socket and a small buffer but no
+ * thread. Events go into a per-connection buffer of at most {@code playback.events.buffer-size}
+ * entries and a small pool of sender threads flushes it {@code playback.events.coalesce-ms}
+ * after the first one arrives. Session and queue events carry the full state, so a newer one
+ * replaces one still waiting in the buffer: a burst of seeks reaches the devices as the last
+ * position only. A connection whose buffer overflows or whose write fails is closed; clients
+ * reconnect and get the current state again.
+ */
+@Service
+public class PlaybackEventBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaybackEventBroadcaster.class);
+
+    public static final String SESSION = "session";
+    public static final String SESSION_ENDED = "session-ended";
+    public static final String QUEUE = "queue";
+
+    // Events with the same key replace each other while waiting to be sent
+    private record Event(String name, String key, Object data) {
+    }
+
+    private final class Connection {
+        final Long userId;
+        final SseEmitter emitter;
+        // Guarded by this
+        private final ArrayDeque<Event> pending = new ArrayDeque<>();
+        private boolean scheduled;
+        private boolean closed;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        void offer(Event event, boolean replace) {
+            boolean overflow;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (event.key() != null) {
+                    for (Iterator<Event> it = pending.iterator(); it.hasNext(); ) {
+                        if (event.key().equals(it.next().key())) {
+                            if (!replace) {
+                                return;
+                            }
+                            it.remove();
+                        }
+                    }
+                }
+                overflow = pending.size() >= bufferSize;
+                if (!overflow) {
+                    pending.add(event);
+                    if (scheduled) {
+                        return;
+                    }
+                    scheduled = true;
+                }
+            }
+            if (overflow) {
+                overflows.increment();
+                logger.debug("Closing event stream of user {}: buffer full", userId);
+                close(null);
+            } else {
+                senders.schedule(this::flush, coalesceMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void ping() {
+            synchronized (this) {
+                if (closed || scheduled) {
+                    return;
+                }
+                scheduled = true;
+            }
+            senders.execute(this::flush);
+        }
+
+        private void flush() {
+            boolean sent = false;
+            while (true) {
+                Event event;
+                synchronized (this) {
+                    event = pending.poll();
+                    if (event == null || closed) {
+                        scheduled = false;
+                        break;
+                    }
+                }
+                try {
+                    emitter.send(SseEmitter.event().name(event.name()).data(event.data(), MediaType.APPLICATION_JSON));
+                    sent = true;
+                } catch (IOException | IllegalStateException ex) {
+                    close(ex);
+                    return;
+                }
+            }
+            if (sent || isClosed()) {
+                return;
+            }
+            try {
+                // Comment line: keeps proxies from timing out idle streams and detects gone clients
+                emitter.send(SseEmitter.event().comment(""));
+            } catch (IOException | IllegalStateException ex) {
+                close(ex);
+            }
+        }
+
+        private synchronized boolean isClosed() {
+            return closed;
+        }
+
+        void close(Throwable cause) {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            remove(this);
+            if (cause != null) {
+                writeFailures.increment();
+                logger.debug("Closing event stream of user {}: {}", userId, cause.getMessage());
+                emitter.completeWithError(cause);
+            } else {
+                emitter.complete();
+            }
+        }
+    }
+
+    private final int bufferSize;
+    private final long coalesceMillis;
+    private final long timeoutMillis;
+    private final ScheduledExecutorService senders;
+
+    private final Map<Long, Set<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+
+    private final Counter overflows;
+    private final Counter writeFailures;
+
+    public PlaybackEventBroadcaster(MeterRegistry meterRegistry,
+                                    @Value("${playback.events.buffer-size:16}") int bufferSize,
+                                    @Value("${playback.events.coalesce-ms:250}") long coalesceMillis,
+                                    @Value("${playback.events.timeout-ms:1800000}") long timeoutMillis,
+                                    @Value("${playback.events.sender-threads:2}") int senderThreads) {
+        this.bufferSize = bufferSize;
+        this.coalesceMillis = coalesceMillis;
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = Executors.newScheduledThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "playback-events-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Gauge.builder("playback.events.connections", connectionCount, AtomicInteger::get)
+                .description("Open server-sent event streams")
+                .register(meterRegistry);
+        this.overflows = Counter.builder("playback.events.closed").tag("reason", "overflow").register(meterRegistry);
+        this.writeFailures = Counter.builder("playback.events.closed").tag("reason", "error").register(meterRegistry);
+    }
+
+    /**
+     * Opens a stream for one device of the user, starting with the given current state.
+     *
+     * @param session the session being played, or {@code null}
+     * @param queue   the user's queue, or {@code null}
+     */
+    public SseEmitter connect(Long userId, PlaybackSession session, PlayQueue queue) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Connection connection = new Connection(userId, emitter);
+        emitter.onCompletion(() -> remove(connection));
+        emitter.onTimeout(() -> connection.close(null));
+        emitter.onError(ex -> remove(connection));
+        connections.compute(userId, (ignored, userConnections) -> {
+            Set<Connection> updated = userConnections != null ? userConnections : ConcurrentHashMap.newKeySet();
+            updated.add(connection);
+            return updated;
+        });
+        connectionCount.incrementAndGet();
+
+        // A change published since the state was read is newer and is kept
+        if (session != null) {
+            connection.offer(new Event(SESSION, SESSION, session), false);
+        }
+        if (queue != null) {
+            connection.offer(new Event(QUEUE, QUEUE, queue), false);
+        }
+        return emitter;
+    }
+
+    public void sessionChanged(PlaybackSession session) {
+        publish(session.getUserId(), new Event(SESSION, SESSION, session));
+    }
+
+    public void sessionEnded(Long userId, Long sessionId) {
+        publish(userId, new Event(SESSION_ENDED, SESSION, Map.of("sessionId", sessionId)));
+    }
+
+    public void queueChangedAfterCommit(PlayQueue queue) {
+        Event event = new Event(QUEUE, QUEUE, queue);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(queue.getUserId(), event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(queue.getUserId(), event);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${playback.events.keepalive-ms:30000}")
+    public void keepAlive() {
+        connections.values().forEach(userConnections -> userConnections.forEach(Connection::ping));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        connections.values().forEach(userConnections -> userConnections.forEach(connection -> connection.close(null)));
+        senders.shutdownNow();
+    }
+
+    private void publish(Long userId, Event event) {
+        Set<Connection> userConnections = connections.get(userId);
+        if (userConnections != null) {
+            userConnections.forEach(connection -> connection.offer(event, true));
+        }
+    }
+
+    private void remove(Connection connection) {
+        connections.computeIfPresent(connection.userId, (userId, userConnections) -> {
+            if (userConnections.remove(connection)) {
+                connectionCount.decrementAndGet();
+            }
+            return userConnections.isEmpty() ? null : userConnections;
+        });
+    }
+}
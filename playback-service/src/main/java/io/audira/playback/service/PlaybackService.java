@@ -4,17 +4,21 @@ import io.audira.playback.model.PlaybackSession;
 import io.audira.playback.repository.PlaybackSessionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 
+/**
+ * Playback sessions. Their state changes in {@link PlaybackSessionStore} and reaches the
+ * database only as periodic snapshots.
+ */
 @Service
 @RequiredArgsConstructor
 public class PlaybackService {
 
     private final PlaybackSessionRepository playbackSessionRepository;
+    private final PlaybackSessionStore playbackSessionStore;
+    private final PlaybackEventBroadcaster playbackEventBroadcaster;
 
-    @Transactional
     public PlaybackSession startPlayback(Long userId, Long songId, Integer duration) {
         PlaybackSession session = PlaybackSession.builder()
                 .userId(userId)
@@ -24,43 +28,53 @@ public class PlaybackService {
                 .duration(duration)
                 .isPlaying(true)
                 .build();
-        return playbackSessionRepository.save(session);
+        return changed(playbackSessionStore.start(session));
     }
 
-    @Transactional
     public PlaybackSession pausePlayback(Long sessionId) {
-        PlaybackSession session = playbackSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Playback session not found"));
-        session.setIsPlaying(false);
-        return playbackSessionRepository.save(session);
+        return changed(playbackSessionStore.update(sessionId, session -> session.setIsPlaying(false)));
     }
 
-    @Transactional
     public PlaybackSession resumePlayback(Long sessionId) {
-        PlaybackSession session = playbackSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Playback session not found"));
-        session.setIsPlaying(true);
-        return playbackSessionRepository.save(session);
+        return changed(playbackSessionStore.update(sessionId, session -> session.setIsPlaying(true)));
     }
 
-    @Transactional
     public PlaybackSession seek(Long sessionId, Integer timeInSeconds) {
-        PlaybackSession session = playbackSessionRepository.findById(sessionId)
-                .orElseThrow(() -> new RuntimeException("Playback session not found"));
-        session.setCurrentTime(timeInSeconds);
-        return playbackSessionRepository.save(session);
+        return changed(playbackSessionStore.update(sessionId, session -> session.setCurrentTime(timeInSeconds)));
+    }
+
+    /**
+     * Position report from the playing client; keeps the session alive.
+     *
+     * @param playing new play state, or {@code null} to leave it as is
+     */
+    public PlaybackSession heartbeat(Long sessionId, Integer timeInSeconds, Boolean playing) {
+        return changed(playbackSessionStore.update(sessionId, session -> {
+            session.setCurrentTime(timeInSeconds);
+            if (playing != null) {
+                session.setIsPlaying(playing);
+            }
+        }));
     }
 
-    @Transactional
     public void stopPlayback(Long sessionId) {
-        playbackSessionRepository.deleteById(sessionId);
+        Long userId = playbackSessionStore.stop(sessionId);
+        if (userId != null) {
+            playbackEventBroadcaster.sessionEnded(userId, sessionId);
+        }
     }
 
     public PlaybackSession getCurrentSession(Long userId) {
-        return playbackSessionRepository.findByUserIdAndIsPlayingTrue(userId).orElse(null);
+        return playbackSessionStore.current(userId);
     }
 
     public List<PlaybackSession> getUserSessions(Long userId) {
-        return playbackSessionRepository.findByUserIdOrderByStartTimeDesc(userId);
+        return playbackSessionStore.withLiveState(userId,
+                playbackSessionRepository.findByUserIdOrderByStartTimeDesc(userId));
+    }
+
+    private PlaybackSession changed(PlaybackSession session) {
+        playbackEventBroadcaster.sessionChanged(session);
+        return session;
     }
 }
@@ -0,0 +1,311 @@
+package io.audira.playback.service;
+
+import io.audira.playback.model.PlaybackSession;
+import io.audira.playback.repository.PlaybackSessionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Live playback sessions, one per user, held in memory so that pause, resume, seek and position
+ * heartbeats do not touch the database.
+ * <p>
+ * A session is inserted when it starts and deleted when it stops. In between its state is
+ * written back at most every {@code playback.sessions.snapshot-interval-ms}, and once more when
+ * the client goes quiet for {@code playback.sessions.idle-timeout-ms} past the end of the song,
+ * at which point it is marked as not playing and dropped from memory. Sessions missing from
+ * memory, for instance after a restart, are restored from their last snapshot on first use, so
+ * at most one snapshot interval of position updates is lost. State is per instance: requests
+ * for one user are expected to reach the same instance.
+ */
+@Component
+public class PlaybackSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlaybackSessionStore.class);
+
+    private static final class Live {
+        // All fields guarded by this
+        final PlaybackSession session;
+        long version;
+        boolean dirty;
+        long lastSeen;
+        long snapshotAt;
+        // Removed from the maps; callers holding it must look the session up again
+        boolean evicted;
+
+        Live(PlaybackSession session, long now) {
+            this.session = session;
+            this.lastSeen = now;
+            this.snapshotAt = now;
+        }
+
+        boolean idle(long now, long idleTimeoutMillis) {
+            long remainingMillis = session.getIsPlaying()
+                    ? Math.max(session.getDuration() - session.getCurrentTime(), 0) * 1000L
+                    : 0L;
+            return now - lastSeen > remainingMillis + idleTimeoutMillis;
+        }
+    }
+
+    private final PlaybackSessionRepository playbackSessionRepository;
+    private final long snapshotIntervalMillis;
+    private final long idleTimeoutMillis;
+
+    private final Map<Long, Live> byUser = new ConcurrentHashMap<>();
+    private final Map<Long, Long> userBySession = new ConcurrentHashMap<>();
+
+    private final Counter snapshots;
+    private final Counter snapshotFailures;
+
+    public PlaybackSessionStore(PlaybackSessionRepository playbackSessionRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${playback.sessions.snapshot-interval-ms:30000}") long snapshotIntervalMillis,
+                                @Value("${playback.sessions.idle-timeout-ms:120000}") long idleTimeoutMillis) {
+        this.playbackSessionRepository = playbackSessionRepository;
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+
+        Gauge.builder("playback.sessions.live", byUser, Map::size)
+                .description("Playback sessions held in memory")
+                .register(meterRegistry);
+        this.snapshots = Counter.builder("playback.sessions.snapshots").tag("outcome", "written").register(meterRegistry);
+        this.snapshotFailures = Counter.builder("playback.sessions.snapshots").tag("outcome", "failed").register(meterRegistry);
+    }
+
+    /**
+     * Inserts a new session and makes it the user's live one. Earlier sessions of the user are
+     * written back as not playing.
+     */
+    public PlaybackSession start(PlaybackSession session) {
+        Long userId = session.getUserId();
+        Live previous = byUser.get(userId);
+        if (previous != null) {
+            PlaybackSession last;
+            synchronized (previous) {
+                previous.session.setIsPlaying(false);
+                last = copy(previous.session);
+                evict(previous);
+            }
+            write(last);
+        }
+        playbackSessionRepository.stopPlayingByUserId(userId, LocalDateTime.now());
+        PlaybackSession saved = playbackSessionRepository.save(session);
+
+        Live live = new Live(saved, System.currentTimeMillis());
+        Live replaced = byUser.put(userId, live);
+        if (replaced != null && replaced != previous) {
+            // Another start of the same user raced with this one; the later put wins
+            synchronized (replaced) {
+                replaced.evicted = true;
+            }
+            userBySession.remove(replaced.session.getId());
+        }
+        userBySession.put(saved.getId(), userId);
+        return copy(saved);
+    }
+
+    /**
+     * Applies a change to a session and counts it as a heartbeat.
+     *
+     * @return the state after the change
+     */
+    public PlaybackSession update(Long sessionId, Consumer<PlaybackSession> change) {
+        while (true) {
+            Live live = liveBySession(sessionId);
+            synchronized (live) {
+                if (live.evicted) {
+                    continue;
+                }
+                change.accept(live.session);
+                long now = System.currentTimeMillis();
+                live.session.setUpdatedAt(LocalDateTime.now());
+                live.version++;
+                live.dirty = true;
+                live.lastSeen = now;
+                return copy(live.session);
+            }
+        }
+    }
+
+    /**
+     * @return the user of the session, or {@code null} if it did not exist
+     */
+    public Long stop(Long sessionId) {
+        Long userId = userBySession.get(sessionId);
+        Live live = userId != null ? byUser.get(userId) : null;
+        if (live != null) {
+            synchronized (live) {
+                if (!live.evicted && live.session.getId().equals(sessionId)) {
+                    evict(live);
+                }
+            }
+        } else {
+            userId = playbackSessionRepository.findById(sessionId).map(PlaybackSession::getUserId).orElse(null);
+        }
+        playbackSessionRepository.deleteById(sessionId);
+        return userId;
+    }
+
+    /**
+     * @return the session the user is playing, or {@code null}
+     */
+    public PlaybackSession current(Long userId) {
+        Live live = byUser.get(userId);
+        if (live == null) {
+            live = playbackSessionRepository.findFirstByUserIdAndIsPlayingTrueOrderByStartTimeDesc(userId)
+                    .map(this::restore)
+                    .orElse(null);
+        }
+        if (live == null) {
+            return null;
+        }
+        synchronized (live) {
+            return live.session.getIsPlaying() ? copy(live.session) : null;
+        }
+    }
+
+    /**
+     * Replaces the stored copy of the user's live session, if listed, with its current state.
+     */
+    public List<PlaybackSession> withLiveState(Long userId, List<PlaybackSession> sessions) {
+        Live live = byUser.get(userId);
+        if (live == null) {
+            return sessions;
+        }
+        PlaybackSession current;
+        synchronized (live) {
+            current = copy(live.session);
+        }
+        return sessions.stream()
+                .map(session -> session.getId().equals(current.getId()) ? current : session)
+                .toList();
+    }
+
+    /**
+     * Writes back sessions that changed since their last snapshot, and drops idle ones.
+     */
+    @Scheduled(fixedDelayString = "${playback.sessions.sweep-interval-ms:5000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        for (Live live : byUser.values()) {
+            PlaybackSession state;
+            long version;
+            boolean idle;
+            synchronized (live) {
+                if (live.evicted) {
+                    continue;
+                }
+                idle = live.idle(now, idleTimeoutMillis);
+                if (idle && live.session.getIsPlaying()) {
+                    live.session.setIsPlaying(false);
+                    live.version++;
+                    live.dirty = true;
+                }
+                if (!idle && !(live.dirty && now - live.snapshotAt >= snapshotIntervalMillis)) {
+                    continue;
+                }
+                state = live.dirty ? copy(live.session) : null;
+                version = live.version;
+            }
+            if (state != null && !write(state)) {
+                continue;
+            }
+            synchronized (live) {
+                live.snapshotAt = now;
+                // A change that arrived during the write keeps the session dirty and alive
+                if (live.version == version && !live.evicted) {
+                    live.dirty = false;
+                    if (idle) {
+                        evict(live);
+                    }
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void snapshotOnShutdown() {
+        for (Live live : byUser.values()) {
+            PlaybackSession state;
+            synchronized (live) {
+                if (live.evicted || !live.dirty) {
+                    continue;
+                }
+                state = copy(live.session);
+                live.dirty = false;
+            }
+            write(state);
+        }
+    }
+
+    private Live liveBySession(Long sessionId) {
+        Long userId = userBySession.get(sessionId);
+        Live live = userId != null ? byUser.get(userId) : null;
+        if (live != null && live.session.getId().equals(sessionId)) {
+            return live;
+        }
+        PlaybackSession stored = playbackSessionRepository.findById(sessionId)
+                .orElseThrow(() -> new RuntimeException("Playback session not found"));
+        Live restored = restore(stored);
+        if (!restored.session.getId().equals(sessionId)) {
+            throw new RuntimeException("Playback session is no longer the user's current one");
+        }
+        return restored;
+    }
+
+    /**
+     * Makes a stored session the user's live one unless another is live already, which is
+     * returned instead.
+     */
+    private Live restore(PlaybackSession stored) {
+        Live live = byUser.computeIfAbsent(stored.getUserId(), userId -> new Live(stored, System.currentTimeMillis()));
+        userBySession.putIfAbsent(live.session.getId(), live.session.getUserId());
+        return live;
+    }
+
+    // Caller holds the lock of live
+    private void evict(Live live) {
+        live.evicted = true;
+        byUser.remove(live.session.getUserId(), live);
+        userBySession.remove(live.session.getId());
+    }
+
+    private boolean write(PlaybackSession state) {
+        try {
+            playbackSessionRepository.updateState(state.getId(), state.getCurrentTime(), state.getIsPlaying(),
+                    state.getUpdatedAt());
+            snapshots.increment();
+            return true;
+        } catch (RuntimeException ex) {
+            snapshotFailures.increment();
+            logger.warn("Failed to snapshot playback session {}: {}", state.getId(), ex.getMessage());
+            return false;
+        }
+    }
+
+    private static PlaybackSession copy(PlaybackSession session) {
+        return PlaybackSession.builder()
+                .id(session.getId())
+                .userId(session.getUserId())
+                .songId(session.getSongId())
+                .startTime(session.getStartTime())
+                .currentTime(session.getCurrentTime())
+                .duration(session.getDuration())
+                .isPlaying(session.getIsPlaying())
+                .createdAt(session.getCreatedAt())
+                .updatedAt(session.getUpdatedAt())
+                .build();
+    }
+}
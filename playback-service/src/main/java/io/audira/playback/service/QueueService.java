@@ -10,25 +10,31 @@ import org.springframework.transaction.annotation.Transactional;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class QueueService {
 
     private final PlayQueueRepository playQueueRepository;
+    private final PlaybackEventBroadcaster playbackEventBroadcaster;
 
     public PlayQueue getUserQueue(Long userId) {
         return playQueueRepository.findByUserId(userId)
                 .orElseGet(() -> createDefaultQueue(userId));
     }
 
+    public Optional<PlayQueue> findUserQueue(Long userId) {
+        return playQueueRepository.findByUserId(userId);
+    }
+
     @Transactional
     public PlayQueue addToQueue(Long userId, Long songId) {
         PlayQueue queue = getUserQueue(userId);
         List<Long> songIds = new ArrayList<>(queue.getSongIds());
         songIds.add(songId);
         queue.setSongIds(songIds);
-        return playQueueRepository.save(queue);
+        return changed(queue);
     }
 
     @Transactional
@@ -37,7 +43,7 @@ public class QueueService {
         List<Long> songIds = new ArrayList<>(queue.getSongIds());
         songIds.remove(songId);
         queue.setSongIds(songIds);
-        return playQueueRepository.save(queue);
+        return changed(queue);
     }
 
     @Transactional
@@ -45,14 +51,14 @@ public class QueueService {
         PlayQueue queue = getUserQueue(userId);
         queue.setSongIds(new ArrayList<>());
         queue.setCurrentIndex(0);
-        return playQueueRepository.save(queue);
+        return changed(queue);
     }
 
     @Transactional
     public PlayQueue setCurrentIndex(Long userId, Integer index) {
         PlayQueue queue = getUserQueue(userId);
         queue.setCurrentIndex(index);
-        return playQueueRepository.save(queue);
+        return changed(queue);
     }
 
     @Transactional
@@ -64,7 +70,7 @@ public class QueueService {
             Collections.shuffle(songIds);
             queue.setSongIds(songIds);
         }
-        return playQueueRepository.save(queue);
+        return changed(queue);
     }
 
     @Transactional
@@ -72,7 +78,13 @@ public class QueueService {
         PlayQueue queue = getUserQueue(userId);
         // LÍNEA 71 CORREGIDA: Usa el Enum importado
         queue.setRepeatMode(RepeatMode.valueOf(repeatMode.toUpperCase())); 
-        return playQueueRepository.save(queue);
+        return changed(queue);
+    }
+
+    private PlayQueue changed(PlayQueue queue) {
+        PlayQueue saved = playQueueRepository.save(queue);
+        playbackEventBroadcaster.queueChangedAfterCommit(saved);
+        return saved;
     }
 
     private PlayQueue createDefaultQueue(Long userId) {
@@ -0,0 +1,209 @@
+package io.audira.playback.service;
+
+import io.audira.playback.dto.NeighboursPageDTO;
+import io.audira.playback.dto.RecommendationEvaluationDTO;
+import io.audira.playback.dto.SongNeighboursDTO;
+import io.audira.playback.repository.ListeningSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Item-to-item recommendations from co-listening.
+ * <p>
+ * A full rebuild over plays, playlists and favourites runs at startup and every
+ * {@code recommendations.rebuild-interval-ms}; in between, new plays are folded into the
+ * model incrementally every {@code recommendations.refresh-interval-ms}. Playlist and
+ * favourite changes are picked up by the next full rebuild. Requests merge the neighbours
+ * of the user's recent plays from an immutable snapshot.
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final float PLAY_WEIGHT = 1f;
+    private static final float PLAYLIST_WEIGHT = 1f;
+    private static final float FAVOURITE_WEIGHT = 2f;
+    // Recent plays whose neighbours are merged per request
+    private static final int SEEDS = 50;
+    private static final long[] NO_HISTORY = new long[0];
+
+    private final ListeningSequenceRepository listeningSequenceRepository;
+    private final int window;
+    private final int neighbourCount;
+    private final double minCompletion;
+
+    // Guarded by jobLock
+    private final Object jobLock = new Object();
+    private CoListeningModel model;
+    private long watermark;
+
+    private volatile CoListeningModel.Snapshot snapshot = CoListeningModel.Snapshot.EMPTY;
+
+    public RecommendationService(ListeningSequenceRepository listeningSequenceRepository,
+                                 @Value("${recommendations.window:50}") int window,
+                                 @Value("${recommendations.neighbours:50}") int neighbourCount,
+                                 @Value("${recommendations.min-completion:30}") double minCompletion) {
+        this.listeningSequenceRepository = listeningSequenceRepository;
+        this.window = window;
+        this.neighbourCount = neighbourCount;
+        this.minCompletion = minCompletion;
+    }
+
+    /**
+     * @return ids of recommended songs, best first; empty if the user has no usable history
+     */
+    public List<Long> recommend(Long userId, int limit) {
+        long[] seeds = listeningSequenceRepository.recentSongs(userId, Long.MAX_VALUE, null, minCompletion, SEEDS);
+        return snapshot.recommend(seeds, Math.max(limit, 0));
+    }
+
+    /**
+     * Pages through the neighbour lists of the current model, for consumers that derive their
+     * own structures from co-listening. Pages may hold fewer than {@code limit} entries.
+     */
+    public NeighboursPageDTO neighbours(int offset, int limit) {
+        CoListeningModel.Snapshot current = snapshot;
+        int next = offset + limit;
+        return new NeighboursPageDTO(current.neighbours(offset, limit), next < current.size() ? next : null);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(initialDelayString = "${recommendations.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${recommendations.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        synchronized (jobLock) {
+            long started = System.currentTimeMillis();
+            long upToId = listeningSequenceRepository.maxPlayId();
+            CoListeningModel rebuilt = train(upToId, null);
+            model = rebuilt;
+            watermark = upToId;
+            snapshot = rebuilt.snapshot();
+            logger.info("Rebuilt co-listening model with {} songs in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - started);
+        }
+    }
+
+    /**
+     * Adds plays recorded since the last run, continuing each user's listening window.
+     */
+    @Scheduled(fixedDelayString = "${recommendations.refresh-interval-ms:300000}")
+    public void refresh() {
+        synchronized (jobLock) {
+            if (model == null) {
+                return;
+            }
+            long upToId = listeningSequenceRepository.maxPlayId();
+            if (upToId <= watermark) {
+                return;
+            }
+            Map<Long, long[]> newPlays = new HashMap<>();
+            listeningSequenceRepository.forEachUserPlays(watermark, upToId, null, minCompletion, newPlays::put);
+            newPlays.forEach((userId, songs) -> {
+                long[] history = listeningSequenceRepository.recentSongs(userId, watermark, null, minCompletion, window);
+                model.addSequence(reversed(history), songs, PLAY_WEIGHT);
+            });
+            model.recomputeDirty();
+            watermark = upToId;
+            snapshot = model.snapshot();
+        }
+    }
+
+    /**
+     * Trains a separate model on everything before {@code now - holdoutDays} and measures
+     * hit-rate@k on the plays after it. The live model is not affected.
+     */
+    public RecommendationEvaluationDTO evaluate(int holdoutDays, int k, int maxUsers) {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(holdoutDays);
+        long started = System.currentTimeMillis();
+        CoListeningModel trained = train(Long.MAX_VALUE, cutoff);
+        long trainingMillis = System.currentTimeMillis() - started;
+        CoListeningModel.Snapshot candidate = trained.snapshot();
+        long[] popular = trained.mostFrequent(k + SEEDS);
+
+        int evaluated = 0;
+        int hits = 0;
+        int popularityHits = 0;
+        for (Long userId : listeningSequenceRepository.usersActiveSince(cutoff, minCompletion, maxUsers)) {
+            long[] seeds = listeningSequenceRepository.recentSongs(userId, Long.MAX_VALUE, cutoff, minCompletion, SEEDS);
+            Set<Long> heldOut = toSet(listeningSequenceRepository.songsPlayedSince(userId, cutoff, minCompletion));
+            Set<Long> seen = toSet(seeds);
+            heldOut.removeAll(seen);
+            if (seeds.length == 0 || heldOut.isEmpty()) {
+                continue;
+            }
+            evaluated++;
+            if (candidate.recommend(seeds, k).stream().anyMatch(heldOut::contains)) {
+                hits++;
+            }
+            if (topUnseen(popular, seen, k).stream().anyMatch(heldOut::contains)) {
+                popularityHits++;
+            }
+        }
+        return RecommendationEvaluationDTO.builder()
+                .cutoff(cutoff)
+                .k(k)
+                .usersEvaluated(evaluated)
+                .hits(hits)
+                .hitRate(evaluated > 0 ? (double) hits / evaluated : 0.0)
+                .popularityHitRate(evaluated > 0 ? (double) popularityHits / evaluated : 0.0)
+                .songsInModel(trained.size())
+                .trainingMillis(trainingMillis)
+                .build();
+    }
+
+    private CoListeningModel train(long upToId, LocalDateTime before) {
+        CoListeningModel trained = new CoListeningModel(window, neighbourCount);
+        listeningSequenceRepository.forEachUserPlays(0L, upToId, before, minCompletion,
+                (userId, songs) -> trained.addSequence(NO_HISTORY, songs, PLAY_WEIGHT));
+        listeningSequenceRepository.forEachPlaylist(before,
+                (playlistId, songs) -> trained.addSequence(NO_HISTORY, songs, PLAYLIST_WEIGHT));
+        listeningSequenceRepository.forEachUserFavourites(before,
+                (userId, songs) -> trained.addSequence(NO_HISTORY, songs, FAVOURITE_WEIGHT));
+        trained.recomputeDirty();
+        return trained;
+    }
+
+    private static List<Long> topUnseen(long[] ranked, Set<Long> seen, int k) {
+        List<Long> top = new ArrayList<>(k);
+        for (int i = 0; i < ranked.length && top.size() < k; i++) {
+            if (!seen.contains(ranked[i])) {
+                top.add(ranked[i]);
+            }
+        }
+        return top;
+    }
+
+    private static Set<Long> toSet(long[] ids) {
+        Set<Long> set = new HashSet<>(ids.length * 2);
+        for (long id : ids) {
+            set.add(id);
+        }
+        return set;
+    }
+
+    private static long[] reversed(long[] ids) {
+        long[] reversed = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            reversed[i] = ids[ids.length - 1 - i];
+        }
+        return reversed;
+    }
+}